@@ -11,4 +11,55 @@ import java.lang.annotation.Target;
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
-public @interface ExecutionTime {}
+public @interface ExecutionTime {
+
+  /**
+   * How the measurements of the annotated method are reported.
+   *
+   * @return the reporting mode, {@link Mode#DEFAULT} to use the {@code execution-time.mode}
+   *     property
+   */
+  Mode mode() default Mode.DEFAULT;
+
+  /**
+   * Only record the invocations lasting at least this many milliseconds.
+   *
+   * @return the threshold in milliseconds, {@code 0} to record every invocation, or {@code -1} to
+   *     use the {@code execution-time.threshold} property
+   */
+  long thresholdMillis() default -1;
+
+  /**
+   * Only measure one invocation out of {@code sampleRate}, chosen at random. The decision is made
+   * before the method is invoked, so the other invocations cost nothing but the proxy call.
+   *
+   * @return the sample rate, {@code 1} to measure every invocation, or {@code 0} to use the {@code
+   *     execution-time.sample-rate} property
+   */
+  int sampleRate() default 0;
+
+  /**
+   * Cap the number of records per second for the annotated method with a token bucket, which
+   * allows bursts of up to one second worth of records.
+   *
+   * @return the maximal number of records per second, {@code 0} for no limit, or {@code -1} to use
+   *     the {@code execution-time.max-records-per-second} property
+   */
+  int maxRecordsPerSecond() default -1;
+
+  /** Reporting modes of {@link ExecutionTime}. */
+  enum Mode {
+
+    /** Use the {@code execution-time.mode} property, or {@link #LOG} if it is not set. */
+    DEFAULT,
+
+    /** Log one line per invocation. */
+    LOG,
+
+    /**
+     * Record the durations into a per-method histogram and periodically log one p50/p90/p99/max
+     * summary per method. The period is configured by {@code execution-time.aggregate.interval}.
+     */
+    AGGREGATE
+  }
+}
@@ -0,0 +1,180 @@
+package com.vulinh.aspect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.lang.Nullable;
+
+/**
+ * A node of the call tree built by {@link ExecutionTimeAspect} for one top-level invocation of an
+ * annotated method, when {@code execution-time.call-tree.enabled} is set.
+ *
+ * <p>The repeated invocations of the same method from the same parent frame are merged into a
+ * single frame, so that a loop calling an annotated method a million times still produces a single
+ * child frame, with an invocation count of one million. The tree is therefore bounded by the number
+ * of distinct call paths, not by the number of calls.
+ *
+ * <p>A frame is only mutated by the thread running its top-level invocation, and becomes read-only
+ * once it is handed to the {@link ExecutionTimeSink}s.
+ */
+public final class CallFrame {
+
+  static final String STACK_SEPARATOR = ";";
+
+  private final MethodKey methodKey;
+  private final CallFrame parent;
+
+  private List<CallFrame> children;
+  private long invocationCount;
+  private long totalNanos;
+
+  // The same frame is never active twice at the same time, as a recursive call gets its own frame
+  long enteredNanos;
+
+  CallFrame(MethodKey methodKey, @Nullable CallFrame parent) {
+    this.methodKey = methodKey;
+    this.parent = parent;
+  }
+
+  /**
+   * Gets the key of the method of this frame.
+   *
+   * @return the method key
+   */
+  public MethodKey getMethodKey() {
+    return methodKey;
+  }
+
+  /**
+   * Gets the frames of the annotated methods invoked by this frame, in their first invocation
+   * order.
+   *
+   * @return the child frames, never {@code null}
+   */
+  public List<CallFrame> getChildren() {
+    return children == null ? Collections.emptyList() : Collections.unmodifiableList(children);
+  }
+
+  /**
+   * Gets the number of merged invocations of this frame.
+   *
+   * @return the invocation count
+   */
+  public long getInvocationCount() {
+    return invocationCount;
+  }
+
+  /**
+   * Gets the total time spent in this frame, including its children.
+   *
+   * @return the total time in nanoseconds
+   */
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * Gets the time spent in this frame itself, excluding the time spent in its children.
+   *
+   * @return the self time in nanoseconds
+   */
+  public long getSelfNanos() {
+    var childrenNanos = 0L;
+
+    for (var child : getChildren()) {
+      childrenNanos += child.totalNanos;
+    }
+
+    return Math.max(totalNanos - childrenNanos, 0L);
+  }
+
+  /**
+   * Renders the tree as one indented line per frame, with its invocation count, total time and self
+   * time.
+   *
+   * @return the rendered tree
+   */
+  public String toTreeString() {
+    var builder = new StringBuilder();
+
+    appendTree(builder, 0);
+
+    return builder.toString();
+  }
+
+  /**
+   * Computes the collapsed stacks of the tree, the input format of flame graph tools: every key is a
+   * call path, with frames separated by {@code ;}, and every value is the self time of that path in
+   * nanoseconds.
+   *
+   * @return the collapsed stacks, in depth-first order
+   */
+  public Map<String, Long> toCollapsedStacks() {
+    var stacks = new LinkedHashMap<String, Long>();
+
+    collectStacks(null, stacks);
+
+    return stacks;
+  }
+
+  CallFrame getParent() {
+    return parent;
+  }
+
+  // Reuses the frame of a previous invocation of the same method, if any
+  CallFrame child(MethodKey childMethodKey) {
+    if (children == null) {
+      children = new ArrayList<>(2);
+    }
+
+    for (var child : children) {
+      if (child.methodKey == childMethodKey) {
+        return child;
+      }
+    }
+
+    var child = new CallFrame(childMethodKey, this);
+
+    children.add(child);
+
+    return child;
+  }
+
+  void exit(long exitedNanos) {
+    invocationCount++;
+    totalNanos += exitedNanos - enteredNanos;
+  }
+
+  void appendTree(StringBuilder builder, int depth) {
+    builder
+        .append("  ".repeat(depth))
+        .append(methodKey)
+        .append(" x")
+        .append(invocationCount)
+        .append(": total ")
+        .append(totalNanos)
+        .append(" ns, self ")
+        .append(getSelfNanos())
+        .append(" ns")
+        .append(System.lineSeparator());
+
+    for (var child : getChildren()) {
+      child.appendTree(builder, depth + 1);
+    }
+  }
+
+  void collectStacks(@Nullable String parentStack, Map<String, Long> stacks) {
+    var stack =
+        parentStack == null
+            ? methodKey.getLabel()
+            : parentStack + STACK_SEPARATOR + methodKey.getLabel();
+
+    stacks.merge(stack, getSelfNanos(), Long::sum);
+
+    for (var child : getChildren()) {
+      child.collectStacks(stack, stacks);
+    }
+  }
+}
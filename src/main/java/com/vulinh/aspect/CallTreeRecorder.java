@@ -0,0 +1,103 @@
+package com.vulinh.aspect;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.lang.Nullable;
+
+/**
+ * Tracks the {@link CallFrame} of the annotated method currently running on each thread, and builds
+ * the call tree of every sampled top-level invocation.
+ *
+ * <p>The current frame is kept in a {@link ThreadLocal}, which is also isolated per virtual thread.
+ * Annotated methods invoked on another thread (with {@code @Async}, an executor, etc...) start a
+ * tree of their own.
+ */
+final class CallTreeRecorder {
+
+  // Marks a top-level invocation that was not sampled, so that its nested calls are ignored too
+  static final CallFrame SKIPPED = new CallFrame(null, null);
+
+  final ThreadLocal<CallFrame> currentFrame = new ThreadLocal<>();
+  final int sampleRate;
+  final long thresholdNanos;
+
+  /**
+   * Creates a recorder.
+   *
+   * @param sampleRate one top-level invocation out of {@code sampleRate} builds a tree
+   * @param thresholdNanos the minimal duration of a top-level invocation to report its tree
+   */
+  CallTreeRecorder(int sampleRate, long thresholdNanos) {
+    if (sampleRate < 1) {
+      throw new IllegalArgumentException("Call tree sample rate must be at least 1");
+    }
+
+    if (thresholdNanos < 0) {
+      throw new IllegalArgumentException("Call tree threshold cannot be negative");
+    }
+
+    this.sampleRate = sampleRate;
+    this.thresholdNanos = thresholdNanos;
+  }
+
+  /**
+   * Enters the frame of an annotated method.
+   *
+   * @param methodKey the key of the invoked method
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return the entered frame, to be passed to {@link #exit(CallFrame, long)}, or {@code null} if
+   *     the invocation is not tracked
+   */
+  @Nullable
+  CallFrame enter(MethodKey methodKey, long nowNanos) {
+    var parent = currentFrame.get();
+
+    if (parent == SKIPPED) {
+      return null;
+    }
+
+    CallFrame frame;
+
+    if (parent != null) {
+      frame = parent.child(methodKey);
+    } else if (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+      frame = new CallFrame(methodKey, null);
+    } else {
+      currentFrame.set(SKIPPED);
+      return SKIPPED;
+    }
+
+    frame.enteredNanos = nowNanos;
+    currentFrame.set(frame);
+
+    return frame;
+  }
+
+  /**
+   * Exits a frame returned by {@link #enter(MethodKey, long)}.
+   *
+   * @param frame the frame to exit
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return the root frame if a top-level invocation just completed and its tree should be
+   *     reported, {@code null} otherwise
+   */
+  @Nullable
+  CallFrame exit(CallFrame frame, long nowNanos) {
+    if (frame == SKIPPED) {
+      currentFrame.remove();
+      return null;
+    }
+
+    frame.exit(nowNanos);
+
+    var parent = frame.getParent();
+
+    if (parent != null) {
+      currentFrame.set(parent);
+      return null;
+    }
+
+    currentFrame.remove();
+
+    return frame.getTotalNanos() >= thresholdNanos ? frame : null;
+  }
+}
@@ -0,0 +1,63 @@
+package com.vulinh.aspect;
+
+import java.util.List;
+import org.slf4j.Logger;
+
+/**
+ * Forwards every measurement to the sinks of a list interested in its method, isolating them from
+ * each other's failures.
+ */
+class CompositeExecutionTimeSink implements ExecutionTimeSink {
+
+  static final Logger LOG = org.slf4j.LoggerFactory.getLogger(CompositeExecutionTimeSink.class);
+
+  // Replaced once all the sink beans are available
+  volatile List<ExecutionTimeSink> sinks;
+
+  CompositeExecutionTimeSink(List<ExecutionTimeSink> sinks) {
+    this.sinks = List.copyOf(sinks);
+  }
+
+  void setSinks(List<ExecutionTimeSink> sinks) {
+    this.sinks = List.copyOf(sinks);
+  }
+
+  @Override
+  public void record(MethodKey methodKey, long startedEpochMillis, long durationNanos) {
+    for (var sink : sinks) {
+      try {
+        if (sink.isInterestedIn(methodKey)) {
+          sink.record(methodKey, startedEpochMillis, durationNanos);
+        }
+      } catch (RuntimeException exception) {
+        LOG.warn("Sink {} failed to record method {}", sink, methodKey, exception);
+      }
+    }
+  }
+
+  @Override
+  public void recordCallTree(CallFrame root) {
+    for (var sink : sinks) {
+      try {
+        sink.recordCallTree(root);
+      } catch (RuntimeException exception) {
+        LOG.warn(
+            "Sink {} failed to record the call tree of method {}",
+            sink,
+            root.getMethodKey(),
+            exception);
+      }
+    }
+  }
+
+  @Override
+  public void flush() {
+    for (var sink : sinks) {
+      try {
+        sink.flush();
+      } catch (RuntimeException exception) {
+        LOG.warn("Sink {} failed to flush", sink, exception);
+      }
+    }
+  }
+}
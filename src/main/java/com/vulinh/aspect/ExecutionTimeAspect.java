@@ -1,100 +1,360 @@
 package com.vulinh.aspect;
 
-import com.vulinh.utils.CommonUtils;
+import com.vulinh.annotation.ExecutionTime;
+import com.vulinh.annotation.ExecutionTime.Mode;
+import com.vulinh.aspect.TimingRecordDispatcher.OverflowPolicy;
+import com.vulinh.utils.NPlusOneDetector;
+import java.lang.reflect.Method;
 import java.time.Duration;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.env.Environment;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.util.ClassUtils;
 
 /**
  * Please use {@code @}{@link org.springframework.context.annotation.Import}({@link
  * ExecutionTimeAspect}{@code .class)} on your Spring Boot main class to enable this aspect. This
  * class is designed to be pluggable, rather than to be an integrated part of the application
  * context. Then annotate the method with {@code @}{@link com.vulinh.annotation.ExecutionTime}
+ *
+ * <p>Supported properties:
+ *
+ * <ul>
+ *   <li>{@value #MODE_PROPERTY}: the reporting mode of the methods annotated with {@link
+ *       Mode#DEFAULT}, either {@code LOG} (default) or {@code AGGREGATE}
+ *   <li>{@value #AGGREGATE_INTERVAL_PROPERTY}: the period between two summaries in the aggregated
+ *       mode, such as {@code 30s} or {@code PT1M} (default {@code 1m})
+ *   <li>{@value #THRESHOLD_PROPERTY}: the minimal duration of a recorded invocation, such as {@code
+ *       200ms} (default {@code 0})
+ *   <li>{@value #SAMPLE_RATE_PROPERTY}: measure one invocation out of N (default {@code 1})
+ *   <li>{@value #MAX_RECORDS_PER_SECOND_PROPERTY}: the maximal number of records per second and
+ *       per method, {@code 0} for no limit (default {@code 0})
+ *   <li>{@value #BUFFER_CAPACITY_PROPERTY}: the number of slots of the buffer holding the records
+ *       waiting to be logged, rounded up to a power of two (default {@code 8192})
+ *   <li>{@value #BUFFER_OVERFLOW_POLICY_PROPERTY}: what to do when that buffer is full, either
+ *       {@code DROP} the record (default) or {@code BLOCK} the caller until a slot is free
+ *   <li>{@value #CALL_TREE_ENABLED_PROPERTY}: build the {@link CallFrame call tree} of the
+ *       annotated methods invoked by each top-level annotated invocation, and report the total and
+ *       self time of every frame (default {@code false})
+ *   <li>{@value #CALL_TREE_SAMPLE_RATE_PROPERTY}: build the tree of one top-level invocation out of
+ *       N (default {@code 1})
+ *   <li>{@value #CALL_TREE_THRESHOLD_PROPERTY}: only report the trees of the top-level invocations
+ *       lasting at least this long (default {@code 0})
+ *   <li>{@value #N_PLUS_ONE_ENABLED_PROPERTY}: open a {@link NPlusOneDetector} scope around each
+ *       top-level annotated invocation, which requires {@link com.vulinh.utils.MyP6SpyLogging} as
+ *       the p6spy appender (default {@code false})
+ *   <li>{@value #N_PLUS_ONE_THRESHOLD_PROPERTY}: flag the invocations executing the same {@code
+ *       SELECT} more than this many times (default {@value NPlusOneDetector#DEFAULT_THRESHOLD})
+ *   <li>{@value #N_PLUS_ONE_SAMPLE_RATE_PROPERTY}: open a scope for one top-level invocation out
+ *       of N (default {@code 1})
+ * </ul>
+ *
+ * <p>Each of them only applies to the methods that do not override it in their {@link
+ * com.vulinh.annotation.ExecutionTime} annotation. Sampling is decided before the method is
+ * invoked, the threshold and the rate limit right after it returns, and only then is any logging or
+ * aggregating work done.
+ *
+ * <p>In the {@link Mode#LOG} mode, the records are published to a bounded ring buffer, and a single
+ * consumer thread (a virtual thread if {@code spring.threads.virtual.enabled} is set) formats and
+ * logs them in batches, so that the caller never does any logging work itself. The number of
+ * records dropped because the buffer was full is available with {@link #getDroppedRecordCount()}.
+ *
+ * <p>Besides SLF4J, the measurements can be published to any {@link ExecutionTimeSink} declared as a
+ * bean, such as {@link MicrometerExecutionTimeSink} or {@link JfrExecutionTimeSink}. Those sinks
+ * receive the measurements of every mode, through the same buffer, but only for the methods they
+ * are {@link ExecutionTimeSink#isInterestedIn(MethodKey) interested in}, so that the methods no
+ * sink consumes are still not measured.
  */
 @Aspect
-public class ExecutionTimeAspect {
+public class ExecutionTimeAspect implements SmartInitializingSingleton, DisposableBean {
+
+  static final String MODE_PROPERTY = "execution-time.mode";
+  static final String AGGREGATE_INTERVAL_PROPERTY = "execution-time.aggregate.interval";
+  static final String THRESHOLD_PROPERTY = "execution-time.threshold";
+  static final String SAMPLE_RATE_PROPERTY = "execution-time.sample-rate";
+  static final String MAX_RECORDS_PER_SECOND_PROPERTY = "execution-time.max-records-per-second";
+  static final String BUFFER_CAPACITY_PROPERTY = "execution-time.buffer.capacity";
+  static final String BUFFER_OVERFLOW_POLICY_PROPERTY = "execution-time.buffer.overflow-policy";
+  static final String CALL_TREE_ENABLED_PROPERTY = "execution-time.call-tree.enabled";
+  static final String CALL_TREE_SAMPLE_RATE_PROPERTY = "execution-time.call-tree.sample-rate";
+  static final String CALL_TREE_THRESHOLD_PROPERTY = "execution-time.call-tree.threshold";
+  static final String N_PLUS_ONE_ENABLED_PROPERTY = "execution-time.n-plus-one.enabled";
+  static final String N_PLUS_ONE_THRESHOLD_PROPERTY = "execution-time.n-plus-one.threshold";
+  static final String N_PLUS_ONE_SAMPLE_RATE_PROPERTY = "execution-time.n-plus-one.sample-rate";
+
+  static final int DEFAULT_BUFFER_CAPACITY = 8192;
+
+  static final Duration DEFAULT_AGGREGATE_INTERVAL = Duration.ofMinutes(1);
 
   final ApplicationContext applicationContext;
   final boolean isVirtualThread;
+  final Mode defaultMode;
+  final long defaultThresholdNanos;
+  final int defaultSampleRate;
+  final int defaultMaxRecordsPerSecond;
+  final LatencyAggregator latencyAggregator;
+  final TimingRecordDispatcher timingRecordDispatcher;
+  final CompositeExecutionTimeSink sink;
+
+  // Null when call trees are disabled
+  final CallTreeRecorder callTreeRecorder;
 
-  static final AtomicReference<ExecutionTimeAspect> SELF = new AtomicReference<>();
+  // 0 when N+1 detection is disabled
+  final int nPlusOneThreshold;
+  final int nPlusOneSampleRate;
+
+  // The sink beans other than the built-in SLF4J one
+  volatile ExtraSinks extraSinks = ExtraSinks.NONE;
+
+  // Spring creates a new Signature for every join point, so the keys are cached by Method instead.
+  // They are grouped by target class, as several annotated classes may implement the same method.
+  final ClassValue<Map<Method, MethodKey>> methodKeys =
+      new ClassValue<>() {
+        @Override
+        protected Map<Method, MethodKey> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
 
   public ExecutionTimeAspect(ApplicationContext applicationContext, Environment environment) {
     this.applicationContext = applicationContext;
     isVirtualThread = isVirtualThreadConfigured(environment);
-  }
+    defaultMode = resolveDefaultMode(environment);
+    defaultThresholdNanos = parseDuration(environment, THRESHOLD_PROPERTY, Duration.ZERO).toNanos();
+    defaultSampleRate = environment.getProperty(SAMPLE_RATE_PROPERTY, Integer.class, 1);
+    defaultMaxRecordsPerSecond =
+        environment.getProperty(MAX_RECORDS_PER_SECOND_PROPERTY, Integer.class, 0);
+    latencyAggregator =
+        new LatencyAggregator(
+            parseDuration(environment, AGGREGATE_INTERVAL_PROPERTY, DEFAULT_AGGREGATE_INTERVAL));
+    timingRecordDispatcher =
+        new TimingRecordDispatcher(
+            environment.getProperty(
+                BUFFER_CAPACITY_PROPERTY, Integer.class, DEFAULT_BUFFER_CAPACITY),
+            environment.getProperty(
+                BUFFER_OVERFLOW_POLICY_PROPERTY, OverflowPolicy.class, OverflowPolicy.DROP),
+            isVirtualThread,
+            sink = new CompositeExecutionTimeSink(List.of(new Slf4jExecutionTimeSink())));
+    callTreeRecorder =
+        environment.getProperty(CALL_TREE_ENABLED_PROPERTY, Boolean.class, false)
+            ? new CallTreeRecorder(
+                environment.getProperty(CALL_TREE_SAMPLE_RATE_PROPERTY, Integer.class, 1),
+                parseDuration(environment, CALL_TREE_THRESHOLD_PROPERTY, Duration.ZERO).toNanos())
+            : null;
+    nPlusOneThreshold =
+        environment.getProperty(N_PLUS_ONE_ENABLED_PROPERTY, Boolean.class, false)
+            ? environment.getProperty(
+                N_PLUS_ONE_THRESHOLD_PROPERTY, Integer.class, NPlusOneDetector.DEFAULT_THRESHOLD)
+            : 0;
+    nPlusOneSampleRate = environment.getProperty(N_PLUS_ONE_SAMPLE_RATE_PROPERTY, Integer.class, 1);
 
-  static final DateTimeFormatter READABLE_TIMESTAMP =
-      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+    if (nPlusOneSampleRate < 1) {
+      throw new IllegalArgumentException("N+1 detection sample rate must be positive");
+    }
+  }
 
   static final Logger LOG = org.slf4j.LoggerFactory.getLogger(ExecutionTimeAspect.class);
 
-  @SuppressWarnings("java:S6809") // intentionally self-invocation
   @Around("@annotation(com.vulinh.annotation.ExecutionTime)")
   public Object monitorExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-    var startedTimestamp = Instant.now();
+    var methodKey = getMethodKey(joinPoint);
+
+    // Only the outermost invocation opens a scope, the nested ones would join it anyway
+    if (nPlusOneThreshold > 0 && !NPlusOneDetector.isActive() && isNPlusOneSampled()) {
+      try (var ignored = NPlusOneDetector.open(methodKey.getLabel(), nPlusOneThreshold)) {
+        return measure(joinPoint, methodKey);
+      }
+    }
+
+    return measure(joinPoint, methodKey);
+  }
+
+  Object measure(ProceedingJoinPoint joinPoint, MethodKey methodKey) throws Throwable {
+    var isAggregated = methodKey.getMode() == Mode.AGGREGATE;
+    var isDispatched =
+        (!isAggregated && LOG.isInfoEnabled()) || extraSinks.isAnyInterestedIn(methodKey);
+    var recordingPolicy = methodKey.getRecordingPolicy();
+    var isMeasured = (isAggregated || isDispatched) && recordingPolicy.isSampled();
+
+    // Nothing would be emitted, or this invocation is not sampled, so do not even measure
+    if (!isMeasured && callTreeRecorder == null) {
+      return joinPoint.proceed();
+    }
+
+    var startedEpochMillis = isMeasured && isDispatched ? System.currentTimeMillis() : 0L;
+    var startedNanos = System.nanoTime();
+    var callFrame =
+        callTreeRecorder == null ? null : callTreeRecorder.enter(methodKey, startedNanos);
 
     try {
       return joinPoint.proceed();
     } finally {
-      if (isVirtualThread) {
-        // Proxy invocation
-        getSelf().asyncLog(joinPoint, startedTimestamp);
-      } else {
-        // Self-invocation
-        asyncLog(joinPoint, startedTimestamp);
+      var stoppedNanos = System.nanoTime();
+      var durationNanos = stoppedNanos - startedNanos;
+
+      if (isMeasured && recordingPolicy.shouldRecord(durationNanos, stoppedNanos)) {
+        if (isAggregated) {
+          latencyAggregator.record(methodKey, durationNanos);
+        }
+
+        if (isDispatched) {
+          timingRecordDispatcher.publish(methodKey, startedEpochMillis, durationNanos);
+        }
       }
+
+      if (callFrame != null) {
+        var root = callTreeRecorder.exit(callFrame, stoppedNanos);
+
+        if (root != null) {
+          timingRecordDispatcher.publishCallTree(root);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the number of records dropped because the logging buffer was full. With the {@code BLOCK}
+   * overflow policy, only counts the records of the methods measured by a sink itself.
+   *
+   * @return the number of dropped records since the application started
+   */
+  public long getDroppedRecordCount() {
+    return timingRecordDispatcher.getDroppedCount();
+  }
+
+  boolean isNPlusOneSampled() {
+    return nPlusOneSampleRate == 1 || ThreadLocalRandom.current().nextInt(nPlusOneSampleRate) == 0;
+  }
+
+  MethodKey getMethodKey(ProceedingJoinPoint joinPoint) {
+    var method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    var targetClass = ClassUtils.getUserClass(joinPoint.getTarget());
+    var keys = methodKeys.get(targetClass);
+    var methodKey = keys.get(method);
+
+    return methodKey == null
+        ? keys.computeIfAbsent(method, ignored -> createMethodKey(method, targetClass))
+        : methodKey;
+  }
+
+  // The most specific method is used, so that annotations placed on the implementation rather than
+  // on the interface are honored
+  MethodKey createMethodKey(Method method, Class<?> targetClass) {
+    var specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+    var executionTime =
+        AnnotatedElementUtils.findMergedAnnotation(specificMethod, ExecutionTime.class);
+
+    if (executionTime == null) {
+      return new MethodKey(
+          specificMethod,
+          defaultMode,
+          new RecordingPolicy(defaultThresholdNanos, defaultSampleRate, defaultMaxRecordsPerSecond));
     }
+
+    var mode = executionTime.mode() == Mode.DEFAULT ? defaultMode : executionTime.mode();
+    var thresholdNanos =
+        executionTime.thresholdMillis() < 0
+            ? defaultThresholdNanos
+            : TimeUnit.MILLISECONDS.toNanos(executionTime.thresholdMillis());
+    var sampleRate =
+        executionTime.sampleRate() == 0 ? defaultSampleRate : executionTime.sampleRate();
+    var maxRecordsPerSecond =
+        executionTime.maxRecordsPerSecond() < 0
+            ? defaultMaxRecordsPerSecond
+            : executionTime.maxRecordsPerSecond();
+
+    return new MethodKey(
+        specificMethod, mode, new RecordingPolicy(thresholdNanos, sampleRate, maxRecordsPerSecond));
   }
 
-  @Async
-  public void asyncLog(ProceedingJoinPoint joinPoint, Instant startedTimestamp) {
-    var stoppedTimestamp = Instant.now();
-
-    var signature = joinPoint.getSignature();
-
-    // Invoking conditionally
-    if (LOG.isInfoEnabled()) {
-      LOG.info(
-          "Execution time of method {}.{}({}) is {} ms ({} ns) (from {} to {})",
-          signature.getDeclaringTypeName(),
-          signature.getName(),
-          Arrays.stream(joinPoint.getArgs())
-              .<String>mapMulti(
-                  (argument, downstream) ->
-                      downstream.accept(
-                          argument == null ? "null" : argument.getClass().getSimpleName()))
-              .collect(Collectors.joining(CommonUtils.COMMA)),
-          Duration.between(startedTimestamp, stoppedTimestamp).toMillis(),
-          Duration.between(startedTimestamp, stoppedTimestamp).toNanos(),
-          toLocalDateTime(startedTimestamp),
-          toLocalDateTime(stoppedTimestamp));
+  // Sink beans are only looked up once all singletons exist, as they may depend on beans that are
+  // themselves advised by this aspect
+  @Override
+  public void afterSingletonsInstantiated() {
+    var extraSinks =
+        applicationContext.getBeanProvider(ExecutionTimeSink.class).orderedStream().toList();
+
+    if (!extraSinks.isEmpty()) {
+      var sinks = new ArrayList<ExecutionTimeSink>(extraSinks.size() + 1);
+
+      sinks.add(new Slf4jExecutionTimeSink());
+      sinks.addAll(extraSinks);
+
+      sink.setSinks(sinks);
+      this.extraSinks = new ExtraSinks(extraSinks, new ConcurrentHashMap<>());
     }
   }
 
-  ExecutionTimeAspect getSelf() {
-    if (SELF.get() == null) {
-      SELF.compareAndSet(null, applicationContext.getBean(ExecutionTimeAspect.class));
+  /**
+   * The sink beans other than the built-in SLF4J one.
+   *
+   * @param sinks the sinks
+   * @param interests whether any of the sinks is interested in a method, by method key
+   */
+  record ExtraSinks(List<ExecutionTimeSink> sinks, Map<MethodKey, Boolean> interests) {
+
+    static final ExtraSinks NONE = new ExtraSinks(List.of(), Map.of());
+
+    boolean isAnyInterestedIn(MethodKey methodKey) {
+      if (sinks.isEmpty()) {
+        return false;
+      }
+
+      var isInterested = interests.get(methodKey);
+
+      return isInterested == null
+          ? interests.computeIfAbsent(methodKey, this::computeInterest)
+          : isInterested;
     }
 
-    return SELF.get();
+    boolean computeInterest(MethodKey methodKey) {
+      for (var sink : sinks) {
+        try {
+          if (sink.isInterestedIn(methodKey)) {
+            return true;
+          }
+        } catch (RuntimeException exception) {
+          LOG.warn("Sink {} failed to tell its interest in method {}", sink, methodKey, exception);
+        }
+      }
+
+      return false;
+    }
   }
 
-  static String toLocalDateTime(Instant startedTimestamp) {
-    return "%s UTC"
-        .formatted(
-            READABLE_TIMESTAMP.format(startedTimestamp.atOffset(ZoneOffset.UTC).toLocalDateTime()));
+  @Override
+  public void destroy() {
+    timingRecordDispatcher.close();
+    latencyAggregator.close();
+  }
+
+  static Mode resolveDefaultMode(Environment environment) {
+    var mode = environment.getProperty(MODE_PROPERTY, Mode.class, Mode.LOG);
+
+    return mode == Mode.DEFAULT ? Mode.LOG : mode;
+  }
+
+  static Duration parseDuration(Environment environment, String property, Duration defaultValue) {
+    var value = environment.getProperty(property);
+
+    return value == null || value.isBlank()
+        ? defaultValue
+        : DurationStyle.detectAndParse(value.strip());
   }
 
   static boolean isVirtualThreadConfigured(Environment environment) {
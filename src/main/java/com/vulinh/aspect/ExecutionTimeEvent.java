@@ -0,0 +1,37 @@
+package com.vulinh.aspect;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.Timestamp;
+
+/**
+ * The JFR event committed by {@link JfrExecutionTimeSink}. It is committed on the consumer thread
+ * of {@link ExecutionTimeAspect}, so the measured start time and duration are carried as fields
+ * rather than as the event's own timing.
+ */
+@Name("com.vulinh.ExecutionTime")
+@Label("Execution Time")
+@Description("Execution time of a method annotated with @ExecutionTime")
+@Category("Spring Base Commons")
+@StackTrace(false)
+class ExecutionTimeEvent extends Event {
+
+  @Label("Declaring Class")
+  String declaringClass;
+
+  @Label("Method")
+  String methodName;
+
+  @Label("Started At")
+  @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+  long startedAt;
+
+  @Label("Execution Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long executionTime;
+}
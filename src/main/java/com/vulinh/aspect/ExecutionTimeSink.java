@@ -0,0 +1,61 @@
+package com.vulinh.aspect;
+
+/**
+ * Receives the measurements recorded by {@link ExecutionTimeAspect}. Declare an implementation as a
+ * Spring bean to have it picked up by the aspect, for example:
+ *
+ * <pre>{@code
+ * @Bean
+ * ExecutionTimeSink micrometerExecutionTimeSink(MeterRegistry meterRegistry) {
+ *   return new MicrometerExecutionTimeSink(meterRegistry);
+ * }
+ *
+ * @Bean
+ * ExecutionTimeSink jfrExecutionTimeSink() {
+ *   return new JfrExecutionTimeSink();
+ * }
+ * }</pre>
+ *
+ * <p>Sinks are invoked on the single consumer thread of the aspect, never on the measured thread, so
+ * implementations do not need to be thread-safe, but should not block for long. They receive every
+ * recorded measurement of the methods they are {@link #isInterestedIn(MethodKey) interested in},
+ * whatever the {@link com.vulinh.annotation.ExecutionTime.Mode} of the method, after the sampling,
+ * threshold and rate limit policies have been applied.
+ */
+@FunctionalInterface
+public interface ExecutionTimeSink {
+
+  /**
+   * Receives a single measurement.
+   *
+   * @param methodKey the key of the measured method
+   * @param startedEpochMillis the wall-clock time at which the method started
+   * @param durationNanos the execution time in nanoseconds, measured with a monotonic clock
+   */
+  void record(MethodKey methodKey, long startedEpochMillis, long durationNanos);
+
+  /**
+   * Tells whether the sink records the measurements of a method. The invocations of the methods
+   * that no sink is interested in, and that are neither logged nor aggregated, are not even
+   * measured. Asked once per method, from any thread, so the answer must not change. Every method
+   * is of interest by default.
+   *
+   * @param methodKey the key of the measured method
+   * @return {@code true} if {@link #record(MethodKey, long, long)} should receive the measurements
+   *     of the method
+   */
+  default boolean isInterestedIn(MethodKey methodKey) {
+    return true;
+  }
+
+  /**
+   * Receives the call tree of a completed top-level invocation, when {@code
+   * execution-time.call-tree.enabled} is set. Does nothing by default.
+   *
+   * @param root the root frame of the tree
+   */
+  default void recordCallTree(CallFrame root) {}
+
+  /** Called after each batch of measurements, for sinks that buffer their output. */
+  default void flush() {}
+}
@@ -0,0 +1,28 @@
+package com.vulinh.aspect;
+
+import jdk.jfr.EventType;
+
+/**
+ * Publishes every measurement as an {@code com.vulinh.ExecutionTime} JFR event, carrying the
+ * declaring class, the method name, the start time and the execution time. When no recording has
+ * the event enabled, the measurement is discarded right away, without allocating the event.
+ */
+public class JfrExecutionTimeSink implements ExecutionTimeSink {
+
+  static final EventType EVENT_TYPE = EventType.getEventType(ExecutionTimeEvent.class);
+
+  @Override
+  public void record(MethodKey methodKey, long startedEpochMillis, long durationNanos) {
+    if (!EVENT_TYPE.isEnabled()) {
+      return;
+    }
+
+    var event = new ExecutionTimeEvent();
+
+    event.declaringClass = methodKey.getDeclaringTypeName();
+    event.methodName = methodKey.getMethodName();
+    event.startedAt = startedEpochMillis;
+    event.executionTime = durationNanos;
+    event.commit();
+  }
+}
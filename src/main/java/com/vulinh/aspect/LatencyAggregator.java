@@ -0,0 +1,124 @@
+package com.vulinh.aspect;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+
+/**
+ * Aggregates the execution times of {@link com.vulinh.annotation.ExecutionTime.Mode#AGGREGATE}
+ * methods into one {@link LatencyHistogram} per method, and periodically logs one summary line per
+ * method that was invoked during the interval.
+ */
+class LatencyAggregator implements AutoCloseable {
+
+  static final Logger LOG = org.slf4j.LoggerFactory.getLogger(LatencyAggregator.class);
+
+  final Map<MethodKey, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+  final Duration interval;
+
+  // Started on the first recorded value, so that applications not using the aggregated mode do not
+  // pay for an idle thread
+  volatile ScheduledExecutorService scheduler;
+
+  LatencyAggregator(Duration interval) {
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Aggregation interval must be positive");
+    }
+
+    this.interval = interval;
+  }
+
+  /**
+   * Records the execution time of a method.
+   *
+   * @param methodKey the key of the invoked method
+   * @param durationNanos the execution time in nanoseconds
+   */
+  void record(MethodKey methodKey, long durationNanos) {
+    var histogram = histograms.get(methodKey);
+
+    if (histogram == null) {
+      histogram = histograms.computeIfAbsent(methodKey, ignored -> new LatencyHistogram());
+      ensureStarted();
+    }
+
+    histogram.record(durationNanos);
+  }
+
+  /** Logs and resets the summary of every method that was invoked since the previous report. */
+  void report() {
+    if (!LOG.isInfoEnabled()) {
+      // Still reset the histograms, so that the next enabled report only covers its own interval
+      histograms.values().forEach(LatencyHistogram::snapshotAndReset);
+      return;
+    }
+
+    histograms.forEach(
+        (methodKey, histogram) -> {
+          var snapshot = histogram.snapshotAndReset();
+
+          if (snapshot.count() == 0) {
+            return;
+          }
+
+          LOG.info(
+              "Execution time summary of method {} over {}: {} call(s), p50 = {} ns, p90 = {} ns, p99 = {} ns, max = {} ns",
+              methodKey,
+              interval,
+              snapshot.count(),
+              snapshot.valueAtPercentile(50),
+              snapshot.valueAtPercentile(90),
+              snapshot.valueAtPercentile(99),
+              snapshot.max());
+        });
+  }
+
+  void ensureStarted() {
+    if (scheduler != null) {
+      return;
+    }
+
+    synchronized (this) {
+      if (scheduler == null) {
+        var executor =
+            Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                  var thread = new Thread(runnable, "execution-time-aggregator");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+
+        var periodNanos = interval.toNanos();
+
+        executor.scheduleAtFixedRate(
+            this::safeReport, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+
+        scheduler = executor;
+      }
+    }
+  }
+
+  void safeReport() {
+    try {
+      report();
+    } catch (RuntimeException exception) {
+      // A failing report must not cancel the periodic task
+      LOG.warn("Failed to report execution time summaries", exception);
+    }
+  }
+
+  @Override
+  public void close() {
+    var executor = scheduler;
+
+    if (executor != null) {
+      executor.shutdownNow();
+      // Flush what has been recorded since the last report
+      safeReport();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.vulinh.aspect;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free, log-linear latency histogram in the spirit of HdrHistogram.
+ *
+ * <p>Values below {@code 2^SUB_BUCKET_BITS} are counted exactly. Larger values are grouped by their
+ * power of two, and each group is split into {@code 2^SUB_BUCKET_BITS} linear sub-buckets, which
+ * bounds the relative error of any reported percentile to {@code 1 / 2^SUB_BUCKET_BITS} (about
+ * 1.6%). Recording is a single atomic increment plus a max update, so it never blocks and never
+ * allocates.
+ */
+class LatencyHistogram {
+
+  static final int SUB_BUCKET_BITS = 6;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a single value. Negative values are recorded as zero.
+   *
+   * @param value the value to record, usually a duration in nanoseconds
+   */
+  void record(long value) {
+    var nonNegativeValue = Math.max(value, 0L);
+
+    counts.incrementAndGet(indexOf(nonNegativeValue));
+    max.accumulateAndGet(nonNegativeValue, Math::max);
+  }
+
+  /**
+   * Takes a snapshot of all values recorded since the previous call and resets the histogram. Each
+   * recorded value ends up in exactly one snapshot, even under concurrent recording.
+   *
+   * @return the snapshot of the recorded values
+   */
+  Snapshot snapshotAndReset() {
+    var snapshotCounts = new long[BUCKET_COUNT];
+    var totalCount = 0L;
+
+    for (var index = 0; index < BUCKET_COUNT; index++) {
+      var count = counts.getAndSet(index, 0L);
+
+      snapshotCounts[index] = count;
+      totalCount += count;
+    }
+
+    return new Snapshot(snapshotCounts, totalCount, max.getAndSet(0L));
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+
+    var shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+    return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+  }
+
+  // The highest value that still maps to the given index
+  static long highestValueOf(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+
+    var shift = index / SUB_BUCKET_COUNT - 1;
+    var mantissa = (long) SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+  /**
+   * An immutable view of the values recorded during one reporting interval.
+   *
+   * @param counts the count of each bucket
+   * @param count the total number of recorded values
+   * @param max the highest recorded value
+   */
+  record Snapshot(long[] counts, long count, long max) {
+
+    /**
+     * Gets the value at the given percentile, never higher than the recorded maximum.
+     *
+     * @param percentile the percentile, from {@code 0} to {@code 100}
+     * @return the value at the percentile, or {@code 0} if nothing was recorded
+     */
+    long valueAtPercentile(double percentile) {
+      if (count == 0) {
+        return 0L;
+      }
+
+      var target = Math.max(1L, (long) Math.ceil(count * Math.min(percentile, 100.0) / 100.0));
+      var accumulated = 0L;
+
+      for (var index = 0; index < counts.length; index++) {
+        accumulated += counts[index];
+
+        if (accumulated >= target) {
+          return Math.min(highestValueOf(index), max);
+        }
+      }
+
+      return max;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.vulinh.aspect;
+
+import com.vulinh.annotation.ExecutionTime;
+import com.vulinh.annotation.ExecutionTime.Mode;
+import com.vulinh.utils.CommonUtils;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable key identifying a method measured by {@link ExecutionTimeAspect}. One instance is
+ * created per method and then reused for every invocation, so it can be compared by identity.
+ *
+ * <p>The {@link ExecutionTime} annotation and its {@link RecordingPolicy} are resolved once, when
+ * the key is created, so that the aspect does not need to bind them on every invocation.
+ *
+ * <p>The human-readable label, such as {@code com.example.UserService.findUser(UUID,boolean)}, is
+ * only built the first time it is requested, which usually happens when a record is actually
+ * emitted.
+ */
+public final class MethodKey {
+
+  private final Method method;
+  private final Mode mode;
+  private final RecordingPolicy recordingPolicy;
+
+  // Benign race: the label is idempotent, so computing it twice is harmless
+  private String label;
+
+  MethodKey(Method method, Mode mode, RecordingPolicy recordingPolicy) {
+    this.method = method;
+    this.mode = mode;
+    this.recordingPolicy = recordingPolicy;
+  }
+
+  /**
+   * Gets the measured method.
+   *
+   * @return the method
+   */
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * Gets the reporting mode of the method, after resolving {@link Mode#DEFAULT}.
+   *
+   * @return the reporting mode, never {@link Mode#DEFAULT}
+   */
+  public Mode getMode() {
+    return mode;
+  }
+
+  RecordingPolicy getRecordingPolicy() {
+    return recordingPolicy;
+  }
+
+  /**
+   * Gets the fully qualified name of the class declaring the method.
+   *
+   * @return the declaring class name
+   */
+  public String getDeclaringTypeName() {
+    return method.getDeclaringClass().getName();
+  }
+
+  /**
+   * Gets the simple name of the method.
+   *
+   * @return the method name
+   */
+  public String getMethodName() {
+    return method.getName();
+  }
+
+  /**
+   * Gets the label of the method, in the form of {@code declaringType.method(ParamType,...)}.
+   *
+   * @return the label
+   */
+  public String getLabel() {
+    var result = label;
+
+    if (result == null) {
+      result =
+          "%s.%s(%s)"
+              .formatted(
+                  getDeclaringTypeName(),
+                  getMethodName(),
+                  Arrays.stream(method.getParameterTypes())
+                      .map(Class::getSimpleName)
+                      .collect(Collectors.joining(CommonUtils.COMMA)));
+
+      label = result;
+    }
+
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return getLabel();
+  }
+}
@@ -0,0 +1,44 @@
+package com.vulinh.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every measurement into one Micrometer {@link Timer} per method, named {@value
+ * #METER_NAME} and tagged with the declaring {@code class} and the {@code method} name. Percentiles
+ * and histograms can be enabled with the usual {@code MeterFilter}s or {@code
+ * management.metrics.distribution.*} properties.
+ */
+public class MicrometerExecutionTimeSink implements ExecutionTimeSink {
+
+  public static final String METER_NAME = "execution.time";
+
+  final MeterRegistry meterRegistry;
+  final Map<MethodKey, Timer> timers = new ConcurrentHashMap<>();
+
+  public MicrometerExecutionTimeSink(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void record(MethodKey methodKey, long startedEpochMillis, long durationNanos) {
+    var timer = timers.get(methodKey);
+
+    if (timer == null) {
+      timer = timers.computeIfAbsent(methodKey, this::registerTimer);
+    }
+
+    timer.record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  Timer registerTimer(MethodKey methodKey) {
+    return Timer.builder(METER_NAME)
+        .description("Execution time of methods annotated with @ExecutionTime")
+        .tag("class", methodKey.getDeclaringTypeName())
+        .tag("method", methodKey.getMethodName())
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,100 @@
+package com.vulinh.aspect;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which invocations of a method measured by {@link ExecutionTimeAspect} are recorded. One
+ * instance is created per method, so the token bucket is never shared between methods.
+ *
+ * <p>The decision is made in three steps, from the cheapest to the most expensive:
+ *
+ * <ol>
+ *   <li>sampling: one invocation out of {@code sampleRate} on average is measured at all,
+ *   <li>threshold: measured invocations faster than the threshold are discarded,
+ *   <li>rate limit: a token bucket, refilled with {@code maxRecordsPerSecond} tokens per second,
+ *       caps how many of the remaining invocations are recorded.
+ * </ol>
+ *
+ * <p>None of the steps lock or allocate.
+ */
+final class RecordingPolicy {
+
+  static final long ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  final long thresholdNanos;
+  final int sampleRate;
+
+  // Token bucket, implemented as a generic cell rate algorithm: the state is the theoretical
+  // arrival time of the next record, and a record is allowed while it stays within one second
+  final long emissionIntervalNanos;
+  final AtomicLong theoreticalArrivalNanos;
+
+  /**
+   * Creates a policy.
+   *
+   * @param thresholdNanos the minimal duration of a recorded invocation, {@code 0} to record all
+   * @param sampleRate one invocation out of {@code sampleRate} is measured, {@code 1} to measure all
+   * @param maxRecordsPerSecond the maximal number of records per second, {@code 0} for unlimited
+   */
+  RecordingPolicy(long thresholdNanos, int sampleRate, int maxRecordsPerSecond) {
+    if (thresholdNanos < 0) {
+      throw new IllegalArgumentException("Threshold cannot be negative");
+    }
+
+    if (sampleRate < 1) {
+      throw new IllegalArgumentException("Sample rate must be at least 1");
+    }
+
+    if (maxRecordsPerSecond < 0) {
+      throw new IllegalArgumentException("Max records per second cannot be negative");
+    }
+
+    this.thresholdNanos = thresholdNanos;
+    this.sampleRate = sampleRate;
+
+    emissionIntervalNanos = maxRecordsPerSecond == 0 ? 0L : ONE_SECOND_NANOS / maxRecordsPerSecond;
+    // Start with a full bucket
+    theoreticalArrivalNanos = new AtomicLong(System.nanoTime() - ONE_SECOND_NANOS);
+  }
+
+  /**
+   * Decides, before the invocation, whether it should be measured at all.
+   *
+   * @return {@code true} if the invocation should be measured
+   */
+  boolean isSampled() {
+    return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+  }
+
+  /**
+   * Decides, after a sampled invocation, whether its measurement should be recorded.
+   *
+   * @param durationNanos the execution time of the invocation
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return {@code true} if the measurement should be recorded
+   */
+  boolean shouldRecord(long durationNanos, long nowNanos) {
+    return durationNanos >= thresholdNanos && tryAcquire(nowNanos);
+  }
+
+  boolean tryAcquire(long nowNanos) {
+    if (emissionIntervalNanos == 0) {
+      return true;
+    }
+
+    while (true) {
+      var arrival = theoreticalArrivalNanos.get();
+      var nextArrival = (arrival - nowNanos < 0 ? nowNanos : arrival) + emissionIntervalNanos;
+
+      if (nextArrival - nowNanos > ONE_SECOND_NANOS) {
+        return false;
+      }
+
+      if (theoreticalArrivalNanos.compareAndSet(arrival, nextArrival)) {
+        return true;
+      }
+    }
+  }
+}
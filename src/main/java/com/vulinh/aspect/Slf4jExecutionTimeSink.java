@@ -0,0 +1,62 @@
+package com.vulinh.aspect;
+
+import com.vulinh.annotation.ExecutionTime.Mode;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The built-in sink logging one line per measurement of the {@link Mode#LOG} methods, and one
+ * multi-line record per call tree. It uses the logger of {@link ExecutionTimeAspect}, so existing
+ * logging configurations keep working.
+ */
+class Slf4jExecutionTimeSink implements ExecutionTimeSink {
+
+  static final DateTimeFormatter READABLE_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+  // All string building happens here, never on the measured path
+  @Override
+  public void record(MethodKey methodKey, long startedEpochMillis, long durationNanos) {
+    // Invoking conditionally
+    if (methodKey.getMode() == Mode.LOG && ExecutionTimeAspect.LOG.isInfoEnabled()) {
+      var startedTimestamp = Instant.ofEpochMilli(startedEpochMillis);
+
+      ExecutionTimeAspect.LOG.info(
+          "Execution time of method {} is {} ms ({} ns) (from {} to {})",
+          methodKey,
+          TimeUnit.NANOSECONDS.toMillis(durationNanos),
+          durationNanos,
+          toLocalDateTime(startedTimestamp),
+          toLocalDateTime(startedTimestamp.plusNanos(durationNanos)));
+    }
+  }
+
+  @Override
+  public void recordCallTree(CallFrame root) {
+    if (!ExecutionTimeAspect.LOG.isInfoEnabled()) {
+      return;
+    }
+
+    var builder = new StringBuilder(root.toTreeString()).append("Collapsed stacks:");
+
+    root.toCollapsedStacks()
+        .forEach(
+            (stack, selfNanos) ->
+                builder.append(System.lineSeparator()).append(stack).append(' ').append(selfNanos));
+
+    ExecutionTimeAspect.LOG.info(
+        "Call tree of method {} ({} ns):{}{}",
+        root.getMethodKey(),
+        root.getTotalNanos(),
+        System.lineSeparator(),
+        builder);
+  }
+
+  static String toLocalDateTime(Instant startedTimestamp) {
+    return "%s UTC"
+        .formatted(
+            READABLE_TIMESTAMP.format(startedTimestamp.atOffset(ZoneOffset.UTC).toLocalDateTime()));
+  }
+}
@@ -0,0 +1,121 @@
+package com.vulinh.aspect;
+
+import com.vulinh.utils.MpscRingBuffer;
+import org.springframework.lang.Nullable;
+
+/**
+ * A bounded, multi-producer single-consumer ring buffer of timing records, drained in batches by a
+ * dedicated consumer thread into an {@link ExecutionTimeSink}.
+ *
+ * <p>The records are preallocated slots of a {@link MpscRingBuffer}, so publishing a record never
+ * allocates. When the buffer is full, the {@link OverflowPolicy} decides whether the record is
+ * dropped (and counted) or whether the producer waits for a free slot.
+ */
+class TimingRecordDispatcher extends MpscRingBuffer<TimingRecordDispatcher.TimingRecord> {
+
+  /** What to do with a record when the buffer is full. */
+  enum OverflowPolicy {
+
+    /** Drop the record and count it, the caller never waits. */
+    DROP,
+
+    /**
+     * Wait until the consumer frees a slot. The records published by a sink, from the consumer
+     * thread, are still dropped, as the consumer cannot wait for itself.
+     */
+    BLOCK
+  }
+
+  /** A slot of the buffer, reused for every record published into it. */
+  static final class TimingRecord {
+
+    MethodKey methodKey;
+    long startedEpochMillis;
+    long durationNanos;
+    @Nullable CallFrame callTree;
+  }
+
+  final ExecutionTimeSink sink;
+
+  TimingRecordDispatcher(
+      int capacity, OverflowPolicy overflowPolicy, boolean isVirtualThread, ExecutionTimeSink sink) {
+    super(
+        capacity,
+        TimingRecord::new,
+        overflowPolicy == OverflowPolicy.BLOCK,
+        isVirtualThread
+            ? Thread.ofVirtual().name("execution-time-dispatcher")
+            : Thread.ofPlatform().name("execution-time-dispatcher").daemon(true),
+        "timing record");
+
+    this.sink = sink;
+  }
+
+  /**
+   * Publishes a record to the consumer thread.
+   *
+   * @param methodKey the key of the measured method
+   * @param startedEpochMillis the wall-clock time at which the method started
+   * @param durationNanos the execution time in nanoseconds
+   * @return {@code false} if the record was dropped
+   */
+  boolean publish(MethodKey methodKey, long startedEpochMillis, long durationNanos) {
+    return publish(methodKey, startedEpochMillis, durationNanos, null);
+  }
+
+  /**
+   * Publishes the call tree of a completed top-level invocation to the consumer thread.
+   *
+   * @param root the root frame of the tree
+   * @return {@code false} if the tree was dropped
+   */
+  boolean publishCallTree(CallFrame root) {
+    return publish(root.getMethodKey(), 0L, root.getTotalNanos(), root);
+  }
+
+  boolean publish(
+      MethodKey methodKey,
+      long startedEpochMillis,
+      long durationNanos,
+      @Nullable CallFrame callTree) {
+    var sequence = claim();
+
+    if (sequence < 0) {
+      return false;
+    }
+
+    var timingRecord = slotOf(sequence);
+
+    timingRecord.methodKey = methodKey;
+    timingRecord.startedEpochMillis = startedEpochMillis;
+    timingRecord.durationNanos = durationNanos;
+    timingRecord.callTree = callTree;
+    publish(sequence);
+
+    return true;
+  }
+
+  @Override
+  protected void handle(TimingRecord timingRecord) {
+    var callTree = timingRecord.callTree;
+
+    try {
+      if (callTree == null) {
+        sink.record(
+            timingRecord.methodKey, timingRecord.startedEpochMillis, timingRecord.durationNanos);
+      } else {
+        sink.recordCallTree(callTree);
+      }
+    } finally {
+      timingRecord.methodKey = null;
+      timingRecord.callTree = null;
+    }
+  }
+
+  @Override
+  protected void afterBatch(int drainedCount) {
+    if (drainedCount > 0) {
+      sink.flush();
+    }
+  }
+}
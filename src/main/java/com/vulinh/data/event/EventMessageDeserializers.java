@@ -0,0 +1,459 @@
+package com.vulinh.data.event;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.deser.std.UUIDDeserializer;
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.data.event.payload.NewPostEvent;
+import com.vulinh.data.event.payload.NewPostFollowingEvent;
+import com.vulinh.data.event.payload.NewSubscriberEvent;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Deserializers of {@link EventMessageModule}. Fields are matched with a plain {@code switch}, the
+ * {@code id} property written by the serializers is skipped, and other unknown properties are
+ * handled according to the configuration of the mapper.
+ */
+final class EventMessageDeserializers {
+
+  static final String EVENT_ID = "eventId";
+  static final String TIMESTAMP = "timestamp";
+  static final String EVENT_TYPE = "eventType";
+  static final String ACTION_USER_FIELD = "actionUser";
+  static final String DATA = "data";
+  static final String ID = "id";
+  static final String USERNAME = "username";
+  static final String POST_ID = "postId";
+  static final String TITLE = "title";
+  static final String EXCERPT = "excerpt";
+  static final String COMMENT_ID = "commentId";
+  static final String CONTENT = "content";
+  static final String SUBSCRIBED_USER_ID = "subscribedUserId";
+  static final String SUBSCRIBED_USERNAME = "subscribedUsername";
+
+  // Accepts strings and native binary, and reports malformed values, like the default deserializer
+  static final UUIDDeserializer UUID_DESERIALIZER = new UUIDDeserializer();
+
+  static final ActionUserDeserializer ACTION_USER = new ActionUserDeserializer();
+
+  static final Map<String, EventType> EVENT_TYPES =
+      Arrays.stream(EventType.values())
+          .collect(Collectors.toUnmodifiableMap(Enum::name, Function.identity()));
+
+  private EventMessageDeserializers() {}
+
+  abstract static class RecordDeserializer<T> extends StdDeserializer<T> {
+
+    RecordDeserializer(Class<T> type) {
+      super(type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+      var token = parser.currentToken();
+
+      if (token == JsonToken.START_OBJECT) {
+        token = parser.nextToken();
+      } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+        return (T) context.handleUnexpectedToken(handledType(), parser);
+      }
+
+      var fields = new Object[fieldCount()];
+
+      for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+        var fieldName = parser.currentName();
+
+        parser.nextToken();
+
+        if (!readField(fieldName, fields, parser, context)) {
+          if (ID.equals(fieldName)) {
+            parser.skipChildren();
+          } else {
+            handleUnknownProperty(parser, context, handledType(), fieldName);
+          }
+        }
+      }
+
+      return create(fields);
+    }
+
+    abstract int fieldCount();
+
+    /**
+     * Reads the value of a field, the parser being positioned on its first token.
+     *
+     * @return {@code false} if the field is not known
+     */
+    abstract boolean readField(
+        String fieldName, Object[] fields, JsonParser parser, DeserializationContext context)
+        throws IOException;
+
+    abstract T create(Object[] fields);
+  }
+
+  /**
+   * Reads the {@code data} of an event as the declared type of {@code T}. When {@code T} is not
+   * resolved, is {@link Object} or is a supertype of the payload record of the {@link EventType},
+   * the payload record is read instead. The delegated deserializers are resolved once per
+   * contextualized instance.
+   */
+  @SuppressWarnings("rawtypes")
+  static final class EventMessageWrapperDeserializer extends StdDeserializer<EventMessageWrapper>
+      implements ContextualDeserializer {
+
+    final JsonDeserializer<Object> instantDeserializer;
+    final JsonDeserializer<Object> eventTypeDeserializer;
+    final JsonDeserializer<Object> untypedDeserializer;
+    final Map<EventType, JsonDeserializer<Object>> payloadDeserializers;
+
+    EventMessageWrapperDeserializer() {
+      this(null, null, null, null);
+    }
+
+    EventMessageWrapperDeserializer(
+        JsonDeserializer<Object> instantDeserializer,
+        JsonDeserializer<Object> eventTypeDeserializer,
+        JsonDeserializer<Object> untypedDeserializer,
+        Map<EventType, JsonDeserializer<Object>> payloadDeserializers) {
+      super(EventMessageWrapper.class);
+
+      this.instantDeserializer = instantDeserializer;
+      this.eventTypeDeserializer = eventTypeDeserializer;
+      this.untypedDeserializer = untypedDeserializer;
+      this.payloadDeserializers = payloadDeserializers;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(
+        DeserializationContext context, BeanProperty property) throws JsonMappingException {
+      if (payloadDeserializers != null) {
+        return this;
+      }
+
+      var dataType = dataTypeOf(context, property);
+      var isDataTypeDeclared = dataType != null && !dataType.isJavaLangObject();
+      var dataDeserializer =
+          isDataTypeDeclared
+              ? findDeserializer(context, dataType)
+              : findDeserializer(context, context.constructType(Object.class));
+
+      var resolvedPayloadDeserializers =
+          new EnumMap<EventType, JsonDeserializer<Object>>(EventType.class);
+
+      for (var eventType : EventType.values()) {
+        var payloadType = eventType.getPayloadType();
+
+        resolvedPayloadDeserializers.put(
+            eventType,
+            isDataTypeDeclared && !dataType.getRawClass().isAssignableFrom(payloadType)
+                ? dataDeserializer
+                : findDeserializer(context, context.constructType(payloadType)));
+      }
+
+      return new EventMessageWrapperDeserializer(
+          findDeserializer(context, context.constructType(Instant.class)),
+          findDeserializer(context, context.constructType(EventType.class)),
+          dataDeserializer,
+          resolvedPayloadDeserializers);
+    }
+
+    @Override
+    public EventMessageWrapper deserialize(JsonParser parser, DeserializationContext context)
+        throws IOException {
+      var token = parser.currentToken();
+
+      if (token == JsonToken.START_OBJECT) {
+        token = parser.nextToken();
+      } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+        return (EventMessageWrapper) context.handleUnexpectedToken(handledType(), parser);
+      }
+
+      UUID eventId = null;
+      Instant timestamp = null;
+      EventType eventType = null;
+      ActionUser actionUser = null;
+      Object data = null;
+      JsonParser pendingData = null;
+
+      for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+        var fieldName = parser.currentName();
+
+        token = parser.nextToken();
+
+        switch (fieldName) {
+          case EVENT_ID -> eventId = readUuid(parser, context);
+          case TIMESTAMP ->
+              timestamp =
+                  token == JsonToken.VALUE_NULL
+                      ? null
+                      : (Instant) instantDeserializer.deserialize(parser, context);
+          case EVENT_TYPE -> eventType = readEventType(parser, context);
+          case ACTION_USER_FIELD ->
+              actionUser =
+                  token == JsonToken.VALUE_NULL ? null : ACTION_USER.deserialize(parser, context);
+          case DATA -> {
+            if (token == JsonToken.VALUE_NULL) {
+              data = null;
+            } else if (eventType == null) {
+              // The event type may come later, keep the payload until then
+              pendingData = context.bufferAsCopyOfValue(parser).asParserOnFirstToken();
+            } else {
+              data = readData(eventType, parser, context);
+            }
+          }
+          case ID -> parser.skipChildren();
+          default -> handleUnknownProperty(parser, context, handledType(), fieldName);
+        }
+      }
+
+      if (pendingData != null) {
+        try (var pendingParser = pendingData) {
+          data = readData(eventType, pendingParser, context);
+        }
+      }
+
+      return new EventMessageWrapper<>(eventId, timestamp, eventType, actionUser, data);
+    }
+
+    EventType readEventType(JsonParser parser, DeserializationContext context) throws IOException {
+      var token = parser.currentToken();
+
+      if (token == JsonToken.VALUE_NULL) {
+        return null;
+      }
+
+      var eventType = token == JsonToken.VALUE_STRING ? EVENT_TYPES.get(parser.getText()) : null;
+
+      // Anything unusual is left to the default enum deserializer and its configuration
+      return eventType == null
+          ? (EventType) eventTypeDeserializer.deserialize(parser, context)
+          : eventType;
+    }
+
+    Object readData(EventType eventType, JsonParser parser, DeserializationContext context)
+        throws IOException {
+      // Without an event type, fall back to the declared type, or the generic representation
+      var deserializer =
+          eventType == null ? untypedDeserializer : payloadDeserializers.get(eventType);
+
+      return deserializer.deserialize(parser, context);
+    }
+
+    // The type of T, null if not known, such as for the raw EventMessageWrapper class
+    static JavaType dataTypeOf(DeserializationContext context, BeanProperty property) {
+      var wrapperType = context.getContextualType();
+
+      if (wrapperType == null && property != null) {
+        wrapperType = property.getType();
+      }
+
+      return wrapperType == null ? null : wrapperType.containedType(0);
+    }
+
+    static JsonDeserializer<Object> findDeserializer(DeserializationContext context, JavaType type)
+        throws JsonMappingException {
+      return context.findRootValueDeserializer(type);
+    }
+  }
+
+  static final class ActionUserDeserializer extends RecordDeserializer<ActionUser> {
+
+    ActionUserDeserializer() {
+      super(ActionUser.class);
+    }
+
+    @Override
+    int fieldCount() {
+      return 2;
+    }
+
+    @Override
+    boolean readField(
+        String fieldName, Object[] fields, JsonParser parser, DeserializationContext context)
+        throws IOException {
+      switch (fieldName) {
+        case ID -> fields[0] = readUuid(parser, context);
+        case USERNAME -> fields[1] = readString(parser, context);
+        default -> {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    @Override
+    ActionUser create(Object[] fields) {
+      return new ActionUser((UUID) fields[0], (String) fields[1]);
+    }
+  }
+
+  static final class NewCommentEventDeserializer extends RecordDeserializer<NewCommentEvent> {
+
+    NewCommentEventDeserializer() {
+      super(NewCommentEvent.class);
+    }
+
+    @Override
+    int fieldCount() {
+      return 5;
+    }
+
+    @Override
+    boolean readField(
+        String fieldName, Object[] fields, JsonParser parser, DeserializationContext context)
+        throws IOException {
+      switch (fieldName) {
+        case POST_ID -> fields[0] = readUuid(parser, context);
+        case TITLE -> fields[1] = readString(parser, context);
+        case EXCERPT -> fields[2] = readString(parser, context);
+        case COMMENT_ID -> fields[3] = readUuid(parser, context);
+        case CONTENT -> fields[4] = readString(parser, context);
+        default -> {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    @Override
+    NewCommentEvent create(Object[] fields) {
+      return new NewCommentEvent(
+          (UUID) fields[0],
+          (String) fields[1],
+          (String) fields[2],
+          (UUID) fields[3],
+          (String) fields[4]);
+    }
+  }
+
+  static final class NewPostEventDeserializer extends RecordDeserializer<NewPostEvent> {
+
+    NewPostEventDeserializer() {
+      super(NewPostEvent.class);
+    }
+
+    @Override
+    int fieldCount() {
+      return 3;
+    }
+
+    @Override
+    boolean readField(
+        String fieldName, Object[] fields, JsonParser parser, DeserializationContext context)
+        throws IOException {
+      return readPostField(fieldName, fields, parser, context);
+    }
+
+    @Override
+    NewPostEvent create(Object[] fields) {
+      return new NewPostEvent((UUID) fields[0], (String) fields[1], (String) fields[2]);
+    }
+  }
+
+  static final class NewPostFollowingEventDeserializer
+      extends RecordDeserializer<NewPostFollowingEvent> {
+
+    NewPostFollowingEventDeserializer() {
+      super(NewPostFollowingEvent.class);
+    }
+
+    @Override
+    int fieldCount() {
+      return 3;
+    }
+
+    @Override
+    boolean readField(
+        String fieldName, Object[] fields, JsonParser parser, DeserializationContext context)
+        throws IOException {
+      return readPostField(fieldName, fields, parser, context);
+    }
+
+    @Override
+    NewPostFollowingEvent create(Object[] fields) {
+      return new NewPostFollowingEvent((UUID) fields[0], (String) fields[1], (String) fields[2]);
+    }
+  }
+
+  static final class NewSubscriberEventDeserializer
+      extends RecordDeserializer<NewSubscriberEvent> {
+
+    NewSubscriberEventDeserializer() {
+      super(NewSubscriberEvent.class);
+    }
+
+    @Override
+    int fieldCount() {
+      return 2;
+    }
+
+    @Override
+    boolean readField(
+        String fieldName, Object[] fields, JsonParser parser, DeserializationContext context)
+        throws IOException {
+      switch (fieldName) {
+        case SUBSCRIBED_USER_ID -> fields[0] = readUuid(parser, context);
+        case SUBSCRIBED_USERNAME -> fields[1] = readString(parser, context);
+        default -> {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    @Override
+    NewSubscriberEvent create(Object[] fields) {
+      return new NewSubscriberEvent((UUID) fields[0], (String) fields[1]);
+    }
+  }
+
+  // The fields of WithPostData, shared by the post events
+  static boolean readPostField(
+      String fieldName, Object[] fields, JsonParser parser, DeserializationContext context)
+      throws IOException {
+    switch (fieldName) {
+      case POST_ID -> fields[0] = readUuid(parser, context);
+      case TITLE -> fields[1] = readString(parser, context);
+      case EXCERPT -> fields[2] = readString(parser, context);
+      default -> {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  static UUID readUuid(JsonParser parser, DeserializationContext context) throws IOException {
+    return parser.currentToken() == JsonToken.VALUE_NULL
+        ? null
+        : UUID_DESERIALIZER.deserialize(parser, context);
+  }
+
+  static String readString(JsonParser parser, DeserializationContext context) throws IOException {
+    return switch (parser.currentToken()) {
+      case VALUE_STRING -> parser.getText();
+      case VALUE_NULL -> null;
+      // Scalar coercion and error reporting are left to the default deserializer
+      default -> StringDeserializer.instance.deserialize(parser, context);
+    };
+  }
+}
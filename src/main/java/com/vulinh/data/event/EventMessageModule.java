@@ -0,0 +1,58 @@
+package com.vulinh.data.event;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.data.event.payload.NewPostEvent;
+import com.vulinh.data.event.payload.NewPostFollowingEvent;
+import com.vulinh.data.event.payload.NewSubscriberEvent;
+
+/**
+ * Jackson module registering hand-written serializers and deserializers for {@link
+ * EventMessageWrapper}, {@link ActionUser} and the event payload records, instead of the reflective
+ * bean path. It is opt-in: it is not registered on the mapper of {@link
+ * com.vulinh.utils.JsonUtils}, but can be registered on a copy of it, or on any other {@link
+ * com.fasterxml.jackson.databind.ObjectMapper} (Spring Boot picks up {@link
+ * com.fasterxml.jackson.databind.Module} beans automatically):
+ *
+ * <pre>{@code
+ * var mapper = JsonUtils.delegate().copy().registerModule(new EventMessageModule());
+ * }</pre>
+ *
+ * <p>The serialized form is the same as the one of the bean path with {@code NON_NULL} inclusion,
+ * including the {@code id} property derived from {@link com.vulinh.data.base.Identifiable#getId()},
+ * so existing consumers are not affected. When deserializing an {@link EventMessageWrapper}, its
+ * {@code data} is read as the declared type of its payload, or directly as the payload record of
+ * its {@link EventType} when that type is not declared, such as {@code EventMessageWrapper<?>}.
+ *
+ * <p>The property names are fixed: a {@link com.fasterxml.jackson.databind.PropertyNamingStrategy}
+ * or mix-ins configured on the mapper are not applied to these types. A mapper relying on them for
+ * events should not register this module.
+ */
+public class EventMessageModule extends SimpleModule {
+
+  public EventMessageModule() {
+    super(EventMessageModule.class.getSimpleName());
+
+    addSerializer(
+        EventMessageWrapper.class, new EventMessageSerializers.EventMessageWrapperSerializer());
+    addSerializer(ActionUser.class, EventMessageSerializers.ACTION_USER);
+    addSerializer(NewCommentEvent.class, new EventMessageSerializers.NewCommentEventSerializer());
+    addSerializer(NewPostEvent.class, new EventMessageSerializers.NewPostEventSerializer());
+    addSerializer(
+        NewPostFollowingEvent.class, new EventMessageSerializers.NewPostFollowingEventSerializer());
+    addSerializer(
+        NewSubscriberEvent.class, new EventMessageSerializers.NewSubscriberEventSerializer());
+
+    addDeserializer(
+        EventMessageWrapper.class, new EventMessageDeserializers.EventMessageWrapperDeserializer());
+    addDeserializer(ActionUser.class, EventMessageDeserializers.ACTION_USER);
+    addDeserializer(
+        NewCommentEvent.class, new EventMessageDeserializers.NewCommentEventDeserializer());
+    addDeserializer(NewPostEvent.class, new EventMessageDeserializers.NewPostEventDeserializer());
+    addDeserializer(
+        NewPostFollowingEvent.class,
+        new EventMessageDeserializers.NewPostFollowingEventDeserializer());
+    addDeserializer(
+        NewSubscriberEvent.class, new EventMessageDeserializers.NewSubscriberEventDeserializer());
+  }
+}
@@ -0,0 +1,206 @@
+package com.vulinh.data.event;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.ser.std.UUIDSerializer;
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.data.event.payload.NewPostEvent;
+import com.vulinh.data.event.payload.NewPostFollowingEvent;
+import com.vulinh.data.event.payload.NewSubscriberEvent;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Serializers of {@link EventMessageModule}. Field names are pre-encoded, fields are written in the
+ * order of the bean path, and {@code null} fields are skipped.
+ */
+final class EventMessageSerializers {
+
+  static final SerializableString EVENT_ID = new SerializedString("eventId");
+  static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+  static final SerializableString EVENT_TYPE = new SerializedString("eventType");
+  static final SerializableString ACTION_USER_FIELD = new SerializedString("actionUser");
+  static final SerializableString DATA = new SerializedString("data");
+  static final SerializableString ID = new SerializedString("id");
+  static final SerializableString USERNAME = new SerializedString("username");
+  static final SerializableString POST_ID = new SerializedString("postId");
+  static final SerializableString TITLE = new SerializedString("title");
+  static final SerializableString EXCERPT = new SerializedString("excerpt");
+  static final SerializableString COMMENT_ID = new SerializedString("commentId");
+  static final SerializableString CONTENT = new SerializedString("content");
+  static final SerializableString SUBSCRIBED_USER_ID = new SerializedString("subscribedUserId");
+  static final SerializableString SUBSCRIBED_USERNAME = new SerializedString("subscribedUsername");
+
+  // Writes UUIDs as strings, or as native binary for binary formats, like the default serializer
+  static final UUIDSerializer UUID_SERIALIZER = new UUIDSerializer();
+
+  static final ActionUserSerializer ACTION_USER = new ActionUserSerializer();
+
+  private EventMessageSerializers() {}
+
+  abstract static class RecordSerializer<T> extends StdSerializer<T> {
+
+    RecordSerializer(Class<T> type) {
+      super(type);
+    }
+
+    @Override
+    public void serialize(T value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      generator.writeStartObject(value);
+      writeFields(value, generator, provider);
+      generator.writeEndObject();
+    }
+
+    abstract void writeFields(T value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException;
+  }
+
+  @SuppressWarnings("rawtypes")
+  static final class EventMessageWrapperSerializer extends RecordSerializer<EventMessageWrapper> {
+
+    EventMessageWrapperSerializer() {
+      super(EventMessageWrapper.class);
+    }
+
+    @Override
+    void writeFields(
+        EventMessageWrapper value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      writeUuid(generator, provider, EVENT_ID, value.eventId());
+      writeInstant(generator, provider, value.timestamp());
+
+      if (value.eventType() != null) {
+        generator.writeFieldName(EVENT_TYPE);
+        generator.writeString(value.eventType().name());
+      }
+
+      if (value.actionUser() != null) {
+        generator.writeFieldName(ACTION_USER_FIELD);
+        ACTION_USER.serialize(value.actionUser(), generator, provider);
+      }
+
+      var data = value.data();
+
+      if (data != null) {
+        generator.writeFieldName(DATA);
+        // Resolves to the serializers of this module for the payload records
+        provider.findValueSerializer(data.getClass()).serialize(data, generator, provider);
+      }
+
+      writeUuid(generator, provider, ID, value.getId());
+    }
+  }
+
+  static final class ActionUserSerializer extends RecordSerializer<ActionUser> {
+
+    ActionUserSerializer() {
+      super(ActionUser.class);
+    }
+
+    @Override
+    void writeFields(ActionUser value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      // The id component and getId() are merged into a single property by the bean path
+      writeUuid(generator, provider, ID, value.id());
+      writeString(generator, USERNAME, value.username());
+    }
+  }
+
+  static final class NewCommentEventSerializer extends RecordSerializer<NewCommentEvent> {
+
+    NewCommentEventSerializer() {
+      super(NewCommentEvent.class);
+    }
+
+    @Override
+    void writeFields(NewCommentEvent value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      writeUuid(generator, provider, POST_ID, value.postId());
+      writeString(generator, TITLE, value.title());
+      writeString(generator, EXCERPT, value.excerpt());
+      writeUuid(generator, provider, COMMENT_ID, value.commentId());
+      writeString(generator, CONTENT, value.content());
+      writeUuid(generator, provider, ID, value.getId());
+    }
+  }
+
+  static final class NewPostEventSerializer extends RecordSerializer<NewPostEvent> {
+
+    NewPostEventSerializer() {
+      super(NewPostEvent.class);
+    }
+
+    @Override
+    void writeFields(NewPostEvent value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      writeUuid(generator, provider, POST_ID, value.postId());
+      writeString(generator, TITLE, value.title());
+      writeString(generator, EXCERPT, value.excerpt());
+      writeUuid(generator, provider, ID, value.getId());
+    }
+  }
+
+  static final class NewPostFollowingEventSerializer
+      extends RecordSerializer<NewPostFollowingEvent> {
+
+    NewPostFollowingEventSerializer() {
+      super(NewPostFollowingEvent.class);
+    }
+
+    @Override
+    void writeFields(
+        NewPostFollowingEvent value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      writeUuid(generator, provider, POST_ID, value.postId());
+      writeString(generator, TITLE, value.title());
+      writeString(generator, EXCERPT, value.excerpt());
+      writeUuid(generator, provider, ID, value.getId());
+    }
+  }
+
+  static final class NewSubscriberEventSerializer extends RecordSerializer<NewSubscriberEvent> {
+
+    NewSubscriberEventSerializer() {
+      super(NewSubscriberEvent.class);
+    }
+
+    @Override
+    void writeFields(NewSubscriberEvent value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      writeUuid(generator, provider, SUBSCRIBED_USER_ID, value.subscribedUserId());
+      writeString(generator, SUBSCRIBED_USERNAME, value.subscribedUsername());
+      writeUuid(generator, provider, ID, value.getId());
+    }
+  }
+
+  static void writeUuid(
+      JsonGenerator generator, SerializerProvider provider, SerializableString name, UUID value)
+      throws IOException {
+    if (value != null) {
+      generator.writeFieldName(name);
+      UUID_SERIALIZER.serialize(value, generator, provider);
+    }
+  }
+
+  static void writeString(JsonGenerator generator, SerializableString name, String value)
+      throws IOException {
+    if (value != null) {
+      generator.writeFieldName(name);
+      generator.writeString(value);
+    }
+  }
+
+  static void writeInstant(JsonGenerator generator, SerializerProvider provider, Instant value)
+      throws IOException {
+    if (value != null) {
+      generator.writeFieldName(TIMESTAMP);
+      // Delegates to JavaTimeModule, which honors the date features of the mapper
+      provider.findValueSerializer(Instant.class).serialize(value, generator, provider);
+    }
+  }
+}
@@ -10,8 +10,9 @@ public record EventMessageWrapper<T>(
     implements UuidIdentifiable {
 
   public EventMessageWrapper {
-    eventId = UUID.randomUUID();
-    timestamp = Instant.now();
+    // Only generate the missing values, so that decoded events and withers keep their identity
+    eventId = eventId == null ? UUID.randomUUID() : eventId;
+    timestamp = timestamp == null ? Instant.now() : timestamp;
   }
 
   public static <T> EventMessageWrapperBuilder<T> builder() {
@@ -1,8 +1,28 @@
 package com.vulinh.data.event;
 
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.data.event.payload.NewPostEvent;
+import com.vulinh.data.event.payload.NewPostFollowingEvent;
+import com.vulinh.data.event.payload.NewSubscriberEvent;
+
 public enum EventType {
-  NEW_COMMENT,
-  NEW_POST,
-  NEW_SUBSCRIBER,
-  NEW_POST_FOLLOWING
+  NEW_COMMENT(NewCommentEvent.class),
+  NEW_POST(NewPostEvent.class),
+  NEW_SUBSCRIBER(NewSubscriberEvent.class),
+  NEW_POST_FOLLOWING(NewPostFollowingEvent.class);
+
+  final Class<?> payloadType;
+
+  EventType(Class<?> payloadType) {
+    this.payloadType = payloadType;
+  }
+
+  /**
+   * Gets the type of the {@link EventMessageWrapper#data()} carried by events of this type.
+   *
+   * @return the payload record class
+   */
+  public Class<?> getPayloadType() {
+    return payloadType;
+  }
 }
@@ -0,0 +1,287 @@
+package com.vulinh.data.event;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.vulinh.utils.JsonUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Newline-delimited JSON (NDJSON, also known as JSON Lines) codec for batches of {@link
+ * EventMessageWrapper}. Every event is written on its own line, exactly as {@link
+ * JsonUtils#toMinimizedJSON(Object)} would serialize it, so that every line can still be read on
+ * its own.
+ *
+ * <p>Encoding a batch writes all the events through a single generator into a buffer owned by the
+ * codec, which is reused by the next batch. A codec instance is therefore not thread-safe, and the
+ * buffer returned by {@link #encode(Iterable)} is only valid until the next call.
+ *
+ * <p>Decoding is streaming: the events are read one at a time, and the {@link
+ * EventMessageWrapper#data()} of every event is deserialized directly into the payload record of
+ * its {@link EventType} by {@link EventMessageModule}.
+ */
+public final class NdjsonEventMessageCodec {
+
+  static final int DEFAULT_INITIAL_CAPACITY = 64 * 1024;
+
+  static final char LINE_SEPARATOR = '\n';
+
+  // The configuration of JsonUtils, with the hand-written (de)serializers of the events
+  static final ObjectMapper MAPPER =
+      JsonUtils.delegate().copy().registerModule(new EventMessageModule());
+
+  // Flushing after every event would be wasted on the in-memory buffer and costly on streams
+  static final ObjectWriter WRITER =
+      MAPPER
+          .writerFor(EventMessageWrapper.class)
+          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+          .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+  static final ObjectReader READER = MAPPER.reader().without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+  // Resolves the payload of every event from its event type, see EventMessageModule
+  static final ObjectReader EVENT_READER = READER.forType(EventMessageWrapper.class);
+
+  final BatchBuffer buffer;
+
+  /** Creates a codec with a batch buffer of 64 KiB initially. */
+  public NdjsonEventMessageCodec() {
+    this(DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * Creates a codec.
+   *
+   * @param initialCapacity the initial capacity of the batch buffer in bytes, which grows as needed
+   *     and keeps its largest size across batches
+   */
+  public NdjsonEventMessageCodec(int initialCapacity) {
+    if (initialCapacity < 1) {
+      throw new IllegalArgumentException("Initial capacity must be positive");
+    }
+
+    buffer = new BatchBuffer(initialCapacity);
+  }
+
+  /**
+   * Encodes the given events as NDJSON into the reusable buffer of this codec, one line per event.
+   *
+   * @param events the events to encode
+   * @return a read-only view of the encoded bytes, only valid until the next call to this method
+   * @throws IllegalArgumentException if an event cannot be serialized
+   */
+  public ByteBuffer encode(Iterable<? extends EventMessageWrapper<?>> events) {
+    buffer.reset();
+
+    try {
+      writeEvents(events.iterator(), buffer);
+    } catch (IOException e) {
+      throw toSerializationException(e);
+    }
+
+    return buffer.toByteBuffer();
+  }
+
+  /**
+   * Encodes the given events as NDJSON into the given stream, one line per event. The events are
+   * consumed one at a time, and the stream is not closed.
+   *
+   * @param events the events to encode
+   * @param outputStream the stream to write to
+   * @return the number of written events
+   * @throws IllegalArgumentException if an event cannot be serialized
+   * @throws UncheckedIOException if writing to the stream fails
+   */
+  public static long encode(
+      Stream<? extends EventMessageWrapper<?>> events, OutputStream outputStream) {
+    try {
+      return writeEvents(events.iterator(), outputStream);
+    } catch (IOException e) {
+      throw toSerializationException(e);
+    }
+  }
+
+  /**
+   * Lazily decodes the NDJSON events read from the given stream. Blank lines are skipped. The
+   * returned {@link Stream} must be closed once consumed, which does not close the given stream.
+   *
+   * @param inputStream the stream to read from
+   * @return the lazily decoded events
+   * @throws IllegalArgumentException if an event cannot be deserialized, while the returned stream
+   *     is consumed
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public static Stream<EventMessageWrapper<?>> decode(InputStream inputStream) {
+    try {
+      return decode(READER.createParser(inputStream));
+    } catch (IOException e) {
+      throw toDeserializationException(e);
+    }
+  }
+
+  /**
+   * Lazily decodes the NDJSON events read from the given reader. See {@link #decode(InputStream)}.
+   *
+   * @param reader the reader to read from
+   * @return the lazily decoded events
+   * @throws IllegalArgumentException if an event cannot be deserialized, while the returned stream
+   *     is consumed
+   * @throws UncheckedIOException if reading from the reader fails
+   */
+  public static Stream<EventMessageWrapper<?>> decode(Reader reader) {
+    try {
+      return decode(READER.createParser(reader));
+    } catch (IOException e) {
+      throw toDeserializationException(e);
+    }
+  }
+
+  /**
+   * Lazily decodes the NDJSON events held by the remaining bytes of the given buffer, such as the
+   * one returned by {@link #encode(Iterable)}. The position of the buffer is left unchanged. See
+   * {@link #decode(InputStream)}.
+   *
+   * @param buffer the buffer to read from
+   * @return the lazily decoded events
+   * @throws IllegalArgumentException if an event cannot be deserialized, while the returned stream
+   *     is consumed
+   */
+  public static Stream<EventMessageWrapper<?>> decode(ByteBuffer buffer) {
+    try {
+      return buffer.hasArray()
+          ? decode(
+              READER.createParser(
+                  buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()))
+          : decode(READER.createParser(new ByteBufferBackedInputStream(buffer.duplicate())));
+    } catch (IOException e) {
+      throw toDeserializationException(e);
+    }
+  }
+
+  static Stream<EventMessageWrapper<?>> decode(JsonParser parser) {
+    var spliterator =
+        Spliterators.spliteratorUnknownSize(
+            new EventIterator(parser), Spliterator.ORDERED | Spliterator.NONNULL);
+
+    return StreamSupport.stream(spliterator, false)
+        .onClose(
+            () -> {
+              try {
+                parser.close();
+              } catch (IOException ignored) {
+                // Nothing left to read, the source itself belongs to the caller
+              }
+            });
+  }
+
+  static long writeEvents(
+      Iterator<? extends EventMessageWrapper<?>> events, OutputStream outputStream)
+      throws IOException {
+    var count = 0L;
+
+    try (var generator = WRITER.createGenerator(outputStream)) {
+      // Events are separated by line separators rather than by the default space
+      generator.setRootValueSeparator(null);
+
+      for (; events.hasNext(); count++) {
+        WRITER.writeValue(generator, events.next());
+        generator.writeRaw(LINE_SEPARATOR);
+      }
+    }
+
+    return count;
+  }
+
+  // The same translation as the internal one of JsonUtils, whose failures are alike
+  static RuntimeException toSerializationException(IOException exception) {
+    return exception instanceof JsonProcessingException
+        ? new IllegalArgumentException("JSON serialization error", exception)
+        : new UncheckedIOException(exception);
+  }
+
+  static RuntimeException toDeserializationException(IOException exception) {
+    return exception instanceof JsonProcessingException
+        ? new IllegalArgumentException("JSON deserialization error", exception)
+        : new UncheckedIOException(exception);
+  }
+
+  /** Iterates over the events at the root level of the parser. */
+  static final class EventIterator implements Iterator<EventMessageWrapper<?>> {
+
+    final JsonParser parser;
+
+    // The token starting the next event, null when not read yet
+    JsonToken nextToken;
+    boolean isEndOfInput;
+
+    EventIterator(JsonParser parser) {
+      this.parser = parser;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (nextToken == null && !isEndOfInput) {
+        try {
+          nextToken = parser.nextToken();
+        } catch (IOException e) {
+          throw toDeserializationException(e);
+        }
+
+        isEndOfInput = nextToken == null;
+      }
+
+      return !isEndOfInput;
+    }
+
+    @Override
+    public EventMessageWrapper<?> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      try {
+        if (nextToken != JsonToken.START_OBJECT) {
+          throw MismatchedInputException.from(
+              parser, EventMessageWrapper.class, "Expected one JSON object per line");
+        }
+
+        nextToken = null;
+
+        return EVENT_READER.readValue(parser);
+      } catch (IOException e) {
+        throw toDeserializationException(e);
+      }
+    }
+  }
+
+  /** A {@link ByteArrayOutputStream} exposing its content without copying it. */
+  static final class BatchBuffer extends ByteArrayOutputStream {
+
+    BatchBuffer(int initialCapacity) {
+      super(initialCapacity);
+    }
+
+    ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+    }
+  }
+}
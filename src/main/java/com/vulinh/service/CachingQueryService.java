@@ -0,0 +1,76 @@
+package com.vulinh.service;
+
+import com.vulinh.data.base.AbstractEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.NonNull;
+
+/**
+ * A {@link PageableQueryService} whose search results are cached by a {@link SearchResultCache},
+ * keyed by the normalized predicate of {@link #buildSearchPredicate(Object)} and the {@link
+ * Pageable}, so that the identical searches of a busy screen run their queries once per time to
+ * live.
+ *
+ * <p>The cache is shared with the other services of the application, and invalidated per {@link
+ * #getEntityType() entity type}, see {@link SearchResultCache#invalidate(Class)}.
+ *
+ * @param <E> The type of the JPA entity.
+ * @param <D> The type of the Data Transfer Object (DTO).
+ * @param <S> The type of the search criteria object used to build the query predicate.
+ */
+public interface CachingQueryService<E extends AbstractEntity<?>, D, S>
+    extends PageableQueryService<E, D, S> {
+
+  /**
+   * Provides the cache of the search results.
+   *
+   * @return The non-null {@link SearchResultCache}.
+   */
+  @NonNull
+  SearchResultCache getSearchResultCache();
+
+  /**
+   * Searches a page of results like {@link PageableQueryService#search(Object, Pageable)}, through
+   * the {@link #getSearchResultCache()}.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param pageable The non-null pagination information.
+   * @return The non-null page of results, which must not be modified.
+   */
+  @NonNull
+  @Override
+  default Page<D> search(@NonNull S searchCriteria, @NonNull Pageable pageable) {
+    var predicate = SearchPages.predicateOf(this, searchCriteria);
+
+    return getSearchResultCache()
+        .getNormalized(
+            getEntityType(),
+            "search",
+            predicate,
+            pageable,
+            () -> SearchPages.search(this, predicate, pageable));
+  }
+
+  /**
+   * Searches a slice of results like {@link PageableQueryService#searchSlice(Object, Pageable)},
+   * through the {@link #getSearchResultCache()}.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param pageable The non-null pagination information.
+   * @return The non-null slice of results, which must not be modified.
+   */
+  @NonNull
+  @Override
+  default Slice<D> searchSlice(@NonNull S searchCriteria, @NonNull Pageable pageable) {
+    var predicate = SearchPages.predicateOf(this, searchCriteria);
+
+    return getSearchResultCache()
+        .getNormalized(
+            getEntityType(),
+            "searchSlice",
+            predicate,
+            pageable,
+            () -> SearchPages.searchSlice(this, predicate, pageable));
+  }
+}
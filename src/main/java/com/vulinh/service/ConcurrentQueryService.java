@@ -0,0 +1,146 @@
+package com.vulinh.service;
+
+import com.vulinh.data.base.AbstractEntity;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.MDC;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * A {@link PageableQueryService} that can also run the count query of a page concurrently with its
+ * content query, so that a page whose two queries cost about the same takes about the time of one.
+ *
+ * <p>The content query and {@link #toDtos(java.util.List)} run on the calling thread, in a
+ * read-only transaction, so lazy associations can still be loaded, and the thread-bound context of
+ * the caller, such as its security context, locale or SQL monitoring scope, still applies to them.
+ * The count query runs on a virtual thread, in its own read-only transaction, with the {@link MDC}
+ * of the caller, so a search holds two connections of the pool at once.
+ *
+ * <p>The counts running concurrently are bounded by {@link #getConcurrentCountPermits()}: without a
+ * free permit, or within an active transaction, which already holds a connection, a search runs
+ * {@link #searchWithLazyCount(Object, Pageable)} instead, counting after fetching the content.
+ *
+ * <p>The count is never interrupted, as interrupting a virtual thread blocked on a socket closes
+ * the socket, and with it the pooled connection: a count that turns out to be useless is skipped if
+ * it has not started yet, and left to complete in the background otherwise, still holding its
+ * permit.
+ *
+ * @param <E> The type of the JPA entity.
+ * @param <D> The type of the Data Transfer Object (DTO).
+ * @param <S> The type of the search criteria object used to build the query predicate.
+ */
+public interface ConcurrentQueryService<E extends AbstractEntity<?>, D, S>
+    extends PageableQueryService<E, D, S> {
+
+  /**
+   * Provides the transaction manager of the read-only transactions of the queries.
+   *
+   * @return The non-null {@link PlatformTransactionManager}.
+   */
+  @NonNull
+  PlatformTransactionManager getTransactionManager();
+
+  /**
+   * Provides the permits of the counts running concurrently with their content queries, each count
+   * holding one until it completes. They are shared by every service by default, allowing {@value
+   * SearchPages#DEFAULT_CONCURRENT_COUNTS} counts at once, and should be sized to leave enough of
+   * the connection pool to the other queries.
+   *
+   * @return The non-null {@link Semaphore} of the concurrent counts.
+   */
+  @NonNull
+  default Semaphore getConcurrentCountPermits() {
+    return SearchPages.CONCURRENT_COUNT_PERMITS;
+  }
+
+  /**
+   * Searches a page of results like {@link #searchWithLazyCount(Object, Pageable)}, but counts the
+   * total concurrently with fetching the content, rather than afterward. The count is wasted when
+   * the page turns out to be the last one, whose total is known from its content.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param pageable The non-null pagination information.
+   * @return The non-null page of results.
+   */
+  @NonNull
+  default Page<D> searchConcurrently(@NonNull S searchCriteria, @NonNull Pageable pageable) {
+    if (pageable.isUnpaged()) {
+      return search(searchCriteria, pageable);
+    }
+
+    var countPermits = getConcurrentCountPermits();
+
+    if (TransactionSynchronizationManager.isActualTransactionActive()
+        || !countPermits.tryAcquire()) {
+      return searchWithLazyCount(searchCriteria, pageable);
+    }
+
+    var predicate = SearchPages.predicateOf(this, searchCriteria);
+
+    var transactionTemplate = new TransactionTemplate(getTransactionManager());
+
+    transactionTemplate.setReadOnly(true);
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    var contextMap = MDC.getCopyOfContextMap();
+
+    // Claimed by the count when it starts, or by the search when it skips the count
+    var isCountClaimed = new AtomicBoolean();
+
+    var totalFuture =
+        SearchPages.QUERY_EXECUTOR.submit(
+            () -> {
+              if (!isCountClaimed.compareAndSet(false, true)) {
+                return null;
+              }
+
+              try {
+                if (contextMap != null) {
+                  MDC.setContextMap(contextMap);
+                }
+
+                return transactionTemplate.execute(
+                    status -> SearchPages.totalOf(this, predicate));
+              } finally {
+                countPermits.release();
+              }
+            });
+
+    Slice<D> slice;
+
+    try {
+      slice =
+          transactionTemplate.execute(
+              status -> {
+                var entities = getRepository().findBy(predicate, query -> query.slice(pageable));
+
+                return new SliceImpl<>(
+                    toDtos(entities.getContent()), pageable, entities.hasNext());
+              });
+    } catch (RuntimeException | Error exception) {
+      SearchPages.skipCount(isCountClaimed, countPermits);
+
+      throw exception;
+    }
+
+    var content = slice.getContent();
+
+    // The total is known from the last page, a running count is left to complete
+    if (!slice.hasNext() && !content.isEmpty()) {
+      SearchPages.skipCount(isCountClaimed, countPermits);
+
+      return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+    }
+
+    return new PageImpl<>(content, pageable, SearchPages.join(totalFuture, null));
+  }
+}
@@ -0,0 +1,102 @@
+package com.vulinh.service;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathType;
+import com.vulinh.utils.JsonUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.beans.PropertyAccessorFactory;
+
+/**
+ * Encodes the key values of a row into the opaque cursor of keyset pagination, and back.
+ *
+ * <p>The cursor is the URL-safe Base64 of the JSON array of the values, which are read back with
+ * the types of the ordered paths, so a tampered cursor can only produce an invalid value.
+ */
+final class KeysetCursor {
+
+  private KeysetCursor() {}
+
+  static String encode(List<? extends OrderSpecifier<?>> orders, Object entity) {
+    var values = new ArrayList<>(orders.size());
+
+    for (var order : orders) {
+      values.add(valueOf(entity, propertyPathOf(order)));
+    }
+
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(JsonUtils.toMinimizedJSONBytes(values));
+  }
+
+  static List<Object> decode(List<? extends OrderSpecifier<?>> orders, String cursor) {
+    var mapper = JsonUtils.delegate();
+
+    try {
+      var nodes = mapper.readTree(Base64.getUrlDecoder().decode(cursor));
+
+      // Also rejects the cursors of another ordering
+      if (nodes == null || !nodes.isArray() || nodes.size() != orders.size()) {
+        throw new IllegalArgumentException("Cursor does not match the orders");
+      }
+
+      var values = new ArrayList<>(orders.size());
+
+      for (var index = 0; index < orders.size(); index++) {
+        var node = nodes.get(index);
+        var type = orders.get(index).getTarget().getType();
+
+        values.add(node.isNull() ? null : mapper.treeToValue(node, type));
+      }
+
+      return values;
+    } catch (IOException | IllegalArgumentException exception) {
+      throw new IllegalArgumentException("Invalid cursor", exception);
+    }
+  }
+
+  // The property path from the entity, such as "author.name" for the path post.author.name
+  static String propertyPathOf(OrderSpecifier<?> order) {
+    if (!(order.getTarget() instanceof Path<?> path)) {
+      throw new IllegalArgumentException(
+          "Keyset pagination can only order by paths, not %s".formatted(order.getTarget()));
+    }
+
+    var propertyPath = new StringBuilder();
+
+    for (var metadata = path.getMetadata();
+        !metadata.isRoot();
+        metadata = metadata.getParent().getMetadata()) {
+      if (metadata.getPathType() != PathType.PROPERTY) {
+        throw new IllegalArgumentException(
+            "Keyset pagination can only order by properties, not %s".formatted(path));
+      }
+
+      if (!propertyPath.isEmpty()) {
+        propertyPath.insert(0, '.');
+      }
+
+      propertyPath.insert(0, metadata.getName());
+    }
+
+    if (propertyPath.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Keyset pagination can only order by properties of the entity, not %s".formatted(path));
+    }
+
+    return propertyPath.toString();
+  }
+
+  static Object valueOf(Object entity, String propertyPath) {
+    try {
+      return PropertyAccessorFactory.forBeanPropertyAccess(entity).getPropertyValue(propertyPath);
+    } catch (NullValueInNestedPathException exception) {
+      // A missing association orders like a null value
+      return null;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.vulinh.service;
+
+import java.util.List;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * A window of results fetched with keyset pagination, see {@link
+ * PageableQueryService#searchAfter(Object, String, int, List)}.
+ *
+ * @param content The results of the window.
+ * @param nextCursor The opaque cursor of the next window, or null if this window is the last one.
+ * @param <T> The type of the results.
+ */
+public record KeysetWindow<T>(@NonNull List<T> content, @Nullable String nextCursor) {
+
+  /**
+   * Tells whether there are results after this window.
+   *
+   * @return {@code true} if {@link #nextCursor()} can fetch the next window
+   */
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
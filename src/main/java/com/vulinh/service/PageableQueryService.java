@@ -1,11 +1,18 @@
 package com.vulinh.service;
 
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Predicate;
 import com.vulinh.data.base.AbstractEntity;
 import com.vulinh.utils.PredicateBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.querydsl.ListQuerydslPredicateExecutor;
+import org.springframework.data.querydsl.QSort;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
@@ -32,11 +39,46 @@ public interface PageableQueryService<E extends AbstractEntity<?>, D, S> {
   @NonNull
   D toDto(@NonNull E entity);
 
+  /**
+   * Converts the entities of a page, a slice or a window into their DTOs. The associations needed
+   * by the DTOs are first prefetched for the whole page by {@link #prefetchAssociations(List)}, so
+   * that {@link #toDto(AbstractEntity)} does not load them lazily one entity at a time.
+   *
+   * @param entities The non-null entities to convert.
+   * @return The non-null DTOs of the entities, in the same order.
+   */
+  @NonNull
+  default List<D> toDtos(@NonNull List<E> entities) {
+    if (!entities.isEmpty()) {
+      prefetchAssociations(entities);
+    }
+
+    var dtos = new ArrayList<D>(entities.size());
+
+    for (var entity : entities) {
+      dtos.add(toDto(entity));
+    }
+
+    return dtos;
+  }
+
+  /**
+   * Loads the associations of the entities needed by {@link #toDto(AbstractEntity)}, typically with
+   * one {@code IN} query per association, see {@link PrefetchingQueryService}. Does nothing by
+   * default.
+   *
+   * @param entities The non-empty entities to convert, which may contain duplicates.
+   */
+  default void prefetchAssociations(@NonNull List<E> entities) {
+    // Nothing to prefetch
+  }
+
   /**
    * Builds a QueryDSL {@link Predicate} from the given search criteria object. Implementations can
    * return null if the search criteria should result in no filtering (i.e., match all records). The
    * default {@link PageableQueryService#search(Object, Pageable)} method handles a null predicate
-   * gracefully.
+   * gracefully, and runs the {@link PredicateBuilder#normalize(Predicate) normalized} predicate, so
+   * that identical criteria produce the same query.
    *
    * @param searchCriteria – The non-null object containing search parameters.
    * @return A Predicate for filtering, or null if no specific filtering is needed.
@@ -52,12 +94,162 @@ public interface PageableQueryService<E extends AbstractEntity<?>, D, S> {
   @NonNull
   ListQuerydslPredicateExecutor<E> getRepository();
 
+  /**
+   * Provides the type of the entity, which keys the cached totals and search results. Resolved from
+   * the type arguments of the implementing class by default.
+   *
+   * @return The non-null class of the entity E.
+   * @throws IllegalStateException if the entity type cannot be resolved, in which case this method
+   *     must be overridden.
+   */
+  @NonNull
+  @SuppressWarnings("unchecked")
+  default Class<E> getEntityType() {
+    var typeArguments =
+        GenericTypeResolver.resolveTypeArguments(getClass(), PageableQueryService.class);
+
+    if (typeArguments == null || typeArguments[0] == null) {
+      throw new IllegalStateException(
+          "Cannot resolve the entity type of %s, override getEntityType()"
+              .formatted(getClass().getName()));
+    }
+
+    return (Class<E>) typeArguments[0];
+  }
+
+  /**
+   * Provides the cache of the totals of {@link #searchWithLazyCount(Object, Pageable)}, so that
+   * paging through the same search counts its results only once. No total is cached by default.
+   *
+   * @return The {@link TotalCountCache} of this service, or null to count every time.
+   */
+  @Nullable
+  default TotalCountCache getTotalCountCache() {
+    return null;
+  }
+
+  /**
+   * Counts the results of a search for the total of the pages of {@link
+   * #searchWithLazyCount(Object, Pageable)}. Implementations that do not need exact totals can
+   * return a cheaper database row estimate instead, such as the {@code reltuples} of PostgreSQL or
+   * the row count of the query plan.
+   *
+   * @param predicate The non-null search predicate.
+   * @return The total number of results.
+   */
+  default long countTotal(@NonNull Predicate predicate) {
+    return getRepository().count(predicate);
+  }
+
+  /**
+   * Searches a page of results with their total, through {@link
+   * ListQuerydslPredicateExecutor#findAll(Predicate, Pageable)} of the repository.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param pageable The non-null pagination information.
+   * @return The non-null page of results.
+   */
   @NonNull
   default Page<D> search(@NonNull S searchCriteria, @NonNull Pageable pageable) {
-    var predicate = buildSearchPredicate(searchCriteria);
+    return SearchPages.search(this, SearchPages.predicateOf(this, searchCriteria), pageable);
+  }
+
+  /**
+   * Searches a page of results with their total like {@link #search(Object, Pageable)}, counting
+   * only when needed. The page fetches one extra row to tell whether it is the last one, in which
+   * case the total is known without counting. Otherwise, the total comes from {@link
+   * #countTotal(Predicate)}, through the {@link #getTotalCountCache()} if any.
+   *
+   * <p>The content is fetched with {@link ListQuerydslPredicateExecutor#findBy(Predicate,
+   * java.util.function.Function)}, so overrides of {@code findAll} in the repository, such as an
+   * {@code @EntityGraph}, are not applied.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param pageable The non-null pagination information.
+   * @return The non-null page of results.
+   */
+  @NonNull
+  default Page<D> searchWithLazyCount(@NonNull S searchCriteria, @NonNull Pageable pageable) {
+    if (pageable.isUnpaged()) {
+      return search(searchCriteria, pageable);
+    }
+
+    var predicate = SearchPages.predicateOf(this, searchCriteria);
+    var slice = getRepository().findBy(predicate, query -> query.slice(pageable));
+
+    return SearchPages.of(
+        this, toDtos(slice.getContent()), slice.hasNext(), pageable, predicate);
+  }
+
+  /**
+   * Searches a slice of results, which tells whether there is a next slice without counting the
+   * results: one extra row is fetched instead. Meant for "load more" lists and endless scrolling.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param pageable The non-null pagination information.
+   * @return The non-null slice of results.
+   */
+  @NonNull
+  default Slice<D> searchSlice(@NonNull S searchCriteria, @NonNull Pageable pageable) {
+    return SearchPages.searchSlice(this, SearchPages.predicateOf(this, searchCriteria), pageable);
+  }
+
+  /**
+   * Searches a window of results using keyset (seek) pagination. Rather than skipping the rows of
+   * the previous pages with an offset, the query seeks past the key values of the last row of the
+   * previous window, such as {@code (created_date, id) > (?, ?)}, so deep windows cost as much as
+   * the first one. No count query is executed either: one extra row is fetched to tell whether
+   * there is a next window.
+   *
+   * <p>The orders must be paths of entity properties, such as the ones built by {@link
+   * com.vulinh.utils.DslOrderBuilder}, and the last one must make the ordering total, typically by
+   * being the identifier. The same orders must be given for every window of a search. The orders of
+   * nullable paths must have an explicit null handling, otherwise the rows whose key is null are
+   * never returned, see {@link PredicateBuilder#seekAfter(List, List)}.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param cursor The {@link KeysetWindow#nextCursor()} of the previous window, or null for the
+   *     first window.
+   * @param size The maximal number of results of the window.
+   * @param orders The non-empty orders of the results.
+   * @return The non-null window of results.
+   * @throws IllegalArgumentException if the cursor is invalid, or does not match the orders.
+   */
+  @NonNull
+  default KeysetWindow<D> searchAfter(
+      @NonNull S searchCriteria,
+      @Nullable String cursor,
+      int size,
+      @NonNull List<OrderSpecifier<?>> orders) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Window size must be positive");
+    }
+
+    if (orders.isEmpty()) {
+      throw new IllegalArgumentException("Keyset pagination needs at least one order");
+    }
+
+    var predicate = SearchPages.predicateOf(this, searchCriteria);
+
+    if (cursor != null) {
+      var seekPredicate = PredicateBuilder.seekAfter(orders, KeysetCursor.decode(orders, cursor));
+
+      // Not normalized, as the seek predicate already has the same shape for every cursor
+      predicate =
+          PredicateBuilder.always().equals(predicate)
+              ? seekPredicate
+              : ExpressionUtils.and(predicate, seekPredicate);
+    }
+
+    var entities =
+        getRepository()
+            .findBy(predicate, query -> query.sortBy(new QSort(orders)).limit(size + 1).all());
+
+    var hasNext = entities.size() > size;
+    var windowEntities = hasNext ? entities.subList(0, size) : entities;
 
-    return getRepository()
-        .findAll(predicate == null ? PredicateBuilder.always() : predicate, pageable)
-        .map(this::toDto);
+    return new KeysetWindow<>(
+        toDtos(windowEntities),
+        hasNext ? KeysetCursor.encode(orders, windowEntities.get(size - 1)) : null);
   }
 }
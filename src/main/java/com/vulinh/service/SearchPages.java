@@ -0,0 +1,183 @@
+package com.vulinh.service;
+
+import com.querydsl.core.types.Predicate;
+import com.vulinh.data.base.AbstractEntity;
+import com.vulinh.utils.PredicateBuilder;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.lang.Nullable;
+
+/** Assembles the pages of the searches of {@link PageableQueryService}. */
+final class SearchPages {
+
+  // Never shut down, as the virtual threads of the queries hold no resources once complete
+  static final ExecutorService QUERY_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+  static final int DEFAULT_CONCURRENT_COUNTS = 8;
+
+  static final Semaphore CONCURRENT_COUNT_PERMITS = new Semaphore(DEFAULT_CONCURRENT_COUNTS);
+
+  private SearchPages() {}
+
+  /**
+   * Creates a page from its content, fetched with one extra row to tell whether it is the last
+   * page, in which case the total is known without counting.
+   *
+   * @param service the service counting the total otherwise
+   * @param content the content of the page, without the extra row
+   * @param hasNext whether the extra row was fetched
+   * @param pageable the pagination information
+   * @param predicate the normalized search predicate
+   * @return the page
+   */
+  static <T> Page<T> of(
+      PageableQueryService<?, ?, ?> service,
+      List<T> content,
+      boolean hasNext,
+      Pageable pageable,
+      Predicate predicate) {
+    return PageableExecutionUtils.getPage(
+        content,
+        pageable,
+        () ->
+            !hasNext && !content.isEmpty()
+                ? pageable.getOffset() + content.size()
+                : totalOf(service, predicate));
+  }
+
+  /**
+   * Builds the normalized predicate of a search.
+   *
+   * @param service the service building the predicate
+   * @param searchCriteria the search criteria
+   * @return the non-null normalized predicate
+   */
+  static <S> Predicate predicateOf(PageableQueryService<?, ?, S> service, S searchCriteria) {
+    return PredicateBuilder.normalize(service.buildSearchPredicate(searchCriteria));
+  }
+
+  /**
+   * Gets the cache key of a search predicate given to the public API of a cache. The predicates of
+   * {@link #predicateOf(PageableQueryService, Object)} are already keys.
+   *
+   * @param predicate the search predicate, null matching everything
+   * @return the key, equal to the keys of the semantically identical predicates
+   */
+  static Predicate keyOf(@Nullable Predicate predicate) {
+    return PredicateBuilder.normalize(predicate);
+  }
+
+  /**
+   * Searches a page of results with their total, through {@link
+   * org.springframework.data.querydsl.ListQuerydslPredicateExecutor#findAll(Predicate, Pageable)}.
+   *
+   * @param service the service of the search
+   * @param predicate the normalized search predicate
+   * @param pageable the pagination information
+   * @return the page
+   */
+  static <E extends AbstractEntity<?>, D> Page<D> search(
+      PageableQueryService<E, D, ?> service, Predicate predicate, Pageable pageable) {
+    var page = service.getRepository().findAll(predicate, pageable);
+
+    return new PageImpl<>(
+        service.toDtos(page.getContent()), page.getPageable(), page.getTotalElements());
+  }
+
+  /**
+   * Searches a slice of results, fetching one extra row to tell whether there is a next slice.
+   *
+   * @param service the service of the search
+   * @param predicate the normalized search predicate
+   * @param pageable the pagination information
+   * @return the slice
+   */
+  static <E extends AbstractEntity<?>, D> Slice<D> searchSlice(
+      PageableQueryService<E, D, ?> service, Predicate predicate, Pageable pageable) {
+    var slice = service.getRepository().findBy(predicate, query -> query.slice(pageable));
+
+    return new SliceImpl<>(service.toDtos(slice.getContent()), pageable, slice.hasNext());
+  }
+
+  /**
+   * Counts the total of a search, through the cache of the service if any.
+   *
+   * @param service the service counting the total
+   * @param predicate the normalized search predicate
+   * @return the total
+   */
+  static long totalOf(PageableQueryService<?, ?, ?> service, Predicate predicate) {
+    var totalCountCache = service.getTotalCountCache();
+
+    return totalCountCache == null
+        ? service.countTotal(predicate)
+        : totalCountCache.getNormalized(
+            service.getEntityType(), predicate, () -> service.countTotal(predicate));
+  }
+
+  /**
+   * Waits for the result of a query running concurrently with another one, cancelling both if it
+   * failed. The queries are cancelled without interrupting them, as interrupting a thread blocked
+   * on a socket closes its connection, so the running ones complete in the background.
+   *
+   * @param future the future of the query
+   * @param otherFuture the future of the other query, if any
+   * @return the result of the query
+   */
+  static <T> T join(Future<T> future, @Nullable Future<?> otherFuture) {
+    try {
+      return future.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      cancel(future, otherFuture);
+
+      throw new IllegalStateException("Interrupted while waiting for a query", exception);
+    } catch (ExecutionException exception) {
+      cancel(future, otherFuture);
+
+      var cause = exception.getCause();
+
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+
+      if (cause instanceof Error error) {
+        throw error;
+      }
+
+      throw new IllegalStateException("Query failed", cause);
+    }
+  }
+
+  /**
+   * Skips a count submitted concurrently with its content query, releasing its permit unless it has
+   * already started, in which case it releases the permit itself once complete.
+   *
+   * @param isCountClaimed claimed by whichever of the count or the search gets there first
+   * @param countPermits the permits of the concurrent counts
+   */
+  static void skipCount(AtomicBoolean isCountClaimed, Semaphore countPermits) {
+    if (isCountClaimed.compareAndSet(false, true)) {
+      countPermits.release();
+    }
+  }
+
+  static void cancel(Future<?> future, @Nullable Future<?> otherFuture) {
+    future.cancel(false);
+
+    if (otherFuture != null) {
+      otherFuture.cancel(false);
+    }
+  }
+}
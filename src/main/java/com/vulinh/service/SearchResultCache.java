@@ -0,0 +1,200 @@
+package com.vulinh.service;
+
+import com.querydsl.core.types.Predicate;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * An in-process, size and time bounded cache of search results, keyed by the entity type, the
+ * normalized search predicate and the pagination, see {@link CachingQueryService}.
+ *
+ * <p>Loading is single-flight: the concurrent searches missing the same key wait for the first one
+ * to load the result, rather than all running the same queries. A failed load is not cached, and
+ * its failure is rethrown to every waiting search.
+ *
+ * <p>The cached results are shared by every search hitting the same key, so they must not be
+ * modified. They may be stale for up to the time to live, unless the cache is {@link
+ * #invalidate(Class) invalidated} when the entities are written. The least recently used result is
+ * evicted when the cache is full.
+ */
+public final class SearchResultCache {
+
+  static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(30);
+
+  static final int DEFAULT_MAX_SIZE = 1_000;
+
+  final long timeToLiveNanos;
+  final int maxSize;
+  final LongSupplier nanoClock;
+
+  // Access ordered, so the eldest entry is the least recently used one
+  final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+  /** Creates a cache keeping up to 1000 results for 30 seconds. */
+  public SearchResultCache() {
+    this(DEFAULT_TIME_TO_LIVE, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param timeToLive how long a result is kept after being loaded
+   * @param maxSize the maximal number of kept results
+   */
+  public SearchResultCache(@NonNull Duration timeToLive, int maxSize) {
+    this(timeToLive, maxSize, System::nanoTime);
+  }
+
+  SearchResultCache(Duration timeToLive, int maxSize, LongSupplier nanoClock) {
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("Time to live must be positive");
+    }
+
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Max size must be positive");
+    }
+
+    timeToLiveNanos = timeToLive.toNanos();
+    this.maxSize = maxSize;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * The key of a search result.
+   *
+   * @param entityType the searched entity type, for invalidation
+   * @param operation the search operation, as the results of different operations differ
+   * @param predicate the normalized search predicate
+   * @param pagination the pagination, such as a {@link org.springframework.data.domain.Pageable}
+   */
+  record Key(Class<?> entityType, String operation, Predicate predicate, Object pagination) {}
+
+  static final class Entry {
+
+    final CompletableFuture<Object> result = new CompletableFuture<>();
+
+    // Only meaningful once the result is loaded
+    volatile long expiresAtNanos;
+
+    boolean isExpired(long nanoTime) {
+      return result.isDone() && expiresAtNanos - nanoTime <= 0;
+    }
+  }
+
+  /**
+   * Gets the cached result of a search, loading it if it is missing or expired.
+   *
+   * @param entityType the searched entity type
+   * @param operation the name of the search operation
+   * @param predicate the search predicate, null matching everything
+   * @param pagination the pagination of the search
+   * @param loader runs the search
+   * @return the result
+   * @param <T> the type of the result
+   */
+  public <T> T get(
+      @NonNull Class<?> entityType,
+      @NonNull String operation,
+      @Nullable Predicate predicate,
+      @NonNull Object pagination,
+      @NonNull Supplier<T> loader) {
+    return getNormalized(entityType, operation, SearchPages.keyOf(predicate), pagination, loader);
+  }
+
+  // The predicate is already normalized, such as by SearchPages.predicateOf
+  @SuppressWarnings("unchecked")
+  <T> T getNormalized(
+      Class<?> entityType,
+      String operation,
+      Predicate predicate,
+      Object pagination,
+      Supplier<T> loader) {
+    var key = new Key(entityType, operation, predicate, pagination);
+
+    Entry entry;
+    var isLoader = false;
+
+    synchronized (this) {
+      entry = entries.get(key);
+
+      if (entry == null || entry.isExpired(nanoClock.getAsLong())) {
+        entry = new Entry();
+        entries.put(key, entry);
+        isLoader = true;
+
+        if (entries.size() > maxSize) {
+          var eldest = entries.keySet().iterator();
+
+          eldest.next();
+          eldest.remove();
+        }
+      }
+    }
+
+    if (!isLoader) {
+      return (T) await(entry);
+    }
+
+    T result;
+
+    try {
+      result = loader.get();
+    } catch (RuntimeException | Error exception) {
+      synchronized (this) {
+        entries.remove(key, entry);
+      }
+
+      entry.result.completeExceptionally(exception);
+
+      throw exception;
+    }
+
+    entry.expiresAtNanos = nanoClock.getAsLong() + timeToLiveNanos;
+    entry.result.complete(result);
+
+    return result;
+  }
+
+  /**
+   * Forgets the cached results of an entity type, typically after entities of that type have been
+   * written. The searches being loaded complete, but their results are not cached.
+   *
+   * @param entityType the entity type
+   */
+  public synchronized void invalidate(@NonNull Class<?> entityType) {
+    entries.keySet().removeIf(key -> key.entityType == entityType);
+  }
+
+  /** Forgets every cached result. */
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  static Object await(Entry entry) {
+    try {
+      return entry.result.join();
+    } catch (CompletionException exception) {
+      // The failure of the loading search
+      if (exception.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+
+      if (exception.getCause() instanceof Error error) {
+        throw error;
+      }
+
+      throw exception;
+    }
+  }
+}
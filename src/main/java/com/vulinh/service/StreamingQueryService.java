@@ -0,0 +1,128 @@
+package com.vulinh.service;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.vulinh.data.base.AbstractEntity;
+import jakarta.persistence.EntityManager;
+import java.util.function.Consumer;
+import org.hibernate.ScrollMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.lang.NonNull;
+
+/**
+ * A {@link PageableQueryService} that can also stream every result of a search, such as for a CSV
+ * or JSON export, with a memory use that does not grow with the number of results.
+ *
+ * <p>Rather than paging, the search runs a single forward-only scrollable query, whose rows are
+ * fetched from the JDBC driver by batches, and the persistence context is cleared after every
+ * batch, so the converted entities can be garbage collected.
+ *
+ * @param <E> The type of the JPA entity.
+ * @param <D> The type of the Data Transfer Object (DTO).
+ * @param <S> The type of the search criteria object used to build the query predicate.
+ */
+public interface StreamingQueryService<E extends AbstractEntity<?>, D, S>
+    extends PageableQueryService<E, D, S> {
+
+  /** The default number of rows fetched at once by {@link #stream(Object, Sort, Consumer)}. */
+  int DEFAULT_STREAM_BATCH_SIZE = 500;
+
+  /**
+   * Provides the QueryDSL path of the entity, which the search predicate is built from, typically
+   * the default instance of its Q-class.
+   *
+   * @return The non-null path of the entity E.
+   */
+  @NonNull
+  EntityPath<E> getEntityPath();
+
+  /**
+   * Provides the entity manager running the streaming queries.
+   *
+   * @return The non-null {@link EntityManager}.
+   */
+  @NonNull
+  EntityManager getEntityManager();
+
+  /**
+   * Provides the number of rows fetched at once by the JDBC driver, which is also the number of
+   * entities after which the persistence context is cleared.
+   *
+   * @return The positive batch size.
+   */
+  default int getStreamBatchSize() {
+    return DEFAULT_STREAM_BATCH_SIZE;
+  }
+
+  /**
+   * Streams every result of a search, unsorted, see {@link #stream(Object, Sort, Consumer)}.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param consumer The non-null consumer of the DTOs.
+   * @return The number of streamed results.
+   */
+  default long stream(@NonNull S searchCriteria, @NonNull Consumer<? super D> consumer) {
+    return stream(searchCriteria, Sort.unsorted(), consumer);
+  }
+
+  /**
+   * Streams every result of a search, each converted by {@link #toDto(AbstractEntity)}, to the
+   * consumer.
+   *
+   * <p>The scrollable query needs its connection until the end, so this method must run in a
+   * (read-only) transaction. The persistence context of that transaction is cleared periodically,
+   * so the entities loaded before must not be used afterward.
+   *
+   * @param searchCriteria The non-null object containing search parameters.
+   * @param sort The non-null sorting of the results.
+   * @param consumer The non-null consumer of the DTOs.
+   * @return The number of streamed results.
+   */
+  default long stream(
+      @NonNull S searchCriteria, @NonNull Sort sort, @NonNull Consumer<? super D> consumer) {
+    var batchSize = getStreamBatchSize();
+
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Stream batch size must be positive");
+    }
+
+    var entityManager = getEntityManager();
+    var entityPath = getEntityPath();
+    var querydsl =
+        new Querydsl(
+            entityManager, new PathBuilder<>(entityPath.getType(), entityPath.getMetadata()));
+
+    var query =
+        querydsl
+            .createQuery(entityPath)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, batchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .select(entityPath)
+            .where(SearchPages.predicateOf(this, searchCriteria));
+
+    querydsl.applySorting(sort, query);
+
+    var count = 0L;
+
+    try (var results =
+        query
+            .createQuery()
+            .unwrap(org.hibernate.query.Query.class)
+            .scroll(ScrollMode.FORWARD_ONLY)) {
+      while (results.next()) {
+        @SuppressWarnings("unchecked")
+        var entity = (E) results.get();
+
+        consumer.accept(toDto(entity));
+
+        if (++count % batchSize == 0) {
+          entityManager.clear();
+        }
+      }
+    }
+
+    return count;
+  }
+}
@@ -0,0 +1,174 @@
+package com.vulinh.service;
+
+import com.querydsl.core.types.Predicate;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * A size and time bounded cache of the totals of {@link
+ * PageableQueryService#searchWithLazyCount(Object, org.springframework.data.domain.Pageable)},
+ * keyed by the entity type and the normalized search predicate, so that paging through the same
+ * search does not count its results again on every page. A cache may be shared by the services of
+ * several entities.
+ *
+ * <p>The cached totals may be stale for up to the time to live, so the totals of an entity type
+ * should be {@link #invalidate(Class) invalidated} when its entities are written, for example from
+ * an entity listener or an event handler.
+ *
+ * <p>A total being counted is not cached if the cache is invalidated meanwhile, as it may have
+ * been counted before the write. The least recently used total is evicted when the cache is full.
+ * Two concurrent searches missing the same key both count, the last one to start winning.
+ */
+public final class TotalCountCache {
+
+  static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+  static final int DEFAULT_MAX_SIZE = 1_000;
+
+  final long timeToLiveNanos;
+  final int maxSize;
+  final LongSupplier nanoClock;
+
+  // Access ordered, so the eldest entry is the least recently used one
+  final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+  /** Creates a cache keeping up to 1000 totals for 1 minute. */
+  public TotalCountCache() {
+    this(DEFAULT_TIME_TO_LIVE, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param timeToLive how long a total is kept after being counted
+   * @param maxSize the maximal number of kept totals
+   */
+  public TotalCountCache(@NonNull Duration timeToLive, int maxSize) {
+    this(timeToLive, maxSize, System::nanoTime);
+  }
+
+  TotalCountCache(Duration timeToLive, int maxSize, LongSupplier nanoClock) {
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("Time to live must be positive");
+    }
+
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Max size must be positive");
+    }
+
+    timeToLiveNanos = timeToLive.toNanos();
+    this.maxSize = maxSize;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * The key of a total.
+   *
+   * @param entityType the counted entity type
+   * @param predicate the normalized search predicate
+   */
+  record Key(Class<?> entityType, Predicate predicate) {}
+
+  // Guarded by the cache, and still being counted until isCounted is set
+  static final class Entry {
+
+    boolean isCounted;
+    long total;
+    long expiresAtNanos;
+  }
+
+  /**
+   * Gets the cached total of the predicate, counting it if it is missing or expired.
+   *
+   * @param entityType the counted entity type
+   * @param predicate the search predicate, null matching everything
+   * @param counter counts the results of the predicate
+   * @return the total
+   */
+  public long get(
+      @NonNull Class<?> entityType, @Nullable Predicate predicate, @NonNull LongSupplier counter) {
+    return getNormalized(entityType, SearchPages.keyOf(predicate), counter);
+  }
+
+  // The predicate is already normalized, such as by SearchPages.predicateOf
+  long getNormalized(Class<?> entityType, Predicate predicate, LongSupplier counter) {
+    var key = new Key(entityType, predicate);
+    var entry = new Entry();
+
+    synchronized (this) {
+      var cachedEntry = entries.get(key);
+
+      if (cachedEntry != null
+          && cachedEntry.isCounted
+          && cachedEntry.expiresAtNanos - nanoClock.getAsLong() > 0) {
+        return cachedEntry.total;
+      }
+
+      entries.put(key, entry);
+
+      if (entries.size() > maxSize) {
+        var eldest = entries.keySet().iterator();
+
+        eldest.next();
+        eldest.remove();
+      }
+    }
+
+    // Counting may take a while, so it is not done under the lock
+    long total;
+
+    try {
+      total = counter.getAsLong();
+    } catch (RuntimeException | Error exception) {
+      synchronized (this) {
+        entries.remove(key, entry);
+      }
+
+      throw exception;
+    }
+
+    synchronized (this) {
+      // Unless invalidated, evicted or replaced by a later count in the meantime
+      if (entries.get(key) == entry) {
+        entry.total = total;
+        entry.expiresAtNanos = nanoClock.getAsLong() + timeToLiveNanos;
+        entry.isCounted = true;
+      }
+    }
+
+    return total;
+  }
+
+  /**
+   * Forgets the cached total of the predicate, including the one being counted.
+   *
+   * @param entityType the counted entity type
+   * @param predicate the search predicate, null matching everything
+   */
+  public synchronized void invalidate(@NonNull Class<?> entityType, @Nullable Predicate predicate) {
+    entries.remove(new Key(entityType, SearchPages.keyOf(predicate)));
+  }
+
+  /**
+   * Forgets the cached totals of an entity type, typically after entities of that type have been
+   * written. The totals being counted are returned, but not cached.
+   *
+   * @param entityType the counted entity type
+   */
+  public synchronized void invalidate(@NonNull Class<?> entityType) {
+    entries.keySet().removeIf(key -> key.entityType == entityType);
+  }
+
+  /** Forgets every cached total. */
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+}
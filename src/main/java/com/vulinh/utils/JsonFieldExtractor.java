@@ -0,0 +1,258 @@
+package com.vulinh.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.vulinh.utils.JsonUtils.Format;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the values of a few fields, addressed by JSON pointers (RFC 6901) such as {@code
+ * /eventType} or {@code /data/postId}, from a JSON document without binding the whole document or
+ * building its tree.
+ *
+ * <p>The token stream is walked once: the fields that are not on the path of a requested pointer
+ * are skipped without being materialized, and reading stops as soon as every requested pointer has
+ * been found. Only the values of the requested pointers are bound, as {@link String}, {@link
+ * Number}, {@link Boolean}, {@link Map} or {@link List}, like {@link JsonUtils} does for untyped
+ * values.
+ *
+ * <p>The pointers are compiled once per instance, which is immutable and thread-safe, so an
+ * extractor is meant to be created once and reused. For one-off extractions, see {@link
+ * JsonUtils#extractFields(String, String...)}.
+ */
+public final class JsonFieldExtractor {
+
+  final Node root = new Node();
+  final int pointerCount;
+
+  private JsonFieldExtractor(String... pointers) {
+    for (var pointer : pointers) {
+      var node = root;
+
+      // Also validates the syntax and decodes the ~0 and ~1 escapes
+      for (var segment = JsonPointer.compile(pointer); !segment.matches(); ) {
+        node = node.child(segment);
+        segment = segment.tail();
+      }
+
+      node.pointer = pointer;
+    }
+
+    pointerCount = root.countTargets();
+  }
+
+  /**
+   * Creates an extractor of the given pointers.
+   *
+   * @param pointers the JSON pointers of the fields to extract, for example {@code /eventType}
+   * @return the extractor
+   * @throws IllegalArgumentException if a pointer is not a valid JSON pointer
+   */
+  public static JsonFieldExtractor of(String... pointers) {
+    return new JsonFieldExtractor(pointers);
+  }
+
+  /**
+   * Extracts the requested fields from the given JSON string.
+   *
+   * @param message the JSON document
+   * @return the values of the found pointers, keyed by pointer; a pointer whose value is a JSON
+   *     {@code null} is mapped to {@code null}, a pointer that is not found has no entry
+   * @throws IllegalArgumentException if the document is malformed before every pointer is found
+   */
+  public Map<String, Object> extract(String message) {
+    var reader = JsonUtils.readerFor(Object.class);
+
+    try (var parser = reader.createParser(message)) {
+      return extract(parser, reader);
+    } catch (IOException e) {
+      throw JsonUtils.toDeserializationException(e);
+    }
+  }
+
+  /**
+   * Extracts the requested fields from the given UTF-8 encoded JSON bytes. See {@link
+   * #extract(String)}.
+   *
+   * @param message the JSON document
+   * @return the values of the found pointers, keyed by pointer
+   * @throws IllegalArgumentException if the document is malformed before every pointer is found
+   */
+  public Map<String, Object> extract(byte[] message) {
+    return extract(message, Format.JSON);
+  }
+
+  /**
+   * Extracts the requested fields from the given bytes of the given format. See {@link
+   * #extract(String)}. In the binary formats, values written as native binary, such as the UUIDs of
+   * the event records, are extracted as byte arrays.
+   *
+   * @param message the document
+   * @param format the data format of the document
+   * @return the values of the found pointers, keyed by pointer
+   * @throws IllegalArgumentException if the document is malformed before every pointer is found
+   */
+  public Map<String, Object> extract(byte[] message, Format format) {
+    var reader = JsonUtils.mapperOf(format).readerFor(Object.class);
+
+    try (var parser = reader.createParser(message)) {
+      return extract(parser, reader);
+    } catch (IOException e) {
+      throw JsonUtils.toDeserializationException(e);
+    }
+  }
+
+  /**
+   * Extracts the requested fields from the JSON read from the given stream. Reading stops once
+   * every pointer is found, and the stream is not closed. See {@link #extract(String)}.
+   *
+   * @param inputStream the stream to read from
+   * @return the values of the found pointers, keyed by pointer
+   * @throws IllegalArgumentException if the document is malformed before every pointer is found
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public Map<String, Object> extract(InputStream inputStream) {
+    var reader = JsonUtils.readerFor(Object.class);
+
+    try (var parser = reader.createParser(inputStream)) {
+      return extract(parser, reader);
+    } catch (IOException e) {
+      throw JsonUtils.toDeserializationException(e);
+    }
+  }
+
+  Map<String, Object> extract(JsonParser parser, ObjectReader reader) throws IOException {
+    var values = new HashMap<String, Object>();
+
+    if (pointerCount > 0 && parser.nextToken() != null) {
+      walk(parser, reader, root, values);
+    }
+
+    return values;
+  }
+
+  // The parser is positioned on the first token of the value of the given node
+  boolean walk(JsonParser parser, ObjectReader reader, Node node, Map<String, Object> values)
+      throws IOException {
+    if (node.pointer != null) {
+      var value = reader.readValue(parser);
+
+      values.put(node.pointer, value);
+
+      // Deeper pointers are resolved from the bound value, which is already in memory
+      if (node.hasChildren()) {
+        node.collectDescendants(value, values);
+      }
+
+      return values.size() == pointerCount;
+    }
+
+    var token = parser.currentToken();
+
+    if (token == JsonToken.START_OBJECT) {
+      for (var fieldName = parser.nextFieldName(); fieldName != null; ) {
+        parser.nextToken();
+
+        var child = node.properties == null ? null : node.properties.get(fieldName);
+
+        if (child == null) {
+          parser.skipChildren();
+        } else if (walk(parser, reader, child, values)) {
+          return true;
+        }
+
+        fieldName = parser.nextFieldName();
+      }
+    } else if (token == JsonToken.START_ARRAY) {
+      for (var index = 0; parser.nextToken() != JsonToken.END_ARRAY; index++) {
+        var child = node.indexes == null ? null : node.indexes.get(index);
+
+        if (child == null) {
+          parser.skipChildren();
+        } else if (walk(parser, reader, child, values)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /** A segment of the requested pointers. */
+  static final class Node {
+
+    Map<String, Node> properties;
+    Map<Integer, Node> indexes;
+
+    // The requested pointer ending at this node, if any
+    String pointer;
+
+    Node child(JsonPointer segment) {
+      if (properties == null) {
+        properties = new HashMap<>();
+      }
+
+      var child = properties.computeIfAbsent(segment.getMatchingProperty(), ignored -> new Node());
+
+      // A segment such as "0" addresses both a property of an object and an element of an array
+      if (segment.mayMatchElement()) {
+        if (indexes == null) {
+          indexes = new HashMap<>();
+        }
+
+        indexes.putIfAbsent(segment.getMatchingIndex(), child);
+      }
+
+      return child;
+    }
+
+    boolean hasChildren() {
+      return properties != null;
+    }
+
+    int countTargets() {
+      var count = pointer == null ? 0 : 1;
+
+      if (properties != null) {
+        for (var child : properties.values()) {
+          count += child.countTargets();
+        }
+      }
+
+      return count;
+    }
+
+    void collectDescendants(Object value, Map<String, Object> values) {
+      if (value instanceof Map<?, ?> map && properties != null) {
+        for (var entry : properties.entrySet()) {
+          if (map.containsKey(entry.getKey())) {
+            entry.getValue().collect(map.get(entry.getKey()), values);
+          }
+        }
+      } else if (value instanceof List<?> list && indexes != null) {
+        for (var entry : indexes.entrySet()) {
+          if (entry.getKey() < list.size()) {
+            entry.getValue().collect(list.get(entry.getKey()), values);
+          }
+        }
+      }
+    }
+
+    void collect(Object value, Map<String, Object> values) {
+      if (pointer != null) {
+        values.put(pointer, value);
+      }
+
+      if (hasChildren()) {
+        collectDescendants(value, values);
+      }
+    }
+  }
+}
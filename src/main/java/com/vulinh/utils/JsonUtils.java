@@ -1,13 +1,42 @@
 package com.vulinh.utils;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.lang.Nullable;
 
 /**
  * Convenient but opinionated utility class that provides JSON-related utility methods via the
@@ -24,6 +53,20 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
  *   <li>{@link com.fasterxml.jackson.annotation.JsonInclude.Include#NON_NULL} serialization
  *       inclusion
  * </ul>
+ *
+ * <p>The {@link ObjectWriter} and {@link ObjectReader} of every serialized or deserialized type are
+ * resolved once and cached, so repeated calls for the same type skip the serializer lookup. The
+ * byte-oriented methods write and read UTF-8 directly, without going through an intermediate {@link
+ * String}. The streams and buffers given to these methods are never closed.
+ *
+ * <p>Large top-level JSON arrays can be read lazily with the {@code streamArray} methods and
+ * written incrementally with the {@code writeMinimizedJSONArray} methods, so that imports and
+ * exports of millions of elements run in constant memory.
+ *
+ * <p>The methods taking a {@link Format} use a family of mappers sharing the configuration above,
+ * for JSON and for the compact binary Smile and CBOR formats. The binary mappers are only created
+ * when first used, so their Jackson data format modules are only needed on the classpath by the
+ * applications using them.
  */
 public class JsonUtils {
 
@@ -32,6 +75,25 @@ public class JsonUtils {
     PRETTY
   }
 
+  /** Data formats of the mapper family of {@link JsonUtils}. */
+  public enum Format {
+
+    /** Textual JSON, the format of every method without a {@link Format} parameter. */
+    JSON,
+
+    /**
+     * Binary JSON-compatible format, which also shortens repeated field names with back references.
+     * Requires {@code com.fasterxml.jackson.dataformat:jackson-dataformat-smile}.
+     */
+    SMILE,
+
+    /**
+     * Concise Binary Object Representation (RFC 8949). Requires {@code
+     * com.fasterxml.jackson.dataformat:jackson-dataformat-cbor}.
+     */
+    CBOR
+  }
+
   private JsonUtils() {}
 
   /**
@@ -44,6 +106,17 @@ public class JsonUtils {
     return MAPPER;
   }
 
+  /**
+   * Return the {@link ObjectMapper} instance of the given format, sharing the configuration of
+   * {@link #delegate()}.
+   *
+   * @param format the data format
+   * @return The {@link ObjectMapper} instance of the format.
+   */
+  public static ObjectMapper delegate(Format format) {
+    return mapperOf(format).mapper;
+  }
+
   /**
    * Serializes the given object to a compact (minimized) JSON string with no extra whitespace.
    *
@@ -77,7 +150,7 @@ public class JsonUtils {
    */
   public static <T> T toObject(String message, Class<T> clazz) {
     try {
-      return MAPPER.readValue(message, clazz);
+      return readerFor(clazz).readValue(message);
     } catch (JsonProcessingException e) {
       throw new IllegalArgumentException("JSON deserialization error", e);
     }
@@ -96,40 +169,764 @@ public class JsonUtils {
    */
   public static <T> T toObject(String message, TypeReference<T> type) {
     try {
-      return MAPPER.readValue(message, type);
+      return readerFor(type.getType()).readValue(message);
     } catch (JsonProcessingException e) {
       throw new IllegalArgumentException("JSON deserialization error", e);
     }
   }
 
+  /**
+   * Serializes the given object to compact (minimized) UTF-8 encoded JSON bytes.
+   *
+   * @param object the object to serialize
+   * @return the compact JSON bytes
+   * @throws IllegalArgumentException if serialization fails
+   */
+  public static byte[] toMinimizedJSONBytes(Object object) {
+    return toJSONBytes(object, PrintType.PLAIN);
+  }
+
+  /**
+   * Serializes the given object to pretty-printed UTF-8 encoded JSON bytes.
+   *
+   * @param object the object to serialize
+   * @return the pretty-printed JSON bytes
+   * @throws IllegalArgumentException if serialization fails
+   */
+  public static byte[] toPrettyJSONBytes(Object object) {
+    return toJSONBytes(object, PrintType.PRETTY);
+  }
+
+  /**
+   * Serializes the given object as compact (minimized) UTF-8 encoded JSON into the given stream.
+   * The stream is flushed but not closed.
+   *
+   * @param object the object to serialize
+   * @param outputStream the stream to write to
+   * @throws IllegalArgumentException if serialization fails
+   * @throws UncheckedIOException if writing to the stream fails
+   */
+  public static void writeMinimizedJSON(Object object, OutputStream outputStream) {
+    writeJSON(object, outputStream, PrintType.PLAIN);
+  }
+
+  /**
+   * Serializes the given object as pretty-printed UTF-8 encoded JSON into the given stream. The
+   * stream is flushed but not closed.
+   *
+   * @param object the object to serialize
+   * @param outputStream the stream to write to
+   * @throws IllegalArgumentException if serialization fails
+   * @throws UncheckedIOException if writing to the stream fails
+   */
+  public static void writePrettyJSON(Object object, OutputStream outputStream) {
+    writeJSON(object, outputStream, PrintType.PRETTY);
+  }
+
+  /**
+   * Serializes the given object as compact (minimized) UTF-8 encoded JSON into the given buffer,
+   * starting at its current position. On success, the position of the buffer is moved past the
+   * written JSON. This allows a single (possibly direct) buffer to be reused across calls.
+   *
+   * @param object the object to serialize
+   * @param buffer the buffer to write to
+   * @throws IllegalArgumentException if serialization fails
+   * @throws BufferOverflowException if the JSON does not fit into the remaining space of the
+   *     buffer, in which case the position of the buffer is left unchanged
+   */
+  public static void writeMinimizedJSON(Object object, ByteBuffer buffer) {
+    var position = buffer.position();
+
+    try {
+      writeJSON(object, new ByteBufferBackedOutputStream(buffer), PrintType.PLAIN);
+    } catch (BufferOverflowException e) {
+      buffer.position(position);
+      throw e;
+    }
+  }
+
+  /**
+   * Deserializes UTF-8 encoded JSON bytes into an object of the specified class.
+   *
+   * @param message the JSON bytes to deserialize
+   * @param clazz the target class
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   */
+  public static <T> T toObject(byte[] message, Class<T> clazz) {
+    return readBytes(message, 0, message.length, readerFor(clazz));
+  }
+
+  /**
+   * Deserializes UTF-8 encoded JSON bytes into an object of the type described by the given {@link
+   * TypeReference}.
+   *
+   * @param message the JSON bytes to deserialize
+   * @param type the {@link TypeReference} describing the target type
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   */
+  public static <T> T toObject(byte[] message, TypeReference<T> type) {
+    return readBytes(message, 0, message.length, readerFor(type.getType()));
+  }
+
+  /**
+   * Deserializes the remaining UTF-8 encoded JSON bytes of the given buffer into an object of the
+   * specified class. The position of the buffer is left unchanged.
+   *
+   * @param message the buffer holding the JSON bytes to deserialize
+   * @param clazz the target class
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   */
+  public static <T> T toObject(ByteBuffer message, Class<T> clazz) {
+    return readBuffer(message, readerFor(clazz));
+  }
+
+  /**
+   * Deserializes the remaining UTF-8 encoded JSON bytes of the given buffer into an object of the
+   * type described by the given {@link TypeReference}. The position of the buffer is left
+   * unchanged.
+   *
+   * @param message the buffer holding the JSON bytes to deserialize
+   * @param type the {@link TypeReference} describing the target type
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   */
+  public static <T> T toObject(ByteBuffer message, TypeReference<T> type) {
+    return readBuffer(message, readerFor(type.getType()));
+  }
+
+  /**
+   * Deserializes JSON read from the given stream into an object of the specified class. The stream
+   * is not closed.
+   *
+   * @param inputStream the stream to read from
+   * @param clazz the target class
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public static <T> T toObject(InputStream inputStream, Class<T> clazz) {
+    return readStream(inputStream, readerFor(clazz));
+  }
+
+  /**
+   * Deserializes JSON read from the given stream into an object of the type described by the given
+   * {@link TypeReference}. The stream is not closed.
+   *
+   * @param inputStream the stream to read from
+   * @param type the {@link TypeReference} describing the target type
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public static <T> T toObject(InputStream inputStream, TypeReference<T> type) {
+    return readStream(inputStream, readerFor(type.getType()));
+  }
+
+  /**
+   * Serializes the given object to bytes of the given format.
+   *
+   * @param object the object to serialize
+   * @param format the data format
+   * @return the serialized bytes
+   * @throws IllegalArgumentException if serialization fails
+   */
+  public static byte[] toBytes(Object object, Format format) {
+    try {
+      return mapperOf(format).writerFor(object).writeValueAsBytes(object);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("JSON serialization error", e);
+    }
+  }
+
+  /**
+   * Serializes the given object in the given format into the given stream. The stream is flushed
+   * but not closed.
+   *
+   * @param object the object to serialize
+   * @param outputStream the stream to write to
+   * @param format the data format
+   * @throws IllegalArgumentException if serialization fails
+   * @throws UncheckedIOException if writing to the stream fails
+   */
+  public static void write(Object object, OutputStream outputStream, Format format) {
+    try {
+      mapperOf(format).writerFor(object).writeValue(outputStream, object);
+    } catch (IOException e) {
+      throw toSerializationException(e);
+    }
+  }
+
+  /**
+   * Deserializes bytes of the given format into an object of the specified class.
+   *
+   * @param message the bytes to deserialize
+   * @param clazz the target class
+   * @param format the data format
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   */
+  public static <T> T toObject(byte[] message, Class<T> clazz, Format format) {
+    return readBytes(message, 0, message.length, mapperOf(format).readerFor(clazz));
+  }
+
+  /**
+   * Deserializes bytes of the given format into an object of the type described by the given
+   * {@link TypeReference}.
+   *
+   * @param message the bytes to deserialize
+   * @param type the {@link TypeReference} describing the target type
+   * @param format the data format
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   */
+  public static <T> T toObject(byte[] message, TypeReference<T> type, Format format) {
+    return readBytes(message, 0, message.length, mapperOf(format).readerFor(type.getType()));
+  }
+
+  /**
+   * Deserializes content of the given format read from the given stream into an object of the
+   * specified class. The stream is not closed.
+   *
+   * @param inputStream the stream to read from
+   * @param clazz the target class
+   * @param format the data format
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public static <T> T toObject(InputStream inputStream, Class<T> clazz, Format format) {
+    return readStream(inputStream, mapperOf(format).readerFor(clazz));
+  }
+
+  /**
+   * Deserializes content of the given format read from the given stream into an object of the type
+   * described by the given {@link TypeReference}. The stream is not closed.
+   *
+   * @param inputStream the stream to read from
+   * @param type the {@link TypeReference} describing the target type
+   * @param format the data format
+   * @param <T> the target type
+   * @return the deserialized object
+   * @throws IllegalArgumentException if deserialization fails
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public static <T> T toObject(InputStream inputStream, TypeReference<T> type, Format format) {
+    return readStream(inputStream, mapperOf(format).readerFor(type.getType()));
+  }
+
+  /**
+   * Lazily reads the elements of a top-level JSON array from the given stream. Only one element is
+   * held in memory at a time. The returned {@link Stream} must be closed once consumed, which
+   * releases the parser but does not close the given stream.
+   *
+   * @param inputStream the stream to read from
+   * @param clazz the class of the array elements
+   * @param <T> the element type
+   * @return the lazily evaluated elements
+   * @throws IllegalArgumentException if the content is not a JSON array, or if an element cannot be
+   *     deserialized (possibly while the returned stream is consumed)
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public static <T> Stream<T> streamArray(InputStream inputStream, Class<T> clazz) {
+    return streamArray(readerFor(clazz), reader -> reader.createParser(inputStream));
+  }
+
+  /**
+   * Lazily reads the elements of a top-level JSON array from the given stream, as the type
+   * described by the given {@link TypeReference}. See {@link #streamArray(InputStream, Class)}.
+   *
+   * @param inputStream the stream to read from
+   * @param type the {@link TypeReference} describing the type of the array elements
+   * @param <T> the element type
+   * @return the lazily evaluated elements
+   * @throws IllegalArgumentException if the content is not a JSON array, or if an element cannot be
+   *     deserialized (possibly while the returned stream is consumed)
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public static <T> Stream<T> streamArray(InputStream inputStream, TypeReference<T> type) {
+    return streamArray(readerFor(type.getType()), reader -> reader.createParser(inputStream));
+  }
+
+  /**
+   * Lazily reads the elements of a top-level JSON array from the given reader. See {@link
+   * #streamArray(InputStream, Class)}.
+   *
+   * @param reader the reader to read from
+   * @param clazz the class of the array elements
+   * @param <T> the element type
+   * @return the lazily evaluated elements
+   * @throws IllegalArgumentException if the content is not a JSON array, or if an element cannot be
+   *     deserialized (possibly while the returned stream is consumed)
+   * @throws UncheckedIOException if reading from the reader fails
+   */
+  public static <T> Stream<T> streamArray(Reader reader, Class<T> clazz) {
+    return streamArray(readerFor(clazz), objectReader -> objectReader.createParser(reader));
+  }
+
+  /**
+   * Lazily reads the elements of a top-level JSON array from the given reader, as the type
+   * described by the given {@link TypeReference}. See {@link #streamArray(InputStream, Class)}.
+   *
+   * @param reader the reader to read from
+   * @param type the {@link TypeReference} describing the type of the array elements
+   * @param <T> the element type
+   * @return the lazily evaluated elements
+   * @throws IllegalArgumentException if the content is not a JSON array, or if an element cannot be
+   *     deserialized (possibly while the returned stream is consumed)
+   * @throws UncheckedIOException if reading from the reader fails
+   */
+  public static <T> Stream<T> streamArray(Reader reader, TypeReference<T> type) {
+    return streamArray(
+        readerFor(type.getType()), objectReader -> objectReader.createParser(reader));
+  }
+
+  /**
+   * Lazily reads the elements of a top-level JSON array from the given file. The file is closed
+   * when the returned {@link Stream} is closed. See {@link #streamArray(InputStream, Class)}.
+   *
+   * @param path the file to read from
+   * @param clazz the class of the array elements
+   * @param <T> the element type
+   * @return the lazily evaluated elements
+   * @throws IllegalArgumentException if the content is not a JSON array, or if an element cannot be
+   *     deserialized (possibly while the returned stream is consumed)
+   * @throws UncheckedIOException if reading from the file fails
+   */
+  public static <T> Stream<T> streamArray(Path path, Class<T> clazz) {
+    return streamArray(path, readerFor(clazz));
+  }
+
+  /**
+   * Lazily reads the elements of a top-level JSON array from the given file, as the type described
+   * by the given {@link TypeReference}. The file is closed when the returned {@link Stream} is
+   * closed. See {@link #streamArray(InputStream, Class)}.
+   *
+   * @param path the file to read from
+   * @param type the {@link TypeReference} describing the type of the array elements
+   * @param <T> the element type
+   * @return the lazily evaluated elements
+   * @throws IllegalArgumentException if the content is not a JSON array, or if an element cannot be
+   *     deserialized (possibly while the returned stream is consumed)
+   * @throws UncheckedIOException if reading from the file fails
+   */
+  public static <T> Stream<T> streamArray(Path path, TypeReference<T> type) {
+    return streamArray(path, readerFor(type.getType()));
+  }
+
+  /**
+   * Incrementally writes the given elements as a compact (minimized) top-level JSON array into the
+   * given stream. The elements are consumed one at a time, and the stream is neither flushed per
+   * element nor closed.
+   *
+   * @param elements the elements to write
+   * @param outputStream the stream to write to
+   * @return the number of written elements
+   * @throws IllegalArgumentException if an element cannot be serialized
+   * @throws UncheckedIOException if writing to the stream fails
+   */
+  public static long writeMinimizedJSONArray(Stream<?> elements, OutputStream outputStream) {
+    try {
+      return writeArray(elements, ARRAY_WRITER.writeValuesAsArray(outputStream));
+    } catch (IOException e) {
+      throw toSerializationException(e);
+    }
+  }
+
+  /**
+   * Incrementally writes the given elements as a compact (minimized) top-level JSON array into the
+   * given writer. See {@link #writeMinimizedJSONArray(Stream, OutputStream)}.
+   *
+   * @param elements the elements to write
+   * @param writer the writer to write to
+   * @return the number of written elements
+   * @throws IllegalArgumentException if an element cannot be serialized
+   * @throws UncheckedIOException if writing to the writer fails
+   */
+  public static long writeMinimizedJSONArray(Stream<?> elements, Writer writer) {
+    try {
+      return writeArray(elements, ARRAY_WRITER.writeValuesAsArray(writer));
+    } catch (IOException e) {
+      throw toSerializationException(e);
+    }
+  }
+
+  /**
+   * Incrementally writes the given elements as a compact (minimized) top-level JSON array into the
+   * given file, which is created or truncated. See {@link #writeMinimizedJSONArray(Stream,
+   * OutputStream)}.
+   *
+   * @param elements the elements to write
+   * @param path the file to write to
+   * @return the number of written elements
+   * @throws IllegalArgumentException if an element cannot be serialized
+   * @throws UncheckedIOException if writing to the file fails
+   */
+  public static long writeMinimizedJSONArray(Stream<?> elements, Path path) {
+    try (var outputStream = Files.newOutputStream(path)) {
+      return writeArray(elements, ARRAY_WRITER.writeValuesAsArray(outputStream));
+    } catch (IOException e) {
+      throw toSerializationException(e);
+    }
+  }
+
+  /**
+   * Extracts the values of the given JSON pointers from the given JSON string, without binding the
+   * rest of the document: reading stops as soon as every pointer is found. For repeated
+   * extractions of the same pointers, prefer a reused {@link JsonFieldExtractor}.
+   *
+   * @param message the JSON document
+   * @param pointers the JSON pointers of the fields to extract, for example {@code /eventType}
+   * @return the values of the found pointers, keyed by pointer; a pointer that is not found has no
+   *     entry
+   * @throws IllegalArgumentException if a pointer is invalid, or if the document is malformed
+   *     before every pointer is found
+   */
+  public static Map<String, Object> extractFields(String message, String... pointers) {
+    return JsonFieldExtractor.of(pointers).extract(message);
+  }
+
+  /**
+   * Extracts the values of the given JSON pointers from the given UTF-8 encoded JSON bytes. See
+   * {@link #extractFields(String, String...)}.
+   *
+   * @param message the JSON document
+   * @param pointers the JSON pointers of the fields to extract
+   * @return the values of the found pointers, keyed by pointer
+   * @throws IllegalArgumentException if a pointer is invalid, or if the document is malformed
+   *     before every pointer is found
+   */
+  public static Map<String, Object> extractFields(byte[] message, String... pointers) {
+    return JsonFieldExtractor.of(pointers).extract(message);
+  }
+
+  /**
+   * Extracts the values of the given JSON pointers from the JSON read from the given stream, which
+   * is not read further once every pointer is found, and is not closed. See {@link
+   * #extractFields(String, String...)}.
+   *
+   * @param inputStream the stream to read from
+   * @param pointers the JSON pointers of the fields to extract
+   * @return the values of the found pointers, keyed by pointer
+   * @throws IllegalArgumentException if a pointer is invalid, or if the document is malformed
+   *     before every pointer is found
+   * @throws UncheckedIOException if reading from the stream fails
+   */
+  public static Map<String, Object> extractFields(InputStream inputStream, String... pointers) {
+    return JsonFieldExtractor.of(pointers).extract(inputStream);
+  }
+
   static String toJSONString(Object object, PrintType printType) {
     try {
-      return switch (printType) {
-        case PLAIN -> MAPPER.writeValueAsString(object);
-        case PRETTY -> PRETTY_WRITER.writeValueAsString(object);
-      };
+      return writerFor(object, printType).writeValueAsString(object);
     } catch (JsonProcessingException e) {
       throw new IllegalArgumentException("JSON serialization error", e);
     }
   }
 
+  static byte[] toJSONBytes(Object object, PrintType printType) {
+    try {
+      return writerFor(object, printType).writeValueAsBytes(object);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("JSON serialization error", e);
+    }
+  }
+
+  static void writeJSON(Object object, OutputStream outputStream, PrintType printType) {
+    try {
+      writerFor(object, printType).writeValue(outputStream, object);
+    } catch (IOException e) {
+      throw toSerializationException(e);
+    }
+  }
+
+  static <T> T readBytes(byte[] message, int offset, int length, ObjectReader reader) {
+    try {
+      return reader.readValue(message, offset, length);
+    } catch (IOException e) {
+      throw toDeserializationException(e);
+    }
+  }
+
+  static <T> T readBuffer(ByteBuffer message, ObjectReader reader) {
+    if (message.hasArray()) {
+      return readBytes(
+          message.array(), message.arrayOffset() + message.position(), message.remaining(), reader);
+    }
+
+    // Direct or read-only buffer, read from a duplicate to leave the position untouched
+    return readStream(new ByteBufferBackedInputStream(message.duplicate()), reader);
+  }
+
+  static <T> T readStream(InputStream inputStream, ObjectReader reader) {
+    try {
+      return reader.readValue(inputStream);
+    } catch (IOException e) {
+      throw toDeserializationException(e);
+    }
+  }
+
+  static <T> Stream<T> streamArray(Path path, ObjectReader reader) {
+    InputStream inputStream;
+
+    try {
+      inputStream = Files.newInputStream(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    try {
+      Stream<T> elements =
+          streamArray(reader, objectReader -> objectReader.createParser(inputStream));
+
+      return elements.onClose(() -> closeQuietly(inputStream));
+    } catch (RuntimeException e) {
+      closeQuietly(inputStream);
+      throw e;
+    }
+  }
+
+  static <T> Stream<T> streamArray(ObjectReader reader, ParserFactory parserFactory) {
+    JsonParser parser = null;
+
+    try {
+      parser = parserFactory.createParser(reader);
+
+      // Fail fast, before the caller starts consuming the elements
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw MismatchedInputException.from(
+            parser, reader.getValueType(), "Expected a top-level JSON array");
+      }
+
+      var spliterator =
+          Spliterators.spliteratorUnknownSize(
+              new JsonArrayIterator<T>(parser, reader), Spliterator.ORDERED);
+
+      var closedParser = parser;
+
+      return StreamSupport.stream(spliterator, false).onClose(() -> closeQuietly(closedParser));
+    } catch (IOException e) {
+      if (parser != null) {
+        closeQuietly(parser);
+      }
+
+      throw toDeserializationException(e);
+    }
+  }
+
+  static long writeArray(Stream<?> elements, SequenceWriter sequenceWriter) throws IOException {
+    var count = 0L;
+
+    try (sequenceWriter) {
+      for (var iterator = elements.iterator(); iterator.hasNext(); count++) {
+        sequenceWriter.write(iterator.next());
+      }
+    }
+
+    return count;
+  }
+
+  static void closeQuietly(AutoCloseable closeable) {
+    try {
+      closeable.close();
+    } catch (Exception ignored) {
+      // Already failing or done, nothing more to report
+    }
+  }
+
+  static ObjectWriter writerFor(@Nullable Object object, PrintType printType) {
+    var mapper =
+        switch (printType) {
+          case PLAIN -> JSON;
+          case PRETTY -> PRETTY_JSON;
+        };
+
+    return mapper.writerFor(object);
+  }
+
+  static ObjectReader readerFor(Type type) {
+    return JSON.readerFor(type);
+  }
+
+  static FormatMapper mapperOf(Format format) {
+    return switch (format) {
+      case JSON -> JSON;
+      case SMILE -> SmileHolder.SMILE;
+      case CBOR -> CborHolder.CBOR;
+    };
+  }
+
+  // The configuration shared by the whole mapper family
+  static <M extends ObjectMapper, B extends MapperBuilder<M, B>> B configure(B builder) {
+    return builder
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
+        .addModule(new JavaTimeModule())
+        .serializationInclusion(Include.NON_NULL);
+  }
+
+  // Binary formats are not meant to be read by humans, so dates are written as compact numbers
+  // rather than ISO-8601 strings. Both forms are accepted when reading.
+  static <M extends ObjectMapper, B extends MapperBuilder<M, B>> FormatMapper binary(B builder) {
+    var mapper = configure(builder).enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    return new FormatMapper(
+        mapper, mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+  }
+
+  static RuntimeException toSerializationException(IOException exception) {
+    return exception instanceof JsonProcessingException
+        ? new IllegalArgumentException("JSON serialization error", exception)
+        : new UncheckedIOException(exception);
+  }
+
+  static RuntimeException toDeserializationException(IOException exception) {
+    return exception instanceof JsonProcessingException
+        ? new IllegalArgumentException("JSON deserialization error", exception)
+        : new UncheckedIOException(exception);
+  }
+
   static final ObjectMapper MAPPER;
+  static final ObjectWriter PLAIN_WRITER;
   static final ObjectWriter PRETTY_WRITER;
+  static final ObjectWriter ARRAY_WRITER;
+
+  static final FormatMapper JSON;
+  static final FormatMapper PRETTY_JSON;
 
   static {
-    MAPPER =
-        JsonMapper.builder()
-            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
-            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
-            .configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
-            .addModule(new JavaTimeModule())
-            .serializationInclusion(Include.NON_NULL)
-            .build();
+    MAPPER = configure(JsonMapper.builder()).build();
+
+    // The streams given to the writers belong to the callers, so they must not be closed
+    PLAIN_WRITER = MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
 
     PRETTY_WRITER =
-        MAPPER.writer(
-            new DefaultPrettyPrinter()
-                .withObjectIndenter(DefaultIndenter.SYSTEM_LINEFEED_INSTANCE)
-                .withArrayIndenter(DefaultIndenter.SYSTEM_LINEFEED_INSTANCE));
+        MAPPER
+            .writer(
+                new DefaultPrettyPrinter()
+                    .withObjectIndenter(DefaultIndenter.SYSTEM_LINEFEED_INSTANCE)
+                    .withArrayIndenter(DefaultIndenter.SYSTEM_LINEFEED_INSTANCE))
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    // Flushing after every element of a large array would hit the underlying stream every time
+    ARRAY_WRITER = PLAIN_WRITER.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    JSON = new FormatMapper(MAPPER, PLAIN_WRITER);
+    PRETTY_JSON = new FormatMapper(MAPPER, PRETTY_WRITER);
+  }
+
+  /**
+   * A mapper of the family, with its {@link ObjectWriter} cached per runtime class of the
+   * serialized objects and its {@link ObjectReader} cached per target type.
+   */
+  static final class FormatMapper {
+
+    final ObjectMapper mapper;
+    final ObjectWriter writer;
+    final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    FormatMapper(ObjectMapper mapper, ObjectWriter writer) {
+      this.mapper = mapper;
+      this.writer = writer;
+    }
+
+    ObjectWriter writerFor(@Nullable Object object) {
+      if (object == null) {
+        return writer;
+      }
+
+      var type = object.getClass();
+      var cachedWriter = writers.get(type);
+
+      // Plain lookup first, as computeIfAbsent may lock even when the writer is already cached
+      return cachedWriter == null ? writers.computeIfAbsent(type, writer::forType) : cachedWriter;
+    }
+
+    ObjectReader readerFor(Type type) {
+      var cachedReader = readers.get(type);
+
+      return cachedReader == null
+          ? readers.computeIfAbsent(
+              type,
+              ignored ->
+                  mapper
+                      .readerFor(mapper.constructType(type))
+                      .without(JsonParser.Feature.AUTO_CLOSE_SOURCE))
+          : cachedReader;
+    }
+  }
+
+  // Holders of the binary mappers, so that their optional modules are only loaded when used
+
+  static final class SmileHolder {
+
+    static final FormatMapper SMILE = binary(SmileMapper.builder());
+  }
+
+  static final class CborHolder {
+
+    static final FormatMapper CBOR = binary(CBORMapper.builder());
+  }
+
+  @FunctionalInterface
+  interface ParserFactory {
+
+    JsonParser createParser(ObjectReader reader) throws IOException;
+  }
+
+  /** Iterates over the elements of a JSON array, the parser being positioned inside the array. */
+  static final class JsonArrayIterator<T> implements Iterator<T> {
+
+    final JsonParser parser;
+    final ObjectReader reader;
+
+    // The token starting the next element, null when not read yet
+    JsonToken nextToken;
+
+    JsonArrayIterator(JsonParser parser, ObjectReader reader) {
+      this.parser = parser;
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (nextToken == null) {
+        try {
+          nextToken = parser.nextToken();
+        } catch (IOException e) {
+          throw toDeserializationException(e);
+        }
+      }
+
+      return nextToken != JsonToken.END_ARRAY;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      nextToken = null;
+
+      try {
+        return reader.readValue(parser);
+      } catch (IOException e) {
+        throw toDeserializationException(e);
+      }
+    }
   }
 }
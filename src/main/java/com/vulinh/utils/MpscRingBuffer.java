@@ -0,0 +1,320 @@
+package com.vulinh.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+
+/**
+ * A bounded, multi-producer single-consumer ring buffer of preallocated mutable slots, drained in
+ * batches by a dedicated consumer thread.
+ *
+ * <p>Publishing never allocates: a producer {@link #claim() claims} a sequence number with a CAS,
+ * fills the {@link #slotOf(long) slot} of the sequence and then {@link #publish(long) publishes}
+ * it, which the consumer uses to detect that the slot is ready. When the buffer is full, the
+ * producer either drops the event, which is counted and periodically reported, or waits for the
+ * consumer to free a slot. The consumer thread itself, publishing from {@link #handle(Object)},
+ * never waits, as it would wait for itself: its events are dropped when the buffer is full.
+ *
+ * @param <T> The type of the slots.
+ */
+public abstract class MpscRingBuffer<T> implements AutoCloseable {
+
+  static final Logger LOG = org.slf4j.LoggerFactory.getLogger(MpscRingBuffer.class);
+
+  static final int MAX_BATCH_SIZE = 256;
+
+  // The consumer is woken up by producers when it sleeps, this is only a safety net
+  static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  static final long DROP_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+  final int capacity;
+  final int mask;
+  final boolean isBlockingWhenFull;
+  final Thread.Builder consumerBuilder;
+  final String eventName;
+
+  final Object[] slots;
+  final AtomicLongArray publishedSequences;
+
+  final AtomicLong claimedSequence = new AtomicLong();
+  final AtomicLong consumedSequence = new AtomicLong();
+  final LongAdder droppedCount = new LongAdder();
+
+  volatile Thread consumer;
+  volatile boolean isConsumerParked;
+  volatile boolean isRunning = true;
+
+  // Only accessed by the consumer thread
+  long reportedDroppedCount;
+  long lastDropReportNanos = System.nanoTime();
+
+  /**
+   * Creates a buffer, whose consumer thread is started by the first published event.
+   *
+   * @param capacity the number of slots, rounded up to a power of two
+   * @param slotFactory creates the preallocated slots
+   * @param isBlockingWhenFull whether producers wait for a free slot rather than dropping
+   * @param consumerBuilder builds the consumer thread
+   * @param eventName the name of an event in the log messages, such as "timing record"
+   */
+  protected MpscRingBuffer(
+      int capacity,
+      Supplier<? extends T> slotFactory,
+      boolean isBlockingWhenFull,
+      Thread.Builder consumerBuilder,
+      String eventName) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Buffer capacity must be positive");
+    }
+
+    // Round up to a power of two, so that the slot of a sequence is a simple mask
+    this.capacity = capacity == 1 ? 1 : Integer.highestOneBit((capacity - 1) << 1);
+    mask = this.capacity - 1;
+    this.isBlockingWhenFull = isBlockingWhenFull;
+    this.consumerBuilder = consumerBuilder;
+    this.eventName = eventName;
+
+    slots = new Object[this.capacity];
+    publishedSequences = new AtomicLongArray(this.capacity);
+
+    for (var index = 0; index < this.capacity; index++) {
+      slots[index] = slotFactory.get();
+      publishedSequences.set(index, -1L);
+    }
+  }
+
+  /**
+   * Handles a published event on the consumer thread. A failure is logged, and does not stop the
+   * consumer.
+   *
+   * @param slot the slot of the event, which is reused once this method returns
+   */
+  protected abstract void handle(T slot);
+
+  /**
+   * Called on the consumer thread after every drained batch, including empty ones when the buffer
+   * runs empty.
+   *
+   * @param drainedCount the number of events of the batch
+   */
+  protected void afterBatch(int drainedCount) {
+    // Nothing to do by default
+  }
+
+  /** Called on the consumer thread once every event published before closing is handled. */
+  protected void afterClose() {
+    // Nothing to do by default
+  }
+
+  /**
+   * Claims the sequence number of a slot to publish an event into.
+   *
+   * @return the claimed sequence number, or -1 if the event was dropped because the buffer is full
+   *     or closed, or full when claiming from the consumer thread
+   */
+  protected final long claim() {
+    if (consumer == null) {
+      ensureStarted();
+    }
+
+    long sequence;
+
+    do {
+      if (!isRunning) {
+        droppedCount.increment();
+        return -1L;
+      }
+
+      sequence = claimedSequence.get();
+
+      if (sequence - consumedSequence.getAcquire() >= capacity) {
+        // The consumer cannot free a slot while waiting for one
+        if (!isBlockingWhenFull || Thread.currentThread() == consumer) {
+          droppedCount.increment();
+          return -1L;
+        }
+
+        wakeUpConsumer();
+        LockSupport.parkNanos(FULL_PARK_NANOS);
+        sequence = -1L;
+      }
+    } while (sequence < 0 || !claimedSequence.compareAndSet(sequence, sequence + 1));
+
+    return sequence;
+  }
+
+  /**
+   * Gets the slot of a claimed sequence number, to be filled before publishing it.
+   *
+   * @param sequence the claimed sequence number
+   * @return the slot
+   */
+  @SuppressWarnings("unchecked")
+  protected final T slotOf(long sequence) {
+    return (T) slots[(int) sequence & mask];
+  }
+
+  /**
+   * Publishes the filled slot of a claimed sequence number to the consumer thread.
+   *
+   * @param sequence the claimed sequence number
+   */
+  protected final void publish(long sequence) {
+    publishedSequences.setRelease((int) sequence & mask, sequence);
+
+    if (isConsumerParked) {
+      wakeUpConsumer();
+    }
+  }
+
+  /**
+   * Gets the number of slots, the requested capacity rounded up to a power of two.
+   *
+   * @return the number of slots
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the number of events dropped because the buffer was full or closed.
+   *
+   * @return the number of dropped events since the buffer was created
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  void ensureStarted() {
+    synchronized (this) {
+      if (consumer == null) {
+        consumer = consumerBuilder.start(this::consume);
+      }
+    }
+  }
+
+  void consume() {
+    while (true) {
+      // Read the flag before draining, so that the events published before closing are drained
+      var isStillRunning = isRunning;
+      var drainedCount = drainBatch();
+
+      if (drainedCount == 0 && !isStillRunning) {
+        try {
+          afterClose();
+        } catch (RuntimeException exception) {
+          LOG.warn("Failed to complete the {}s after closing", eventName, exception);
+        }
+
+        reportDroppedEvents();
+        return;
+      }
+
+      // At most one warning per interval, even when events keep being dropped
+      if (System.nanoTime() - lastDropReportNanos >= DROP_REPORT_INTERVAL_NANOS) {
+        reportDroppedEvents();
+      }
+
+      if (drainedCount == 0) {
+        isConsumerParked = true;
+
+        // Re-check after raising the flag, as a producer may have published in between
+        if (!isSlotPublished(consumedSequence.get())) {
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+
+        isConsumerParked = false;
+      }
+    }
+  }
+
+  int drainBatch() {
+    var sequence = consumedSequence.get();
+    var drainedCount = 0;
+
+    try {
+      while (drainedCount < MAX_BATCH_SIZE && isSlotPublished(sequence)) {
+        try {
+          handle(slotOf(sequence));
+        } catch (RuntimeException exception) {
+          // A failing event must not kill the consumer thread
+          LOG.warn("Failed to handle a {}", eventName, exception);
+        }
+
+        sequence++;
+        drainedCount++;
+      }
+    } finally {
+      consumedSequence.setRelease(sequence);
+    }
+
+    try {
+      afterBatch(drainedCount);
+    } catch (RuntimeException exception) {
+      LOG.warn("Failed to complete a batch of {}s", eventName, exception);
+    }
+
+    return drainedCount;
+  }
+
+  boolean isSlotPublished(long sequence) {
+    return publishedSequences.getAcquire((int) sequence & mask) == sequence;
+  }
+
+  void reportDroppedEvents() {
+    var currentDroppedCount = droppedCount.sum();
+
+    lastDropReportNanos = System.nanoTime();
+
+    if (currentDroppedCount != reportedDroppedCount) {
+      LOG.warn(
+          "{} {}(s) dropped because the buffer of {} slots was full ({} in total)",
+          currentDroppedCount - reportedDroppedCount,
+          eventName,
+          capacity,
+          currentDroppedCount);
+
+      reportedDroppedCount = currentDroppedCount;
+    }
+  }
+
+  void wakeUpConsumer() {
+    var thread = consumer;
+
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Stops accepting events, and waits for the consumer thread to handle the published ones.
+   * Further events are dropped.
+   */
+  @Override
+  public void close() {
+    isRunning = false;
+
+    var thread = consumer;
+
+    if (thread == null) {
+      return;
+    }
+
+    LockSupport.unpark(thread);
+
+    try {
+      thread.join(CLOSE_TIMEOUT_MILLIS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
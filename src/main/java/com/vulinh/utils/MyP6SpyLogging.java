@@ -2,11 +2,11 @@ package com.vulinh.utils;
 
 import com.p6spy.engine.logging.Category;
 import com.p6spy.engine.spy.appender.Slf4JLogger;
-import java.util.Arrays;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
+import org.springframework.lang.Nullable;
 
 /**
  * Add those lines to your application properties file (properties, YAML, etc...) to enable this
@@ -15,26 +15,101 @@ import org.slf4j.Logger;
  * <p><code>
  * <pre>decorator.datasource.p6spy.logging: CUSTOM<br />decorator.datasource.p6spy.custom-appender-class: com.vulinh.utils.MyP6SpyLogging</pre>
  * </code>
+ *
+ * <p>The JDBC threads only publish their SQL events into a preallocated ring buffer, which a
+ * background writer thread drains, so logging a statement neither allocates nor waits for the log
+ * appenders. When the buffer is full, events are dropped and periodically reported.
+ *
+ * <p>The writer thread logs the individual statements at info level, with the statements of a JDBC
+ * batch summarized in a single line. It also aggregates the executions per statement fingerprint,
+ * with literals stripped and {@code IN} lists collapsed, and logs a report of the top statements by
+ * total time and by count every minute at info level. The slow statements and the activity of
+ * every connection are available from {@link SqlMonitor}.
+ *
+ * <p>The executed statements are also counted by the {@link NPlusOneDetector} scope open on the
+ * executing thread, if any.
  */
 public class MyP6SpyLogging extends Slf4JLogger {
 
   private static final Logger LOG = org.slf4j.LoggerFactory.getLogger(MyP6SpyLogging.class);
 
+  static final int DEFAULT_BUFFER_CAPACITY = 8192;
+
   enum LogCategory {
-    ERROR,
-    WARN,
-    INFO,
-    DEBUG,
-    BATCH,
-    STATEMENT,
-    RESULTSET,
-    COMMIT,
-    ROLLBACK,
-    RESULT,
-    OUTAGE;
-
-    static final Set<String> SETS =
-        Arrays.stream(LogCategory.values()).map(Enum::name).collect(Collectors.toSet());
+    ERROR(Category.ERROR),
+    WARN(Category.WARN),
+    INFO(Category.INFO),
+    DEBUG(Category.DEBUG),
+    BATCH(Category.BATCH),
+    STATEMENT(Category.STATEMENT),
+    RESULTSET(Category.RESULTSET),
+    COMMIT(Category.COMMIT),
+    ROLLBACK(Category.ROLLBACK),
+    RESULT(Category.RESULT),
+    OUTAGE(Category.OUTAGE);
+
+    // p6spy only ever logs its own constants, so the lookup is by identity
+    static final Map<Category, LogCategory> BY_CATEGORY = new IdentityHashMap<>();
+
+    static {
+      for (var logCategory : values()) {
+        BY_CATEGORY.put(logCategory.category, logCategory);
+      }
+    }
+
+    final Category category;
+
+    LogCategory(Category category) {
+      this.category = category;
+    }
+
+    @Nullable
+    static LogCategory of(Category category) {
+      var logCategory = BY_CATEGORY.get(category);
+
+      if (logCategory != null) {
+        return logCategory;
+      }
+
+      // Categories created by other code, compared without allocating an upper-cased copy
+      for (var candidate : values()) {
+        if (candidate.name().equalsIgnoreCase(category.getName())) {
+          return candidate;
+        }
+      }
+
+      return null;
+    }
+  }
+
+  // p6spy may create several appenders, which share a single buffer and writer thread
+  static final class SharedBuffer {
+
+    static final SqlLogRingBuffer INSTANCE = create();
+
+    static SqlLogRingBuffer create() {
+      var buffer =
+          new SqlLogRingBuffer(DEFAULT_BUFFER_CAPACITY, new SqlLogWriter(SqlLogOutput.of(LOG)));
+
+      // The writer thread is a daemon, so the remaining events are drained when the JVM stops
+      Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().unstarted(buffer::close));
+
+      return buffer;
+    }
+  }
+
+  final SqlLogRingBuffer buffer;
+
+  public MyP6SpyLogging() {
+    this(SharedBuffer.INSTANCE);
+  }
+
+  MyP6SpyLogging(int bufferCapacity, SqlLogWriter writer) {
+    this(new SqlLogRingBuffer(bufferCapacity, writer));
+  }
+
+  MyP6SpyLogging(SqlLogRingBuffer buffer) {
+    this.buffer = buffer;
   }
 
   @Override
@@ -46,34 +121,24 @@ public class MyP6SpyLogging extends Slf4JLogger {
       String prepared,
       String sql,
       String url) {
-    if (!LOG.isInfoEnabled()) {
-      // Do nothing when log level info is not configured
-      return;
+    // On the executing thread, as the N+1 detection scope is bound to it
+    if (category == Category.STATEMENT) {
+      NPlusOneDetector.record(prepared, sql, elapsed);
     }
 
-    var categoryName = category.getName().toUpperCase();
+    var logCategory = LogCategory.of(category);
 
-    if (StringUtils.isBlank(sql)) {
-      if (LogCategory.SETS.contains(categoryName)) {
-        var message =
-            switch (LogCategory.valueOf(categoryName)) {
-              case COMMIT -> "Transaction committed";
-              case ROLLBACK -> "Transaction rolled back";
-              case BATCH -> "Batch executed";
-              case OUTAGE -> "Connection outage occurred";
-              default -> "...";
-            };
-
-        LOG.info("#{} [ {} ] - {}", connectionId, categoryName, message);
-
-        return;
+    if (logCategory == null && StringUtils.isBlank(sql)) {
+      // Do nothing when log level info is not configured
+      if (LOG.isInfoEnabled()) {
+        super.logSQL(connectionId, time, elapsed, category, prepared, sql, url);
       }
 
-      super.logSQL(connectionId, time, elapsed, category, prepared, sql, url);
-
       return;
     }
 
-    LOG.info(sql);
+    // Whatever the log level, as the statistics and the SqlMonitor do not depend on logging, the
+    // writer thread only logs what the level allows
+    buffer.publish(connectionId, elapsed, logCategory, prepared, sql);
   }
 }
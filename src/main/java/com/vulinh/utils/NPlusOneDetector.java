@@ -0,0 +1,309 @@
+package com.vulinh.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.springframework.lang.Nullable;
+
+/**
+ * Detects N+1 query patterns, typically lazy-loaded associations of entities fetched one by one in
+ * a loop: within a scope, such as a request or an {@link com.vulinh.annotation.ExecutionTime}
+ * invocation, the executions of every SQL statement are counted, and the scope is flagged when it
+ * executes the same {@code SELECT} (by {@link SqlFingerprint}) more than a threshold number of
+ * times. The selects in parentheses or after common table expressions are recognized as well.
+ *
+ * <p>The statements are reported by {@link MyP6SpyLogging}, which must be the p6spy appender. A
+ * scope is bound to the current thread:
+ *
+ * <pre>{@code
+ * try (var scope = NPlusOneDetector.open("GET /posts")) {
+ *   // ...
+ * }
+ * }</pre>
+ *
+ * <p>The violations are logged as warnings when the scope is closed, and are available with {@link
+ * Scope#getViolations()}, so that tests can assert that none occurred. Scopes opened while another
+ * one is already open on the same thread join the outermost one, which is the only one reporting.
+ *
+ * <p>Counting a statement is a single map update on the executing thread, and nothing is done at
+ * all outside a scope, so scopes can be sampled in production, see {@link
+ * com.vulinh.aspect.ExecutionTimeAspect}.
+ */
+public final class NPlusOneDetector {
+
+  private static final Logger LOG = org.slf4j.LoggerFactory.getLogger(NPlusOneDetector.class);
+
+  /** The default maximal number of executions of the same {@code SELECT} within a scope. */
+  public static final int DEFAULT_THRESHOLD = 10;
+
+  static final ThreadLocal<Scope> CURRENT_SCOPE = new ThreadLocal<>();
+
+  // Bounds the memory used by long scopes executing statements with inlined values: past it, the
+  // statements are counted by fingerprint, which takes up to as many entries again
+  static final int MAX_STATEMENT_COUNT = 1_000;
+
+  static final Comparator<Violation> BY_COUNT =
+      Comparator.comparingInt(Violation::count).reversed();
+
+  private NPlusOneDetector() {}
+
+  /**
+   * A statement executed too many times within a scope.
+   *
+   * @param scope the name of the scope
+   * @param fingerprint the fingerprint of the statement
+   * @param count the number of executions within the scope
+   * @param totalElapsedMillis the total elapsed time of those executions
+   */
+  public record Violation(String scope, String fingerprint, int count, long totalElapsedMillis) {}
+
+  /**
+   * Opens a scope on the current thread with the {@link #DEFAULT_THRESHOLD default threshold}.
+   *
+   * @param name the name of the scope, reported with its violations
+   * @return the scope, to be closed on the same thread
+   */
+  public static Scope open(String name) {
+    return open(name, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Opens a scope on the current thread, or joins the scope already open on it.
+   *
+   * @param name the name of the scope, reported with its violations
+   * @param threshold the maximal number of executions of the same {@code SELECT} within the scope
+   * @return the scope, to be closed on the same thread
+   */
+  public static Scope open(String name, int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("Threshold must be positive");
+    }
+
+    var currentScope = CURRENT_SCOPE.get();
+
+    if (currentScope != null) {
+      return new Scope(currentScope);
+    }
+
+    var scope = new Scope(name, threshold);
+
+    CURRENT_SCOPE.set(scope);
+
+    return scope;
+  }
+
+  /**
+   * Tells whether a scope is open on the current thread.
+   *
+   * @return {@code true} if the statements of the current thread are counted
+   */
+  public static boolean isActive() {
+    return CURRENT_SCOPE.get() != null;
+  }
+
+  // Called on the thread executing the statement
+  static void record(@Nullable String prepared, @Nullable String sql, long elapsedMillis) {
+    var scope = CURRENT_SCOPE.get();
+
+    if (scope == null) {
+      return;
+    }
+
+    // The statement with placeholders is the same instance for every execution
+    var statement = StringUtils.isBlank(prepared) ? sql : prepared;
+
+    if (StringUtils.isNotBlank(statement)) {
+      scope.record(statement, elapsedMillis);
+    }
+  }
+
+  /** A scope of {@link NPlusOneDetector}, bound to the thread that opened it. */
+  public static final class Scope implements AutoCloseable {
+
+    final String name;
+    final int threshold;
+
+    // Null for the joining scopes, which share the counters of the outermost one
+    @Nullable final Map<String, Counter> counters;
+
+    List<Violation> violations = List.of();
+    boolean isClosed;
+
+    Scope(String name, int threshold) {
+      this.name = name;
+      this.threshold = threshold;
+      counters = new HashMap<>();
+    }
+
+    Scope(Scope outermostScope) {
+      name = outermostScope.name;
+      threshold = outermostScope.threshold;
+      counters = null;
+    }
+
+    static final class Counter {
+
+      int count;
+      long elapsedMillis;
+    }
+
+    void record(String statement, long elapsedMillis) {
+      var counter = counters.get(statement);
+
+      if (counter == null) {
+        var key = statement;
+
+        if (counters.size() >= MAX_STATEMENT_COUNT) {
+          key = SqlFingerprint.of(statement);
+          counter = counters.get(key);
+        }
+
+        if (counter == null) {
+          // Past both bounds, the statements of new fingerprints are not counted
+          if (counters.size() >= 2 * MAX_STATEMENT_COUNT) {
+            return;
+          }
+
+          counter = new Counter();
+          counters.put(key, counter);
+        }
+      }
+
+      counter.count++;
+      counter.elapsedMillis += elapsedMillis;
+    }
+
+    /**
+     * Gets the name of the scope, which is the name of the outermost scope for a joining one.
+     *
+     * @return the name of the scope
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Gets the statements executed too many times within the scope, most executed first. Always
+     * empty before the scope is closed, and for the scopes that joined an outer one.
+     *
+     * @return the violations of the scope
+     */
+    public List<Violation> getViolations() {
+      return violations;
+    }
+
+    /** Closes the scope, and logs its violations if it is the outermost one. */
+    @Override
+    public void close() {
+      if (isClosed || counters == null) {
+        isClosed = true;
+        return;
+      }
+
+      isClosed = true;
+      CURRENT_SCOPE.remove();
+      violations = detectViolations();
+
+      for (var violation : violations) {
+        LOG.warn(
+            "Possible N+1 queries in {}: {} executions taking {} ms of {}",
+            violation.scope(),
+            violation.count(),
+            violation.totalElapsedMillis(),
+            violation.fingerprint());
+      }
+    }
+
+    List<Violation> detectViolations() {
+      // Statements without placeholders differ by their values, so they are grouped by fingerprint
+      var byFingerprint = new HashMap<String, Counter>();
+
+      for (var entry : counters.entrySet()) {
+        var fingerprint = SqlFingerprint.of(entry.getKey());
+
+        if (!isSelect(fingerprint)) {
+          continue;
+        }
+
+        var total = byFingerprint.computeIfAbsent(fingerprint, ignored -> new Counter());
+
+        total.count += entry.getValue().count;
+        total.elapsedMillis += entry.getValue().elapsedMillis;
+      }
+
+      var detectedViolations = new ArrayList<Violation>();
+
+      for (var entry : byFingerprint.entrySet()) {
+        if (entry.getValue().count > threshold) {
+          detectedViolations.add(
+              new Violation(
+                  name, entry.getKey(), entry.getValue().count, entry.getValue().elapsedMillis));
+        }
+      }
+
+      detectedViolations.sort(BY_COUNT);
+
+      return List.copyOf(detectedViolations);
+    }
+
+    // Also recognizes the selects in parentheses, and the ones after common table expressions
+    static boolean isSelect(String fingerprint) {
+      var index = skipOpeningParentheses(fingerprint, 0);
+
+      if (isKeywordAt(fingerprint, index, "with")) {
+        index =
+            skipOpeningParentheses(
+                fingerprint, skipCommonTableExpressions(fingerprint, index + "with".length()));
+      }
+
+      return isKeywordAt(fingerprint, index, "select");
+    }
+
+    static int skipOpeningParentheses(String fingerprint, int index) {
+      while (index < fingerprint.length()
+          && (fingerprint.charAt(index) == '(' || fingerprint.charAt(index) == ' ')) {
+        index++;
+      }
+
+      return index;
+    }
+
+    // Returns the index of the statement following the expressions of a WITH clause
+    static int skipCommonTableExpressions(String fingerprint, int index) {
+      var depth = 0;
+
+      while (index < fingerprint.length()) {
+        var character = fingerprint.charAt(index++);
+
+        if (character == '(') {
+          depth++;
+        } else if (character == ')' && --depth == 0) {
+          while (index < fingerprint.length() && fingerprint.charAt(index) == ' ') {
+            index++;
+          }
+
+          // Unless another expression, or the AS following a list of columns, follows
+          if (!isKeywordAt(fingerprint, index, "as")
+              && !isKeywordAt(fingerprint, index, "not")
+              && !isKeywordAt(fingerprint, index, "materialized")
+              && !fingerprint.startsWith(",", index)) {
+            return index;
+          }
+        }
+      }
+
+      return index;
+    }
+
+    static boolean isKeywordAt(String fingerprint, int index, String keyword) {
+      var end = index + keyword.length();
+
+      return fingerprint.startsWith(keyword, index)
+          && (end == fingerprint.length() || !Character.isLetterOrDigit(fingerprint.charAt(end)));
+    }
+  }
+}
@@ -5,6 +5,10 @@ import com.querydsl.core.types.*;
 import com.querydsl.core.types.Path;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.function.BiFunction;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -20,6 +24,18 @@ public class PredicateBuilder {
   /** The escape character used in LIKE expressions to escape special characters. */
   static final char ESCAPE = '\\';
 
+  static final Predicate ALWAYS = always();
+  static final Predicate NEVER = never();
+
+  // Sorts the operands of normalized junctions by their structure, so that their order, and with it
+  // the JPQL, does not depend on the bound values, which only break the ties
+  static final Comparator<Predicate> CANONICAL_ORDER =
+      Comparator.<Predicate, String>comparing(PredicateBuilder::structureOf)
+          .thenComparing(Object::toString);
+
+  static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  static final long FNV_PRIME = 0x100000001b3L;
+
   /**
    * A conjunction.
    *
@@ -86,6 +102,308 @@ public class PredicateBuilder {
     return combinePredicates(BooleanBuilder::or, firstPredicate, predicates);
   }
 
+  /**
+   * Creates the seek predicate of keyset pagination, matching the rows that come after the row
+   * having the given key values in the given order. For the orders {@code (a, b)}, this is {@code a
+   * > ? or (a = ? and b > ?)}, the comparisons following the direction and the null handling of
+   * every order.
+   *
+   * <p>The last order must make the ordering total, typically by being the identifier, otherwise
+   * the rows sharing the same key values are skipped.
+   *
+   * <p>Where the database places the nulls of an order without explicit null handling is unknown,
+   * so such an order only matches the non-null values coming after the given one: the rows whose
+   * key is null are never matched. The orders of nullable paths must therefore have an explicit
+   * null handling, such as the orders built by {@link DslOrderBuilder}.
+   *
+   * @param orders the non-empty orders of the query
+   * @param values the key values of the last row of the previous window, one per order
+   * @return the seek predicate
+   * @throws IllegalArgumentException if the values do not match the orders, or if a value is null
+   *     while its order has no explicit null handling
+   */
+  @NonNull
+  public static Predicate seekAfter(
+      @NonNull List<? extends OrderSpecifier<?>> orders, @NonNull List<?> values) {
+    if (orders.isEmpty() || orders.size() != values.size()) {
+      throw new IllegalArgumentException("Seek values must match the orders");
+    }
+
+    var alternatives = new ArrayList<Predicate>(orders.size());
+    var equalities = new ArrayList<Predicate>(orders.size());
+
+    for (var index = 0; index < orders.size(); index++) {
+      var order = orders.get(index);
+      var value = values.get(index);
+      var after = after(order, value);
+
+      if (after != null) {
+        var conditions = new ArrayList<>(equalities);
+
+        conditions.add(after);
+        alternatives.add(ExpressionUtils.allOf(conditions));
+      }
+
+      var target = order.getTarget();
+
+      equalities.add(
+          value == null
+              ? ExpressionUtils.predicate(Ops.IS_NULL, target)
+              : ExpressionUtils.predicate(Ops.EQ, target, Expressions.constant(value)));
+    }
+
+    return alternatives.isEmpty() ? never() : ExpressionUtils.anyOf(alternatives);
+  }
+
+  // The condition of the rows coming strictly after the value in the order, null if there are none
+  @Nullable
+  static Predicate after(OrderSpecifier<?> order, @Nullable Object value) {
+    var target = order.getTarget();
+    var nullHandling = order.getNullHandling();
+
+    if (value == null) {
+      return switch (nullHandling) {
+        case NullsFirst -> ExpressionUtils.predicate(Ops.IS_NOT_NULL, target);
+        case NullsLast -> null;
+        case Default ->
+            throw new IllegalArgumentException(
+                "Cannot seek after a null value without explicit null handling");
+      };
+    }
+
+    // Without explicit null handling, the nulls are assumed to be absent
+    var comparison =
+        ExpressionUtils.predicate(
+            order.isAscending() ? Ops.GT : Ops.LT, target, Expressions.constant(value));
+
+    // The nulls placed last come after every value
+    return nullHandling == OrderSpecifier.NullHandling.NullsLast
+        ? ExpressionUtils.or(comparison, ExpressionUtils.predicate(Ops.IS_NULL, target))
+        : comparison;
+  }
+
+  /**
+   * Normalizes a predicate into a canonical form, so that semantically identical criteria produce
+   * equal predicates, with equal hash codes, and the same JPQL. The normalized predicate selects
+   * the same rows as a filter, under the three-valued logic of SQL, where a comparison with a null
+   * column is unknown:
+   *
+   * <ul>
+   *   <li>{@link BooleanBuilder} wrappers are removed, and a null or empty predicate is {@link
+   *       #always()}
+   *   <li>nested conjunctions and disjunctions are flattened
+   *   <li>the {@link #always()} operands of a conjunction and the {@link #never()} operands of a
+   *       disjunction are removed, as are duplicated operands
+   *   <li>a conjunction with a {@link #never()} operand is {@link #never()}, and a disjunction
+   *       with an {@link #always()} operand is {@link #always()}
+   *   <li>a conjunction with both an operand and its negation is {@link #never()}, unless it is
+   *       negated: it is unknown rather than false when the operand is unknown, which a filter only
+   *       treats as false outside of a negation. For the same reason, a disjunction with both an
+   *       operand and its negation is kept, as it is not true when the operand is unknown
+   *   <li>double negations are removed
+   *   <li>the operands of conjunctions and disjunctions are sorted by their structure: their
+   *       operators, paths and constant types, then by their constant values if they have the same
+   *       structure
+   * </ul>
+   *
+   * @param predicate the predicate to normalize
+   * @return the normalized predicate
+   */
+  @NonNull
+  public static Predicate normalize(@Nullable Predicate predicate) {
+    return normalize(predicate, false);
+  }
+
+  // A negated predicate is under an odd number of negations, where unknown is not like false
+  static Predicate normalize(@Nullable Predicate predicate, boolean isNegated) {
+    if (predicate instanceof BooleanBuilder builder) {
+      predicate = builder.getValue();
+    }
+
+    if (predicate == null) {
+      return always();
+    }
+
+    if (!(predicate instanceof Operation<?> operation)) {
+      return predicate;
+    }
+
+    var operator = operation.getOperator();
+
+    if (operator == Ops.AND || operator == Ops.OR) {
+      return normalizeJunction(operator == Ops.AND, operation, isNegated);
+    }
+
+    if (operator == Ops.NOT) {
+      return negate(normalize((Predicate) operation.getArg(0), !isNegated));
+    }
+
+    return predicate;
+  }
+
+  /**
+   * Tells whether two predicates are semantically identical, as far as {@link
+   * #normalize(Predicate)} can tell.
+   *
+   * @param predicate the first predicate
+   * @param otherPredicate the second predicate
+   * @return {@code true} if both predicates have the same normalized form
+   */
+  public static boolean isEquivalent(
+      @Nullable Predicate predicate, @Nullable Predicate otherPredicate) {
+    return normalize(predicate).equals(normalize(otherPredicate));
+  }
+
+  /**
+   * Computes a hash of the normalized form of a predicate that is stable across JVMs, unlike its
+   * {@link Object#hashCode()}, such as for a shared cache key, as long as the string forms of its
+   * constants are: strings, numbers, dates and enums are, but entities and arrays are usually not.
+   * Different predicates may have the same hash.
+   *
+   * @param predicate the predicate to hash
+   * @return the 64-bit FNV-1a hash of the string form of the normalized predicate
+   */
+  public static long stableHash(@Nullable Predicate predicate) {
+    var string = normalize(predicate).toString();
+    var hash = FNV_OFFSET_BASIS;
+
+    for (var index = 0; index < string.length(); index++) {
+      hash ^= string.charAt(index);
+      hash *= FNV_PRIME;
+    }
+
+    return hash;
+  }
+
+  static Predicate normalizeJunction(
+      boolean isConjunction, Operation<?> operation, boolean isNegated) {
+    var identity = isConjunction ? ALWAYS : NEVER;
+    var absorbing = isConjunction ? NEVER : ALWAYS;
+    var operands = new ArrayList<Predicate>();
+
+    collectOperands(operation.getOperator(), operation, isNegated, operands);
+
+    var distinctOperands = new LinkedHashSet<Predicate>(operands.size());
+
+    for (var operand : operands) {
+      if (operand.equals(absorbing)) {
+        return absorbing;
+      }
+
+      if (!operand.equals(identity)) {
+        distinctOperands.add(operand);
+      }
+    }
+
+    // x && !x is unknown rather than false when x is unknown, which only a filter ignores
+    if (isConjunction && !isNegated) {
+      for (var operand : distinctOperands) {
+        if (distinctOperands.contains(negate(operand))) {
+          return NEVER;
+        }
+      }
+    }
+
+    var sortedOperands = new ArrayList<>(distinctOperands);
+
+    sortedOperands.sort(CANONICAL_ORDER);
+
+    return switch (sortedOperands.size()) {
+      case 0 -> identity;
+      case 1 -> sortedOperands.get(0);
+      default ->
+          isConjunction
+              ? ExpressionUtils.allOf(sortedOperands)
+              : ExpressionUtils.anyOf(sortedOperands);
+    };
+  }
+
+  // Normalizes the operands of a junction, flattening the nested junctions of the same operator
+  static void collectOperands(
+      Operator operator, Operation<?> operation, boolean isNegated, List<Predicate> operands) {
+    for (var arg : operation.getArgs()) {
+      var operand = normalize((Predicate) arg, isNegated);
+
+      if (isJunction(operator, operand)) {
+        flatten(operator, (Operation<?>) operand, operands);
+      } else {
+        operands.add(operand);
+      }
+    }
+  }
+
+  // Flattens a normalized junction, whose operands are already normalized
+  static void flatten(Operator operator, Operation<?> operation, List<Predicate> operands) {
+    for (var arg : operation.getArgs()) {
+      if (isJunction(operator, arg)) {
+        flatten(operator, (Operation<?>) arg, operands);
+      } else {
+        operands.add((Predicate) arg);
+      }
+    }
+  }
+
+  static boolean isJunction(Operator operator, Expression<?> expression) {
+    return expression instanceof Operation<?> operation && operation.getOperator() == operator;
+  }
+
+  static String structureOf(Expression<?> expression) {
+    var builder = new StringBuilder();
+
+    appendStructure(expression, builder);
+
+    return builder.toString();
+  }
+
+  // Appends an expression without the values of its constants, only their types
+  static void appendStructure(Expression<?> expression, StringBuilder builder) {
+    if (expression instanceof Constant<?> constant) {
+      builder.append('?').append(constant.getType().getName());
+    } else if (expression instanceof Path<?> path) {
+      builder.append(path);
+    } else if (expression instanceof Operation<?> operation) {
+      appendStructure(operation.getOperator().name(), operation.getArgs(), builder);
+    } else if (expression instanceof TemplateExpression<?> template) {
+      appendStructure(template.getTemplate().toString(), template.getArgs(), builder);
+    } else {
+      // Parameters, subqueries and projections, whose order rarely matters
+      builder.append(expression.getClass().getName()).append(':').append(expression.getType());
+    }
+  }
+
+  static void appendStructure(String name, List<?> args, StringBuilder builder) {
+    builder.append(name).append('(');
+
+    for (var index = 0; index < args.size(); index++) {
+      if (index > 0) {
+        builder.append(", ");
+      }
+
+      if (args.get(index) instanceof Expression<?> arg) {
+        appendStructure(arg, builder);
+      } else {
+        builder.append('?').append(args.get(index).getClass().getName());
+      }
+    }
+
+    builder.append(')');
+  }
+
+  // Negates a normalized predicate
+  static Predicate negate(Predicate predicate) {
+    if (predicate.equals(ALWAYS)) {
+      return NEVER;
+    }
+
+    if (predicate.equals(NEVER)) {
+      return ALWAYS;
+    }
+
+    return predicate instanceof Operation<?> operation && operation.getOperator() == Ops.NOT
+        ? (Predicate) operation.getArg(0)
+        : ExpressionUtils.predicate(Ops.NOT, predicate);
+  }
+
   /**
    * Gets the field name from a QueryDSL Path expression.
    *
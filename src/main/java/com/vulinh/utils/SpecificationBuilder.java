@@ -1,8 +1,14 @@
 package com.vulinh.utils;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import jakarta.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.function.BinaryOperator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.jpa.domain.Specification;
@@ -13,18 +19,26 @@ import org.springframework.lang.Nullable;
 /** A utility class for building JPA Specifications. */
 public class SpecificationBuilder {
 
+  // Shared instances, so that and() and or() recognize them as identity or absorbing elements
+  static final Specification<?> ALWAYS =
+      (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.conjunction();
+  static final Specification<?> NEVER =
+      (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.disjunction();
+
   private SpecificationBuilder() {}
 
   // 1 = 1
   @NonNull
+  @SuppressWarnings("unchecked")
   public static <E> Specification<E> always() {
-    return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.conjunction();
+    return (Specification<E>) ALWAYS;
   }
 
   // 1 != 1
   @NonNull
+  @SuppressWarnings("unchecked")
   public static <E> Specification<E> never() {
-    return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.disjunction();
+    return (Specification<E>) NEVER;
   }
 
   // field = value
@@ -186,37 +200,63 @@ public class SpecificationBuilder {
     return likeSpecification == null ? null : Specification.not(likeSpecification);
   }
 
+  // Null specifications are ignored
   @SafeVarargs
   @NonNull
   public static <E> Specification<E> and(Specification<E>... specifications) {
-    return combineSpecifications(SpecificationOperation.AND, Specification::and, specifications);
+    return combineSpecifications(SpecificationOperation.AND, specifications);
   }
 
+  // Null specifications are ignored
   @SafeVarargs
   @NonNull
   public static <E> Specification<E> or(Specification<E>... specifications) {
-    return combineSpecifications(SpecificationOperation.OR, Specification::or, specifications);
+    return combineSpecifications(SpecificationOperation.OR, specifications);
   }
 
+  // Flattens the nested junctions of the same operation, drops the identity elements and the
+  // duplicates, and short-circuits to the absorbing element, so that no redundant 1 = 1 is rendered
   @SafeVarargs
   @NonNull
   static <E> Specification<E> combineSpecifications(
-      SpecificationOperation specificationOperation,
-      BinaryOperator<Specification<E>> combiner,
-      Specification<E>... specifications) {
+      SpecificationOperation specificationOperation, Specification<E>... specifications) {
     if (ArrayUtils.isEmpty(specifications)) {
       return SpecificationBuilder.always();
     }
 
-    var result = specificationOperation.<E>getFirstChainSpecification();
+    var identity = specificationOperation.<E>getIdentity();
+    var absorbingElement = specificationOperation.<E>getAbsorbingElement();
+    var operands = new LinkedHashSet<Specification<E>>();
 
     for (var specification : specifications) {
-      if (specification != null) {
-        result = combiner.apply(result, specification);
+      if (specification == null || specification == identity) {
+        continue;
+      }
+
+      if (specification == absorbingElement) {
+        return absorbingElement;
+      }
+
+      // Its operands are already folded
+      if (specification instanceof Junction<E> junction
+          && junction.operation == specificationOperation) {
+        operands.addAll(junction.operands);
+      } else {
+        operands.add(specification);
       }
     }
 
-    return result;
+    if (operands.isEmpty()) {
+      return identity;
+    }
+
+    // A lone operand of a disjunction stays wrapped, so that it still matches nothing when it
+    // renders no predicate, as when it was chained to never()
+    if (operands.size() == 1 && specificationOperation == SpecificationOperation.AND) {
+      return operands.iterator().next();
+    }
+
+    return new Junction<>(specificationOperation, List.copyOf(operands));
   }
 
   private static boolean isEmpty(Collection<?> collection) {
@@ -224,18 +264,63 @@ public class SpecificationBuilder {
   }
 
   public enum SpecificationOperation {
-    AND(SpecificationBuilder.always()),
-    OR(SpecificationBuilder.never());
+    AND(SpecificationBuilder.always(), SpecificationBuilder.never()),
+    OR(SpecificationBuilder.never(), SpecificationBuilder.always());
 
-    final Specification<?> firstChainSpecification;
+    final Specification<?> identity;
+    final Specification<?> absorbingElement;
 
-    SpecificationOperation(Specification<?> firstChainSpecification) {
-      this.firstChainSpecification = firstChainSpecification;
+    SpecificationOperation(Specification<?> identity, Specification<?> absorbingElement) {
+      this.identity = identity;
+      this.absorbingElement = absorbingElement;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Specification<T> getIdentity() {
+      return (Specification<T>) identity;
     }
 
     @SuppressWarnings("unchecked")
-    <T> Specification<T> getFirstChainSpecification() {
-      return (Specification<T>) firstChainSpecification;
+    <T> Specification<T> getAbsorbingElement() {
+      return (Specification<T>) absorbingElement;
+    }
+  }
+
+  // A flat conjunction or disjunction of folded operands, rendered as a single predicate
+  record Junction<E>(SpecificationOperation operation, List<Specification<E>> operands)
+      implements Specification<E> {
+
+    @Override
+    public Predicate toPredicate(
+        @NonNull Root<E> root,
+        @Nullable CriteriaQuery<?> criteriaQuery,
+        @NonNull CriteriaBuilder criteriaBuilder) {
+      var predicates = new ArrayList<Predicate>(operands.size());
+
+      for (var operand : operands) {
+        var predicate = operand.toPredicate(root, criteriaQuery, criteriaBuilder);
+
+        // Like Specification.and() and Specification.or(), null predicates are ignored
+        if (predicate != null) {
+          predicates.add(predicate);
+        }
+      }
+
+      // Like their identity elements, an empty conjunction matches everything, while an empty
+      // disjunction matches nothing
+      if (predicates.isEmpty()) {
+        return operation == SpecificationOperation.AND ? null : criteriaBuilder.disjunction();
+      }
+
+      if (predicates.size() == 1) {
+        return predicates.get(0);
+      }
+
+      var predicateArray = predicates.toArray(Predicate[]::new);
+
+      return operation == SpecificationOperation.AND
+          ? criteriaBuilder.and(predicateArray)
+          : criteriaBuilder.or(predicateArray);
     }
   }
 }
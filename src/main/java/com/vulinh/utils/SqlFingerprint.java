@@ -0,0 +1,197 @@
+package com.vulinh.utils;
+
+/**
+ * Normalizes SQL statements into fingerprints, so that the executions of the same statement with
+ * different values are aggregated together, in the spirit of {@code pg_stat_statements}:
+ *
+ * <ul>
+ *   <li>string and numeric literals are replaced by {@code ?}
+ *   <li>{@code IN} lists of placeholders are collapsed into {@code in (...)}, whatever their size
+ *   <li>comments are removed, whitespaces are collapsed and unquoted words are lower-cased
+ * </ul>
+ *
+ * <p>The statement is scanned once, without regular expressions.
+ */
+final class SqlFingerprint {
+
+  static final String COLLAPSED_LIST = "(...)";
+
+  private SqlFingerprint() {}
+
+  static String of(String sql) {
+    var length = sql.length();
+    var fingerprint = new StringBuilder(length);
+    var isSpacePending = false;
+
+    for (var index = 0; index < length; ) {
+      var character = sql.charAt(index);
+
+      if (Character.isWhitespace(character)) {
+        isSpacePending = true;
+        index++;
+        continue;
+      }
+
+      if (character == '-' && sql.startsWith("--", index)) {
+        isSpacePending = true;
+        index = skipLineComment(sql, index);
+        continue;
+      }
+
+      if (character == '/' && sql.startsWith("/*", index)) {
+        isSpacePending = true;
+        index = skipBlockComment(sql, index);
+        continue;
+      }
+
+      if (isSpacePending) {
+        appendSpace(fingerprint, character);
+        isSpacePending = false;
+      }
+
+      if (character == '\'') {
+        fingerprint.append('?');
+        index = skipQuoted(sql, index, '\'');
+      } else if (character == '"' || character == '`') {
+        // Quoted identifiers are case-sensitive, so they are kept as is
+        var end = skipQuoted(sql, index, character);
+        fingerprint.append(sql, index, end);
+        index = end;
+      } else if (isDigit(character) && !endsWithWord(fingerprint)) {
+        fingerprint.append('?');
+        index = skipNumber(sql, index);
+      } else if (character == ',') {
+        trimTrailingSpace(fingerprint);
+        fingerprint.append(", ");
+        index++;
+      } else if (character == ')') {
+        trimTrailingSpace(fingerprint);
+        fingerprint.append(')');
+        collapseInList(fingerprint);
+        index++;
+      } else {
+        fingerprint.append(Character.toLowerCase(character));
+        index++;
+      }
+    }
+
+    trimTrailingSpace(fingerprint);
+
+    return fingerprint.toString();
+  }
+
+  static void appendSpace(StringBuilder fingerprint, char next) {
+    if (fingerprint.isEmpty() || next == ',' || next == ')') {
+      return;
+    }
+
+    var last = fingerprint.charAt(fingerprint.length() - 1);
+
+    if (last != ' ' && last != '(') {
+      fingerprint.append(' ');
+    }
+  }
+
+  // Replaces a trailing "in (?, ?, ?)" by "in (...)"
+  static void collapseInList(StringBuilder fingerprint) {
+    var index = fingerprint.length() - 2;
+    var hasPlaceholder = false;
+
+    for (; index >= 0; index--) {
+      var character = fingerprint.charAt(index);
+
+      if (character == '?') {
+        hasPlaceholder = true;
+      } else if (character != ',' && character != ' ') {
+        break;
+      }
+    }
+
+    if (!hasPlaceholder || index < 0 || fingerprint.charAt(index) != '(') {
+      return;
+    }
+
+    var keywordEnd = index > 0 && fingerprint.charAt(index - 1) == ' ' ? index - 1 : index;
+
+    if (keywordEnd >= 2
+        && fingerprint.charAt(keywordEnd - 2) == 'i'
+        && fingerprint.charAt(keywordEnd - 1) == 'n'
+        && (keywordEnd == 2 || !isWordPart(fingerprint.charAt(keywordEnd - 3)))) {
+      fingerprint.setLength(index);
+      fingerprint.append(COLLAPSED_LIST);
+    }
+  }
+
+  static int skipQuoted(String sql, int start, char quote) {
+    var index = start + 1;
+
+    while (index < sql.length()) {
+      if (sql.charAt(index++) == quote) {
+        // A doubled quote is an escaped quote, not the end of the literal
+        if (index < sql.length() && sql.charAt(index) == quote) {
+          index++;
+        } else {
+          return index;
+        }
+      }
+    }
+
+    return index;
+  }
+
+  static int skipNumber(String sql, int start) {
+    var index = start;
+
+    while (index < sql.length()) {
+      var character = sql.charAt(index);
+
+      if (isDigit(character) || character == '.') {
+        index++;
+      } else if ((character == 'e' || character == 'E')
+          && index + 1 < sql.length()
+          && (isDigit(sql.charAt(index + 1))
+              || (sql.charAt(index + 1) == '-' || sql.charAt(index + 1) == '+')
+                  && index + 2 < sql.length()
+                  && isDigit(sql.charAt(index + 2)))) {
+        index += 2;
+      } else {
+        break;
+      }
+    }
+
+    return index;
+  }
+
+  static int skipLineComment(String sql, int start) {
+    var end = sql.indexOf('\n', start);
+
+    return end < 0 ? sql.length() : end + 1;
+  }
+
+  static int skipBlockComment(String sql, int start) {
+    var end = sql.indexOf("*/", start + 2);
+
+    return end < 0 ? sql.length() : end + 2;
+  }
+
+  // Digits that continue a word, such as the alias p1_0, are not literals
+  static boolean endsWithWord(StringBuilder fingerprint) {
+    return !fingerprint.isEmpty() && isWordPart(fingerprint.charAt(fingerprint.length() - 1));
+  }
+
+  static void trimTrailingSpace(StringBuilder fingerprint) {
+    var length = fingerprint.length();
+
+    if (length > 0 && fingerprint.charAt(length - 1) == ' ') {
+      fingerprint.setLength(length - 1);
+    }
+  }
+
+  static boolean isDigit(char character) {
+    return character >= '0' && character <= '9';
+  }
+
+  static boolean isWordPart(char character) {
+    return Character.isLetterOrDigit(character) || character == '_' || character == '$';
+  }
+}
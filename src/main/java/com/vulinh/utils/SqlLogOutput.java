@@ -0,0 +1,69 @@
+package com.vulinh.utils;
+
+import org.slf4j.Logger;
+
+/** Where the writer thread of {@link SqlLogRingBuffer} sends its lines. */
+interface SqlLogOutput {
+
+  /**
+   * Tells whether the individual statements are logged, so that their lines are not even formatted
+   * otherwise.
+   *
+   * @return {@code true} if {@link #statement(String)} would log something
+   */
+  boolean isStatementEnabled();
+
+  /**
+   * Logs the line of an individual statement or transaction event.
+   *
+   * @param line the line to log
+   */
+  void statement(String line);
+
+  /**
+   * Logs the line of a statement that took at least the slow query threshold of {@link
+   * SqlMonitor}.
+   *
+   * @param line the line to log
+   */
+  void slowStatement(String line);
+
+  /**
+   * Logs a periodic statistics report.
+   *
+   * @param report the report to log
+   */
+  void report(String report);
+
+  /**
+   * Logs the individual statements and the reports at info level, and the slow statements at warn
+   * level.
+   *
+   * @param logger the logger to log to
+   * @return the output
+   */
+  static SqlLogOutput of(Logger logger) {
+    return new SqlLogOutput() {
+
+      @Override
+      public boolean isStatementEnabled() {
+        return logger.isInfoEnabled();
+      }
+
+      @Override
+      public void statement(String line) {
+        logger.info(line);
+      }
+
+      @Override
+      public void slowStatement(String line) {
+        logger.warn(line);
+      }
+
+      @Override
+      public void report(String report) {
+        logger.info(report);
+      }
+    };
+  }
+}
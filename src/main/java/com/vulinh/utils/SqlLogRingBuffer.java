@@ -0,0 +1,103 @@
+package com.vulinh.utils;
+
+import com.vulinh.utils.MyP6SpyLogging.LogCategory;
+import org.springframework.lang.Nullable;
+
+/**
+ * A bounded, multi-producer single-consumer ring buffer of SQL log events, drained by a background
+ * writer thread into a {@link SqlLogWriter}.
+ *
+ * <p>The events are preallocated slots of a {@link MpscRingBuffer}, so publishing an event never
+ * allocates. The JDBC threads never wait for the writer: when the buffer is full, the event is
+ * dropped and counted.
+ */
+class SqlLogRingBuffer extends MpscRingBuffer<SqlLogRingBuffer.SqlEvent> {
+
+  /** A slot of the buffer, reused for every event published into it. */
+  static final class SqlEvent {
+
+    int connectionId;
+    long elapsedMillis;
+    @Nullable LogCategory category;
+    @Nullable String prepared;
+    @Nullable String sql;
+
+    void clear() {
+      category = null;
+      prepared = null;
+      sql = null;
+    }
+  }
+
+  final SqlLogWriter writer;
+
+  SqlLogRingBuffer(int capacity, SqlLogWriter writer) {
+    super(
+        capacity,
+        SqlEvent::new,
+        false,
+        Thread.ofPlatform().name("p6spy-sql-writer").daemon(true),
+        "SQL log event");
+
+    this.writer = writer;
+  }
+
+  /**
+   * Publishes an event to the writer thread.
+   *
+   * @return {@code false} if the event was dropped because the buffer is full or closed
+   */
+  boolean publish(
+      int connectionId,
+      long elapsedMillis,
+      @Nullable LogCategory category,
+      @Nullable String prepared,
+      @Nullable String sql) {
+    var sequence = claim();
+
+    if (sequence < 0) {
+      return false;
+    }
+
+    var event = slotOf(sequence);
+
+    event.connectionId = connectionId;
+    event.elapsedMillis = elapsedMillis;
+    event.category = category;
+    event.prepared = prepared;
+    event.sql = sql;
+    publish(sequence);
+
+    return true;
+  }
+
+  @Override
+  protected void handle(SqlEvent event) {
+    try {
+      writer.write(event);
+    } finally {
+      event.clear();
+    }
+  }
+
+  @Override
+  protected void afterBatch(int drainedCount) {
+    try {
+      writer.reportIfDue(System.nanoTime());
+    } finally {
+      // Nothing is coming, so the pending batches are complete
+      if (drainedCount == 0) {
+        writer.flush();
+      }
+    }
+  }
+
+  @Override
+  protected void afterClose() {
+    try {
+      writer.flush();
+    } finally {
+      writer.report(System.nanoTime());
+    }
+  }
+}
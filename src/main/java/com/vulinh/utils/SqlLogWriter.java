@@ -0,0 +1,219 @@
+package com.vulinh.utils;
+
+import com.vulinh.utils.MyP6SpyLogging.LogCategory;
+import com.vulinh.utils.SqlLogRingBuffer.SqlEvent;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Handles the SQL events drained by the writer thread of {@link SqlLogRingBuffer}: every executed
+ * statement is aggregated into the {@link SqlStatementStatistics}, which are periodically reported,
+ * and into the {@link SqlMonitor}, and the individual statements are written only when the {@link
+ * SqlLogOutput} asks for them, or when they are slow.
+ *
+ * <p>A JDBC batch is reported by p6spy as one {@link LogCategory#BATCH} event per added statement
+ * plus one for its execution. The consecutive batch events of the same statement on a connection
+ * are coalesced into a single execution and summary line, which is written once another event of
+ * that connection arrives or once the buffer runs empty.
+ *
+ * <p>Only used by the writer thread, so it is not thread-safe.
+ */
+class SqlLogWriter {
+
+  static final Duration DEFAULT_REPORT_INTERVAL = Duration.ofMinutes(1);
+
+  static final int DEFAULT_TOP_COUNT = 10;
+
+  final SqlLogOutput output;
+  final long reportIntervalNanos;
+  final int topCount;
+
+  final SqlStatementStatistics statistics = new SqlStatementStatistics();
+
+  // The batch being coalesced on every connection, the summaries are reused across batches
+  final Map<Integer, BatchSummary> batches = new HashMap<>();
+
+  long lastReportNanos = System.nanoTime();
+
+  SqlLogWriter(SqlLogOutput output) {
+    this(output, DEFAULT_REPORT_INTERVAL, DEFAULT_TOP_COUNT);
+  }
+
+  SqlLogWriter(SqlLogOutput output, Duration reportInterval, int topCount) {
+    if (reportInterval.isNegative() || reportInterval.isZero()) {
+      throw new IllegalArgumentException("Report interval must be positive");
+    }
+
+    if (topCount < 1) {
+      throw new IllegalArgumentException("Top count must be positive");
+    }
+
+    this.output = output;
+    reportIntervalNanos = reportInterval.toNanos();
+    this.topCount = topCount;
+  }
+
+  static final class BatchSummary {
+
+    int connectionId;
+    int count;
+    long elapsedMillis;
+    String prepared;
+    String lastSql;
+
+    boolean isPending() {
+      return count > 0;
+    }
+
+    void clear() {
+      count = 0;
+      elapsedMillis = 0L;
+      prepared = null;
+      lastSql = null;
+    }
+  }
+
+  void write(SqlEvent event) {
+    var category = event.category;
+    var sql = event.sql;
+    var batch = batches.get(event.connectionId);
+
+    if (category == LogCategory.BATCH && StringUtils.isNotBlank(sql)) {
+      if (batch == null) {
+        batch = new BatchSummary();
+        batch.connectionId = event.connectionId;
+        batches.put(event.connectionId, batch);
+      } else if (batch.isPending() && !Objects.equals(batch.prepared, event.prepared)) {
+        flush(batch);
+      }
+
+      batch.count++;
+      batch.elapsedMillis += event.elapsedMillis;
+      batch.prepared = event.prepared;
+      batch.lastSql = sql;
+
+      return;
+    }
+
+    // Keeps the log of a connection in order
+    if (batch != null && batch.isPending()) {
+      flush(batch);
+    }
+
+    if (StringUtils.isBlank(sql)) {
+      if (category == LogCategory.COMMIT || category == LogCategory.ROLLBACK) {
+        SqlMonitor.recordTransactionEnd(event.connectionId, category == LogCategory.COMMIT);
+      }
+
+      if (output.isStatementEnabled()) {
+        output.statement(
+            "#%d [ %s ] - %s"
+                .formatted(event.connectionId, categoryName(category), messageOf(category)));
+      }
+
+      return;
+    }
+
+    var isSlow = false;
+
+    if (category == LogCategory.STATEMENT) {
+      isSlow = recordExecution(event.connectionId, event.elapsedMillis, event.prepared, sql);
+    }
+
+    if (!isSlow && output.isStatementEnabled()) {
+      output.statement(sql);
+    }
+  }
+
+  /** Completes the pending batches. */
+  void flush() {
+    for (var batch : batches.values()) {
+      if (batch.isPending()) {
+        flush(batch);
+      }
+    }
+  }
+
+  void flush(BatchSummary batch) {
+    // The whole batch is a single round trip, so it is a single execution
+    var isSlow =
+        recordExecution(batch.connectionId, batch.elapsedMillis, batch.prepared, batch.lastSql);
+
+    if (!isSlow && output.isStatementEnabled()) {
+      // A single statement is not worth a summary
+      output.statement(
+          batch.count == 1
+              ? batch.lastSql
+              : "#%d [ BATCH ] - %d batched execution(s) in %d ms: %s"
+                  .formatted(
+                      batch.connectionId,
+                      batch.count,
+                      batch.elapsedMillis,
+                      statementOf(batch.prepared, batch.lastSql)));
+    }
+
+    batch.clear();
+  }
+
+  // Returns whether the execution was slow, in which case it is already logged
+  boolean recordExecution(int connectionId, long elapsedMillis, String prepared, String sql) {
+    var statement = statementOf(prepared, sql);
+    var isSlow = SqlMonitor.isSlow(elapsedMillis);
+
+    statistics.record(statement, elapsedMillis);
+    SqlMonitor.recordStatement(connectionId, elapsedMillis, statement, sql, isSlow);
+
+    if (isSlow) {
+      output.slowStatement(
+          "#%d [ SLOW ] - %d ms: %s".formatted(connectionId, elapsedMillis, sql));
+    }
+
+    return isSlow;
+  }
+
+  /**
+   * Reports the statistics if the report interval has elapsed since the previous report.
+   *
+   * @param nanoTime the current {@link System#nanoTime()}
+   */
+  void reportIfDue(long nanoTime) {
+    if (nanoTime - lastReportNanos >= reportIntervalNanos) {
+      report(nanoTime);
+    }
+  }
+
+  /**
+   * Reports the statistics collected since the previous report, if any, and resets them.
+   *
+   * @param nanoTime the current {@link System#nanoTime()}
+   */
+  void report(long nanoTime) {
+    if (!statistics.isEmpty()) {
+      output.report(statistics.report(topCount, (nanoTime - lastReportNanos) / 1_000_000));
+    }
+
+    lastReportNanos = nanoTime;
+  }
+
+  // The statement with placeholders is preferred, as it is the same for every execution
+  static String statementOf(String prepared, String sql) {
+    return StringUtils.isBlank(prepared) ? sql : prepared;
+  }
+
+  static String messageOf(LogCategory category) {
+    return switch (category) {
+      case COMMIT -> "Transaction committed";
+      case ROLLBACK -> "Transaction rolled back";
+      case BATCH -> "Batch executed";
+      case OUTAGE -> "Connection outage occurred";
+      case null, default -> "...";
+    };
+  }
+
+  static String categoryName(LogCategory category) {
+    return category == null ? "UNKNOWN" : category.name();
+  }
+}
@@ -0,0 +1,296 @@
+package com.vulinh.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+
+/**
+ * Programmatic view of the SQL activity seen by {@link MyP6SpyLogging}, meant to be exposed by an
+ * application endpoint:
+ *
+ * <ul>
+ *   <li>the last slow statements, which took at least the {@link #getSlowQueryThreshold() slow
+ *       query threshold}, with their bound values and connection id
+ *   <li>the statement and transaction counts of the most recently active connections, so that a
+ *       starving pool, with a few connections doing all the work or not finishing their
+ *       transactions, becomes visible
+ * </ul>
+ *
+ * <p>The slow query mode is disabled until a threshold is set, either with {@link
+ * #setSlowQueryThreshold(Duration)} or from the application properties, by using {@code
+ * @}{@link org.springframework.context.annotation.Import}({@link EnvironmentConfigurer}{@code
+ * .class)} on your Spring Boot main class. Supported properties:
+ *
+ * <ul>
+ *   <li>{@value #SLOW_QUERY_THRESHOLD_PROPERTY}: the minimal elapsed time of a slow statement, such
+ *       as {@code 500ms} (default {@code 0}, disabled)
+ *   <li>{@value #SLOW_QUERY_CAPACITY_PROPERTY}: the number of kept slow statements (default {@value
+ *       #DEFAULT_SLOW_QUERY_CAPACITY})
+ * </ul>
+ *
+ * <p>Slow statements are also logged as warnings.
+ *
+ * <p>Everything is recorded by the writer thread of {@link MyP6SpyLogging}, so the JDBC threads do
+ * no extra work, and the views may lag slightly behind the executed statements.
+ */
+public final class SqlMonitor {
+
+  static final String SLOW_QUERY_THRESHOLD_PROPERTY = "p6spy.slow-query.threshold";
+  static final String SLOW_QUERY_CAPACITY_PROPERTY = "p6spy.slow-query.capacity";
+
+  static final int DEFAULT_SLOW_QUERY_CAPACITY = 100;
+
+  // The connection ids of p6spy grow with every borrowed connection, so only the recent ones stay
+  static final int MAX_TRACKED_CONNECTION_COUNT = 1_024;
+
+  static final Comparator<ConnectionStatistics> BY_CONNECTION_ID =
+      Comparator.comparingInt(ConnectionStatistics::connectionId);
+
+  static volatile long slowQueryThresholdMillis;
+
+  static volatile SlowQueryRing slowQueries = new SlowQueryRing(DEFAULT_SLOW_QUERY_CAPACITY);
+
+  // Access ordered, so the eldest entry is the least recently active connection
+  static final Map<Integer, ConnectionCounters> CONNECTIONS =
+      new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ConnectionCounters> eldest) {
+          return size() > MAX_TRACKED_CONNECTION_COUNT;
+        }
+      };
+
+  private SqlMonitor() {}
+
+  /**
+   * Applies the {@value #SLOW_QUERY_THRESHOLD_PROPERTY} and {@value #SLOW_QUERY_CAPACITY_PROPERTY}
+   * properties when imported into the application context.
+   */
+  public static final class EnvironmentConfigurer {
+
+    public EnvironmentConfigurer(Environment environment) {
+      configure(environment);
+    }
+  }
+
+  /**
+   * Applies the slow query properties of the environment. Changing the capacity forgets the
+   * recorded slow statements.
+   *
+   * @param environment the environment of the application
+   */
+  public static void configure(Environment environment) {
+    var threshold = environment.getProperty(SLOW_QUERY_THRESHOLD_PROPERTY);
+    var capacity =
+        environment.getProperty(
+            SLOW_QUERY_CAPACITY_PROPERTY, Integer.class, DEFAULT_SLOW_QUERY_CAPACITY);
+
+    setSlowQueryThreshold(
+        threshold == null || threshold.isBlank()
+            ? Duration.ZERO
+            : DurationStyle.detectAndParse(threshold.strip()));
+
+    if (capacity != slowQueries.slowQueries.length) {
+      slowQueries = new SlowQueryRing(capacity);
+    }
+  }
+
+  /**
+   * A statement that took at least the slow query threshold.
+   *
+   * @param timestamp when the statement was logged
+   * @param connectionId the p6spy id of the connection executing the statement
+   * @param elapsedMillis the elapsed time of the statement
+   * @param prepared the statement with its placeholders
+   * @param sql the statement with its bound values
+   */
+  public record SlowQuery(
+      Instant timestamp, int connectionId, long elapsedMillis, String prepared, String sql) {}
+
+  /**
+   * The activity of a connection.
+   *
+   * @param connectionId the p6spy id of the connection
+   * @param statementCount the number of executed statements, a JDBC batch counting as one
+   * @param commitCount the number of committed transactions
+   * @param rollbackCount the number of rolled back transactions
+   * @param elapsedMillis the total elapsed time of the statements
+   * @param lastActivity when the connection was last used
+   */
+  public record ConnectionStatistics(
+      int connectionId,
+      long statementCount,
+      long commitCount,
+      long rollbackCount,
+      long elapsedMillis,
+      Instant lastActivity) {}
+
+  /**
+   * Gets the slow query threshold.
+   *
+   * @return the threshold, {@link Duration#ZERO} when the slow query mode is disabled
+   */
+  public static Duration getSlowQueryThreshold() {
+    return Duration.ofMillis(slowQueryThresholdMillis);
+  }
+
+  /**
+   * Sets the slow query threshold.
+   *
+   * @param threshold the minimal elapsed time of a slow statement, {@link Duration#ZERO} to disable
+   *     the slow query mode
+   */
+  public static void setSlowQueryThreshold(Duration threshold) {
+    if (threshold.isNegative()) {
+      throw new IllegalArgumentException("Slow query threshold must not be negative");
+    }
+
+    slowQueryThresholdMillis = threshold.toMillis();
+  }
+
+  /**
+   * Gets the last recorded slow statements.
+   *
+   * @return the slow statements, most recent first
+   */
+  public static List<SlowQuery> getSlowQueries() {
+    return slowQueries.snapshot();
+  }
+
+  /**
+   * Gets the activity of the most recently active connections.
+   *
+   * @return the statistics of the connections, ordered by connection id
+   */
+  public static List<ConnectionStatistics> getConnectionStatistics() {
+    var statistics = new ArrayList<ConnectionStatistics>();
+
+    synchronized (CONNECTIONS) {
+      for (var counters : CONNECTIONS.values()) {
+        statistics.add(counters.snapshot());
+      }
+    }
+
+    statistics.sort(BY_CONNECTION_ID);
+
+    return statistics;
+  }
+
+  /** Forgets the recorded slow statements and connection statistics. */
+  public static void reset() {
+    slowQueries.clear();
+
+    synchronized (CONNECTIONS) {
+      CONNECTIONS.clear();
+    }
+  }
+
+  static boolean isSlow(long elapsedMillis) {
+    var thresholdMillis = slowQueryThresholdMillis;
+
+    return thresholdMillis > 0 && elapsedMillis >= thresholdMillis;
+  }
+
+  // Called by the writer thread only
+  static void recordStatement(
+      int connectionId, long elapsedMillis, String prepared, String sql, boolean isSlow) {
+    var counters = countersOf(connectionId);
+
+    counters.statementCount++;
+    counters.elapsedMillis += elapsedMillis;
+    counters.lastActivityMillis = System.currentTimeMillis();
+
+    if (isSlow) {
+      slowQueries.add(new SlowQuery(Instant.now(), connectionId, elapsedMillis, prepared, sql));
+    }
+  }
+
+  // Called by the writer thread only
+  static void recordTransactionEnd(int connectionId, boolean isCommitted) {
+    var counters = countersOf(connectionId);
+
+    if (isCommitted) {
+      counters.commitCount++;
+    } else {
+      counters.rollbackCount++;
+    }
+
+    counters.lastActivityMillis = System.currentTimeMillis();
+  }
+
+  static ConnectionCounters countersOf(int connectionId) {
+    synchronized (CONNECTIONS) {
+      // Also marks the connection as the most recently active one
+      return CONNECTIONS.computeIfAbsent(connectionId, ConnectionCounters::new);
+    }
+  }
+
+  /** The counters of a connection, written by the writer thread only. */
+  static final class ConnectionCounters {
+
+    final int connectionId;
+
+    volatile long statementCount;
+    volatile long commitCount;
+    volatile long rollbackCount;
+    volatile long elapsedMillis;
+    volatile long lastActivityMillis;
+
+    ConnectionCounters(int connectionId) {
+      this.connectionId = connectionId;
+    }
+
+    ConnectionStatistics snapshot() {
+      return new ConnectionStatistics(
+          connectionId,
+          statementCount,
+          commitCount,
+          rollbackCount,
+          elapsedMillis,
+          Instant.ofEpochMilli(lastActivityMillis));
+    }
+  }
+
+  /** A bounded ring of the last slow statements, overwriting the oldest one when full. */
+  static final class SlowQueryRing {
+
+    final SlowQuery[] slowQueries;
+
+    // The number of slow statements ever added, the next slot is this count modulo the capacity
+    long addedCount;
+
+    SlowQueryRing(int capacity) {
+      if (capacity < 1) {
+        throw new IllegalArgumentException("Slow query capacity must be positive");
+      }
+
+      slowQueries = new SlowQuery[capacity];
+    }
+
+    synchronized void add(SlowQuery slowQuery) {
+      slowQueries[(int) (addedCount++ % slowQueries.length)] = slowQuery;
+    }
+
+    synchronized List<SlowQuery> snapshot() {
+      var size = (int) Math.min(addedCount, slowQueries.length);
+      var snapshot = new ArrayList<SlowQuery>(size);
+
+      for (var index = 1; index <= size; index++) {
+        snapshot.add(slowQueries[(int) ((addedCount - index) % slowQueries.length)]);
+      }
+
+      return snapshot;
+    }
+
+    synchronized void clear() {
+      addedCount = 0;
+      Arrays.fill(slowQueries, null);
+    }
+  }
+}
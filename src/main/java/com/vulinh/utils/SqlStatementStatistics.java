@@ -0,0 +1,214 @@
+package com.vulinh.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-process equivalent of {@code pg_stat_statements}: aggregates the executions of the SQL
+ * statements per {@link SqlFingerprint}, with their count, total, minimum and maximum elapsed time
+ * and a latency histogram, and renders a top-N report of the most expensive and most frequent
+ * statements.
+ *
+ * <p>p6spy only reports elapsed times in milliseconds, so the histogram has a fixed set of
+ * millisecond buckets rather than a high-resolution layout. The statistics cover one reporting
+ * interval and are reset by {@link #report(int, long)}.
+ *
+ * <p>Only used by the writer thread of {@link SqlLogRingBuffer}, so it is not thread-safe.
+ */
+class SqlStatementStatistics {
+
+  // Inclusive upper bounds, the last bucket counts everything slower
+  static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {
+    1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000
+  };
+
+  // Bounds the memory used by applications that build their SQL with inlined values
+  static final int MAX_FINGERPRINT_COUNT = 1_000;
+
+  static final int FINGERPRINT_CACHE_SIZE = 4_096;
+
+  static final String OTHER_STATEMENTS = "(other statements)";
+
+  static final Comparator<Entry> BY_TOTAL_TIME =
+      Comparator.comparingLong((Entry entry) -> entry.totalMillis)
+          .thenComparingLong(entry -> entry.count)
+          .reversed();
+
+  static final Comparator<Entry> BY_COUNT =
+      Comparator.comparingLong((Entry entry) -> entry.count)
+          .thenComparingLong(entry -> entry.totalMillis)
+          .reversed();
+
+  // The statements of an application are few and repeated, so they are normalized only once
+  final Map<String, String> fingerprints = new HashMap<>();
+
+  final Map<String, Entry> entries = new HashMap<>();
+
+  long executionCount;
+
+  /** The statistics of the executions of one fingerprint. */
+  static final class Entry {
+
+    final String fingerprint;
+    final long[] bucketCounts = new long[BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+
+    long count;
+    long totalMillis;
+    long minMillis = Long.MAX_VALUE;
+    long maxMillis;
+
+    Entry(String fingerprint) {
+      this.fingerprint = fingerprint;
+    }
+
+    void record(long elapsedMillis) {
+      count++;
+      totalMillis += elapsedMillis;
+      minMillis = Math.min(minMillis, elapsedMillis);
+      maxMillis = Math.max(maxMillis, elapsedMillis);
+      bucketCounts[bucketOf(elapsedMillis)]++;
+    }
+
+    double meanMillis() {
+      return count == 0 ? 0.0 : (double) totalMillis / count;
+    }
+
+    /**
+     * Gets the upper bound of the bucket holding the given percentile, capped by the maximum.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return an upper bound of the percentile in milliseconds
+     */
+    long percentileMillis(double percentile) {
+      var rank = (long) Math.ceil(count * percentile / 100.0);
+      var cumulativeCount = 0L;
+
+      for (var index = 0; index < BUCKET_UPPER_BOUNDS_MILLIS.length; index++) {
+        cumulativeCount += bucketCounts[index];
+
+        if (cumulativeCount >= rank) {
+          return Math.min(BUCKET_UPPER_BOUNDS_MILLIS[index], maxMillis);
+        }
+      }
+
+      return maxMillis;
+    }
+  }
+
+  /**
+   * Records one execution of the given statement.
+   *
+   * @param statement the SQL statement, preferably with placeholders rather than values
+   * @param elapsedMillis the elapsed time of the execution in milliseconds
+   */
+  void record(String statement, long elapsedMillis) {
+    var fingerprint = fingerprintOf(statement);
+    var entry = entries.get(fingerprint);
+
+    if (entry == null) {
+      if (entries.size() >= MAX_FINGERPRINT_COUNT) {
+        fingerprint = OTHER_STATEMENTS;
+      }
+
+      entry = entries.computeIfAbsent(fingerprint, Entry::new);
+    }
+
+    entry.record(Math.max(elapsedMillis, 0L));
+    executionCount++;
+  }
+
+  String fingerprintOf(String statement) {
+    var fingerprint = fingerprints.get(statement);
+
+    if (fingerprint == null) {
+      if (fingerprints.size() >= FINGERPRINT_CACHE_SIZE) {
+        fingerprints.clear();
+      }
+
+      fingerprint = SqlFingerprint.of(statement);
+      fingerprints.put(statement, fingerprint);
+    }
+
+    return fingerprint;
+  }
+
+  boolean isEmpty() {
+    return executionCount == 0;
+  }
+
+  /**
+   * Renders the top statements by total elapsed time and by execution count, then resets the
+   * statistics.
+   *
+   * @param topCount the number of statements of every ranking
+   * @param intervalMillis the length of the covered interval, for the header of the report
+   * @return the multi-line report
+   */
+  String report(int topCount, long intervalMillis) {
+    var allEntries = new ArrayList<>(entries.values());
+    var report = new StringBuilder(256 + 2 * topCount * 160);
+
+    report
+        .append("SQL statistics of the last ")
+        .append(intervalMillis / 1_000)
+        .append(" s: ")
+        .append(executionCount)
+        .append(" execution(s) of ")
+        .append(allEntries.size())
+        .append(" statement(s)");
+
+    appendRanking(report, "Top %d by total time:", allEntries, BY_TOTAL_TIME, topCount);
+    appendRanking(report, "Top %d by count:", allEntries, BY_COUNT, topCount);
+
+    entries.clear();
+    executionCount = 0;
+
+    return report.toString();
+  }
+
+  static void appendRanking(
+      StringBuilder report,
+      String title,
+      List<Entry> entries,
+      Comparator<Entry> comparator,
+      int topCount) {
+    entries.sort(comparator);
+    report.append('\n').append(title.formatted(topCount));
+
+    for (var entry : entries.subList(0, Math.min(topCount, entries.size()))) {
+      report
+          .append("\n  count=")
+          .append(entry.count)
+          .append(" total=")
+          .append(entry.totalMillis)
+          .append("ms mean=")
+          .append(String.format(Locale.ROOT, "%.1f", entry.meanMillis()))
+          .append("ms min=")
+          .append(entry.minMillis)
+          .append("ms max=")
+          .append(entry.maxMillis)
+          .append("ms p50<=")
+          .append(entry.percentileMillis(50))
+          .append("ms p95<=")
+          .append(entry.percentileMillis(95))
+          .append("ms p99<=")
+          .append(entry.percentileMillis(99))
+          .append("ms | ")
+          .append(entry.fingerprint);
+    }
+  }
+
+  static int bucketOf(long elapsedMillis) {
+    for (var index = 0; index < BUCKET_UPPER_BOUNDS_MILLIS.length; index++) {
+      if (elapsedMillis <= BUCKET_UPPER_BOUNDS_MILLIS[index]) {
+        return index;
+      }
+    }
+
+    return BUCKET_UPPER_BOUNDS_MILLIS.length;
+  }
+}
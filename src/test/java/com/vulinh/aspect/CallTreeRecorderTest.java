@@ -0,0 +1,101 @@
+package com.vulinh.aspect;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vulinh.annotation.ExecutionTime.Mode;
+import java.util.LinkedHashMap;
+import org.junit.jupiter.api.Test;
+
+class CallTreeRecorderTest {
+
+  static final MethodKey METHOD_A = methodKey("toString");
+  static final MethodKey METHOD_B = methodKey("hashCode");
+  static final MethodKey METHOD_C = methodKey("getClass");
+
+  @Test
+  void testTreeShouldReportTotalAndSelfTimes() {
+    var recorder = new CallTreeRecorder(1, 0);
+
+    var a = recorder.enter(METHOD_A, 0);
+
+    // B is invoked twice, and invokes C once
+    var b = recorder.enter(METHOD_B, 10);
+    var c = recorder.enter(METHOD_C, 15);
+    assertNull(recorder.exit(c, 25));
+    assertNull(recorder.exit(b, 30));
+
+    assertSame(b, recorder.enter(METHOD_B, 40));
+    assertNull(recorder.exit(b, 60));
+
+    var root = recorder.exit(a, 100);
+
+    assertSame(a, root);
+    assertEquals(100, root.getTotalNanos());
+    assertEquals(60, root.getSelfNanos());
+    assertEquals(1, root.getChildren().size());
+
+    var mergedB = root.getChildren().get(0);
+
+    assertEquals(2, mergedB.getInvocationCount());
+    assertEquals(40, mergedB.getTotalNanos());
+    assertEquals(30, mergedB.getSelfNanos());
+    assertEquals(10, mergedB.getChildren().get(0).getSelfNanos());
+
+    var expectedStacks = new LinkedHashMap<String, Long>();
+
+    expectedStacks.put("java.lang.Object.toString()", 60L);
+    expectedStacks.put("java.lang.Object.toString();java.lang.Object.hashCode()", 30L);
+    expectedStacks.put(
+        "java.lang.Object.toString();java.lang.Object.hashCode();java.lang.Object.getClass()", 10L);
+
+    assertEquals(expectedStacks, root.toCollapsedStacks());
+    assertEquals(3, root.toTreeString().lines().count());
+  }
+
+  @Test
+  void testRecursiveCallsShouldGetTheirOwnFrames() {
+    var recorder = new CallTreeRecorder(1, 0);
+
+    var outer = recorder.enter(METHOD_A, 0);
+    var inner = recorder.enter(METHOD_A, 10);
+
+    assertNotSame(outer, inner);
+
+    recorder.exit(inner, 20);
+
+    var root = recorder.exit(outer, 50);
+
+    assertEquals(50, root.getTotalNanos());
+    assertEquals(40, root.getSelfNanos());
+  }
+
+  @Test
+  void testFastTreesShouldNotBeReported() {
+    var recorder = new CallTreeRecorder(1, 200);
+
+    var root = recorder.enter(METHOD_A, 0);
+
+    assertNull(recorder.exit(root, 100));
+    assertNull(recorder.currentFrame.get(), "The thread should be left clean");
+  }
+
+  @Test
+  void testSkippedRootShouldIgnoreNestedCalls() {
+    var recorder = new CallTreeRecorder(1, 0);
+
+    recorder.currentFrame.set(CallTreeRecorder.SKIPPED);
+
+    assertNull(recorder.enter(METHOD_B, 0));
+    assertNull(recorder.exit(CallTreeRecorder.SKIPPED, 10));
+    assertNull(recorder.currentFrame.get());
+  }
+
+  static MethodKey methodKey(String methodName) {
+    try {
+      return new MethodKey(
+          Object.class.getMethod(methodName), Mode.LOG, new RecordingPolicy(0, 1, 0));
+    } catch (NoSuchMethodException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+}
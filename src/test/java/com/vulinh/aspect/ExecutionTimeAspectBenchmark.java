@@ -0,0 +1,101 @@
+package com.vulinh.aspect;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.helpers.NOPAppender;
+import com.vulinh.annotation.ExecutionTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Measures the per-call overhead of {@link ExecutionTimeAspect} against a bare method call. Run the
+ * {@link #main(String[])} method after compiling the test sources.
+ *
+ * <p>Log records go to a no-op appender, so that the numbers reflect the aspect itself rather than
+ * the console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class ExecutionTimeAspectBenchmark {
+
+  public static class Calculator {
+
+    @ExecutionTime
+    public long compute(long value) {
+      return value * 31 + 7;
+    }
+  }
+
+  @Param({"LOG", "AGGREGATE"})
+  public String mode;
+
+  Calculator bareCalculator;
+  Calculator advisedCalculator;
+  ExecutionTimeAspect aspect;
+  long value;
+
+  @Setup
+  public void setUp() {
+    var logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(ExecutionTimeAspect.class);
+    var appender = new NOPAppender<ch.qos.logback.classic.spi.ILoggingEvent>();
+
+    appender.start();
+    logger.setLevel(Level.INFO);
+    logger.setAdditive(false);
+    logger.addAppender(appender);
+
+    var environment = new StandardEnvironment();
+
+    environment
+        .getPropertySources()
+        .addFirst(
+            new MapPropertySource(
+                "benchmark", Map.of(ExecutionTimeAspect.MODE_PROPERTY, mode)));
+
+    aspect = new ExecutionTimeAspect(new StaticApplicationContext(), environment);
+
+    bareCalculator = new Calculator();
+
+    var proxyFactory = new AspectJProxyFactory(new Calculator());
+
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAspect(aspect);
+
+    advisedCalculator = proxyFactory.getProxy();
+  }
+
+  @TearDown
+  public void tearDown() {
+    aspect.destroy();
+  }
+
+  @Benchmark
+  public long bareCall() {
+    return bareCalculator.compute(value++);
+  }
+
+  @Benchmark
+  public long advisedCall() {
+    return advisedCalculator.compute(value++);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(ExecutionTimeAspectBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
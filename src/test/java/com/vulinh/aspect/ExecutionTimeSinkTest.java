@@ -0,0 +1,124 @@
+package com.vulinh.aspect;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vulinh.annotation.ExecutionTime.Mode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class ExecutionTimeSinkTest {
+
+  static final MethodKey METHOD_KEY = methodKey("toString");
+
+  @Test
+  void testMicrometerSinkShouldRecordOneTimerPerMethod() {
+    var registry = new SimpleMeterRegistry();
+    var sink = new MicrometerExecutionTimeSink(registry);
+
+    sink.record(METHOD_KEY, 0L, 1_000_000L);
+    sink.record(METHOD_KEY, 0L, 3_000_000L);
+    sink.record(methodKey("hashCode"), 0L, 5_000_000L);
+
+    var timer =
+        registry
+            .get(MicrometerExecutionTimeSink.METER_NAME)
+            .tag("class", Object.class.getName())
+            .tag("method", "toString")
+            .timer();
+
+    assertEquals(2, timer.count());
+    assertEquals(4, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    assertEquals(2, registry.get(MicrometerExecutionTimeSink.METER_NAME).timers().size());
+  }
+
+  @Test
+  void testJfrSinkShouldCommitEventsWhenRecording() throws IOException {
+    var sink = new JfrExecutionTimeSink();
+    var file = Files.createTempFile("execution-time", ".jfr");
+
+    try (var recording = new Recording()) {
+      recording.enable(ExecutionTimeEvent.class);
+      recording.start();
+
+      sink.record(METHOD_KEY, 1_700_000_000_000L, 42_000L);
+
+      recording.stop();
+      recording.dump(file);
+
+      var events =
+          RecordingFile.readAllEvents(file).stream()
+              .filter(event -> event.getEventType().getName().equals("com.vulinh.ExecutionTime"))
+              .toList();
+
+      assertEquals(1, events.size());
+
+      var event = events.get(0);
+
+      assertEquals(Object.class.getName(), event.getString("declaringClass"));
+      assertEquals("toString", event.getString("methodName"));
+      assertEquals(42_000L, event.getDuration("executionTime").toNanos());
+      assertEquals(1_700_000_000_000L, event.getInstant("startedAt").toEpochMilli());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  void testJfrSinkShouldDoNothingWhenNotRecording() {
+    assertDoesNotThrow(() -> new JfrExecutionTimeSink().record(METHOD_KEY, 0L, 1L));
+  }
+
+  @Test
+  void testCompositeSinkShouldForwardOnlyToInterestedSinks() {
+    var recorded = new ArrayList<MethodKey>();
+    var composite = new CompositeExecutionTimeSink(List.of(new ToStringSink(recorded)));
+
+    var hashCodeKey = methodKey("hashCode");
+
+    composite.record(METHOD_KEY, 0L, 1L);
+    composite.record(hashCodeKey, 0L, 1L);
+
+    assertEquals(List.of(METHOD_KEY), recorded);
+  }
+
+  @Test
+  void testExtraSinksShouldBeInterestedOnlyInMethodsOfSomeSink() {
+    var extraSinks =
+        new ExecutionTimeAspect.ExtraSinks(
+            List.of(new ToStringSink(new ArrayList<>())), new ConcurrentHashMap<>());
+
+    assertTrue(extraSinks.isAnyInterestedIn(METHOD_KEY));
+    assertFalse(extraSinks.isAnyInterestedIn(methodKey("hashCode")));
+    assertFalse(ExecutionTimeAspect.ExtraSinks.NONE.isAnyInterestedIn(METHOD_KEY));
+  }
+
+  record ToStringSink(List<MethodKey> recorded) implements ExecutionTimeSink {
+
+    @Override
+    public void record(MethodKey methodKey, long startedEpochMillis, long durationNanos) {
+      recorded.add(methodKey);
+    }
+
+    @Override
+    public boolean isInterestedIn(MethodKey methodKey) {
+      return methodKey.getMethodName().equals("toString");
+    }
+  }
+
+  static MethodKey methodKey(String methodName) {
+    try {
+      return new MethodKey(
+          Object.class.getMethod(methodName), Mode.LOG, new RecordingPolicy(0, 1, 0));
+    } catch (NoSuchMethodException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+}
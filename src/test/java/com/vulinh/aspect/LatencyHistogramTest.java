@@ -0,0 +1,94 @@
+package com.vulinh.aspect;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LatencyHistogramTest {
+
+  @ParameterizedTest
+  @ValueSource(longs = {0L, 1L, 63L, 64L, 65L, 1_000L, 123_456_789L, Long.MAX_VALUE})
+  void testIndexShouldRoundTripWithinRelativeError(long value) {
+    var index = LatencyHistogram.indexOf(value);
+
+    assertTrue(index >= 0 && index < LatencyHistogram.BUCKET_COUNT);
+
+    var highestValue = LatencyHistogram.highestValueOf(index);
+
+    assertTrue(highestValue >= value);
+    assertTrue(
+        highestValue - value <= value / LatencyHistogram.SUB_BUCKET_COUNT,
+        "Bucket should not be wider than the relative error");
+  }
+
+  @Test
+  void testIndexShouldBeMonotonic() {
+    var previousIndex = -1;
+
+    for (var value = 0L; value < 100_000L; value++) {
+      var index = LatencyHistogram.indexOf(value);
+
+      assertTrue(index >= previousIndex);
+      previousIndex = index;
+    }
+  }
+
+  @Test
+  void testSnapshotShouldReportPercentiles() {
+    var histogram = new LatencyHistogram();
+
+    LongStream.rangeClosed(1, 1_000).forEach(value -> histogram.record(value * 1_000));
+
+    var snapshot = histogram.snapshotAndReset();
+
+    assertEquals(1_000, snapshot.count());
+    assertEquals(1_000_000, snapshot.max());
+    assertEquals(500_000, snapshot.valueAtPercentile(50), 500_000 / 64.0);
+    assertEquals(900_000, snapshot.valueAtPercentile(90), 900_000 / 64.0);
+    assertEquals(990_000, snapshot.valueAtPercentile(99), 990_000 / 64.0);
+    assertEquals(1_000_000, snapshot.valueAtPercentile(100));
+  }
+
+  @Test
+  void testSnapshotShouldResetHistogram() {
+    var histogram = new LatencyHistogram();
+
+    histogram.record(42);
+
+    assertEquals(1, histogram.snapshotAndReset().count());
+
+    var emptySnapshot = histogram.snapshotAndReset();
+
+    assertEquals(0, emptySnapshot.count());
+    assertEquals(0, emptySnapshot.max());
+    assertEquals(0, emptySnapshot.valueAtPercentile(99));
+  }
+
+  @Test
+  void testNegativeValuesShouldBeRecordedAsZero() {
+    var histogram = new LatencyHistogram();
+
+    histogram.record(-5);
+
+    var snapshot = histogram.snapshotAndReset();
+
+    assertEquals(1, snapshot.count());
+    assertEquals(0, snapshot.valueAtPercentile(50));
+  }
+
+  @Test
+  void testConcurrentRecordingShouldNotLoseValues() {
+    var histogram = new LatencyHistogram();
+
+    IntStream.range(0, 100_000).parallel().forEach(histogram::record);
+
+    var snapshot = histogram.snapshotAndReset();
+
+    assertEquals(100_000, snapshot.count());
+    assertEquals(99_999, snapshot.max());
+  }
+}
@@ -0,0 +1,63 @@
+package com.vulinh.aspect;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class RecordingPolicyTest {
+
+  static final long ONE_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  void testDefaultPolicyShouldRecordEverything() {
+    var policy = new RecordingPolicy(0, 1, 0);
+    var now = System.nanoTime();
+
+    assertTrue(IntStream.range(0, 1_000).allMatch(ignored -> policy.isSampled()));
+    assertTrue(IntStream.range(0, 1_000).allMatch(index -> policy.shouldRecord(index, now)));
+  }
+
+  @Test
+  void testThresholdShouldDiscardFasterInvocations() {
+    var policy = new RecordingPolicy(5 * ONE_MILLI, 1, 0);
+    var now = System.nanoTime();
+
+    assertFalse(policy.shouldRecord(5 * ONE_MILLI - 1, now));
+    assertTrue(policy.shouldRecord(5 * ONE_MILLI, now));
+    assertTrue(policy.shouldRecord(10 * ONE_MILLI, now));
+  }
+
+  @Test
+  void testSampleRateShouldMeasureAFractionOfInvocations() {
+    var policy = new RecordingPolicy(0, 10, 0);
+
+    var sampled = IntStream.range(0, 100_000).filter(ignored -> policy.isSampled()).count();
+
+    // Expected 10_000, with a very generous margin
+    assertTrue(sampled > 8_000 && sampled < 12_000, "Sampled %d invocations".formatted(sampled));
+  }
+
+  @Test
+  void testTokenBucketShouldAllowOneSecondBurstThenRefill() {
+    var policy = new RecordingPolicy(0, 1, 10);
+    var now = System.nanoTime();
+
+    var allowed = IntStream.range(0, 100).filter(ignored -> policy.shouldRecord(0, now)).count();
+
+    assertEquals(10, allowed);
+    assertFalse(policy.shouldRecord(0, now));
+
+    // One token is refilled every 100 ms
+    assertTrue(policy.shouldRecord(0, now + 100 * ONE_MILLI));
+    assertFalse(policy.shouldRecord(0, now + 100 * ONE_MILLI));
+  }
+
+  @Test
+  void testInvalidSettingsShouldBeRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new RecordingPolicy(-1, 1, 0));
+    assertThrows(IllegalArgumentException.class, () -> new RecordingPolicy(0, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new RecordingPolicy(0, 1, -1));
+  }
+}
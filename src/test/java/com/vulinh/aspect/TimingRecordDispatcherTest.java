@@ -0,0 +1,138 @@
+package com.vulinh.aspect;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vulinh.annotation.ExecutionTime.Mode;
+import com.vulinh.aspect.TimingRecordDispatcher.OverflowPolicy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class TimingRecordDispatcherTest {
+
+  static final MethodKey METHOD_KEY =
+      new MethodKey(Object.class.getMethods()[0], Mode.LOG, new RecordingPolicy(0, 1, 0));
+
+  @Test
+  void testCapacityShouldBeRoundedUpToPowerOfTwo() {
+    assertEquals(1, new TimingRecordDispatcher(1, OverflowPolicy.DROP, false, noOp()).getCapacity());
+    assertEquals(8, new TimingRecordDispatcher(8, OverflowPolicy.DROP, false, noOp()).getCapacity());
+    assertEquals(16, new TimingRecordDispatcher(9, OverflowPolicy.DROP, false, noOp()).getCapacity());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new TimingRecordDispatcher(0, OverflowPolicy.DROP, false, noOp()));
+  }
+
+  @Test
+  void testRecordsShouldBeHandledInOrder() throws InterruptedException {
+    var durations = new CopyOnWriteArrayList<Long>();
+    var latch = new CountDownLatch(1_000);
+
+    try (var dispatcher =
+        new TimingRecordDispatcher(
+            64,
+            OverflowPolicy.BLOCK,
+            false,
+            (methodKey, startedEpochMillis, durationNanos) -> {
+              durations.add(durationNanos);
+              latch.countDown();
+            })) {
+      IntStream.range(0, 1_000).forEach(index -> dispatcher.publish(METHOD_KEY, 0L, index));
+
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertEquals(IntStream.range(0, 1_000).mapToObj(Long::valueOf).toList(), durations);
+      assertEquals(0, dispatcher.getDroppedCount());
+    }
+  }
+
+  @Test
+  void testFullBufferShouldDropAndCount() throws InterruptedException {
+    var isHandling = new CountDownLatch(1);
+    var canContinue = new CountDownLatch(1);
+
+    try (var dispatcher =
+        new TimingRecordDispatcher(
+            4,
+            OverflowPolicy.DROP,
+            false,
+            (methodKey, startedEpochMillis, durationNanos) -> {
+              isHandling.countDown();
+              await(canContinue);
+            })) {
+      // The consumer is stuck on the first record, which still holds its slot
+      assertTrue(dispatcher.publish(METHOD_KEY, 0L, 0L));
+      assertTrue(isHandling.await(10, TimeUnit.SECONDS));
+
+      var published =
+          IntStream.range(0, 10).filter(index -> dispatcher.publish(METHOD_KEY, 0L, index)).count();
+
+      assertEquals(3, published);
+      assertEquals(7, dispatcher.getDroppedCount());
+
+      canContinue.countDown();
+    }
+  }
+
+  @Test
+  void testFullBufferShouldDropRecordsOfConsumerEvenWhenBlocking() throws InterruptedException {
+    var isDone = new CountDownLatch(1);
+    var published = new long[1];
+    var dispatchers = new TimingRecordDispatcher[1];
+
+    try (var dispatcher =
+        new TimingRecordDispatcher(
+            4,
+            OverflowPolicy.BLOCK,
+            false,
+            (methodKey, startedEpochMillis, durationNanos) -> {
+              // The first record still holds its slot, like a sink calling a measured method
+              if (durationNanos < 0) {
+                published[0] =
+                    IntStream.range(0, 10)
+                        .filter(index -> dispatchers[0].publish(METHOD_KEY, 0L, index))
+                        .count();
+                isDone.countDown();
+              }
+            })) {
+      dispatchers[0] = dispatcher;
+
+      assertTrue(dispatcher.publish(METHOD_KEY, 0L, -1L));
+      assertTrue(isDone.await(10, TimeUnit.SECONDS));
+      assertEquals(3, published[0]);
+      assertEquals(7, dispatcher.getDroppedCount());
+    }
+  }
+
+  @Test
+  void testCloseShouldDrainPendingRecords() {
+    List<Long> durations = new CopyOnWriteArrayList<>();
+
+    var dispatcher =
+        new TimingRecordDispatcher(
+            1_024,
+            OverflowPolicy.DROP,
+            true,
+            (methodKey, startedEpochMillis, durationNanos) -> durations.add(durationNanos));
+
+    IntStream.range(0, 500).forEach(index -> dispatcher.publish(METHOD_KEY, 0L, index));
+
+    dispatcher.close();
+
+    assertEquals(500, durations.size());
+  }
+
+  static ExecutionTimeSink noOp() {
+    return (methodKey, startedEpochMillis, durationNanos) -> {};
+  }
+
+  static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.vulinh.data.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.utils.JsonUtils;
+import com.vulinh.utils.JsonUtils.Format;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the encoded size and the encoding and decoding times of an event in every {@link
+ * Format} of {@link JsonUtils}, with the {@link EventMessageModule} registered. The encoded sizes
+ * are printed during the setup. Run the {@link #main(String[])} method after compiling the test
+ * sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class EventFormatBenchmark {
+
+  @Param({"JSON", "SMILE", "CBOR"})
+  public Format format;
+
+  EventMessageWrapper<NewCommentEvent> event;
+  ObjectMapper mapper;
+  byte[] encoded;
+
+  @Setup
+  public void setUp() throws IOException {
+    event =
+        EventMessageWrapper.<NewCommentEvent>builder()
+            .eventType(EventType.NEW_COMMENT)
+            .actionUser(new ActionUser(UUID.randomUUID(), "alice"))
+            .data(
+                new NewCommentEvent(
+                    UUID.randomUUID(),
+                    "A post title",
+                    "The excerpt of the post",
+                    UUID.randomUUID(),
+                    "The content of the comment"))
+            .build();
+
+    mapper = EventMessageModuleTest.mapperOf(format);
+    encoded = mapper.writeValueAsBytes(event);
+
+    System.out.printf("%n%s encoded size: %d bytes%n", format, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return mapper.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public Object decode() throws IOException {
+    return mapper.readValue(encoded, EventMessageWrapper.class);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(EventFormatBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
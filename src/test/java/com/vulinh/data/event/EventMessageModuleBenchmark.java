@@ -0,0 +1,101 @@
+package com.vulinh.data.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.utils.JsonUtils;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the serializers of {@link EventMessageModule} with the reflective bean path of a mapper
+ * configured like {@link JsonUtils} but without the module. Run the {@link #main(String[])} method
+ * after compiling the test sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class EventMessageModuleBenchmark {
+
+  EventMessageWrapper<NewCommentEvent> event;
+  byte[] json;
+
+  ObjectWriter beanWriter;
+  ObjectReader beanReader;
+  ObjectWriter moduleWriter;
+  ObjectReader moduleReader;
+
+  @Setup
+  public void setUp() {
+    var beanMapper =
+        JsonMapper.builder()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
+            .addModule(new JavaTimeModule())
+            .serializationInclusion(Include.NON_NULL)
+            .build();
+
+    event =
+        EventMessageWrapper.<NewCommentEvent>builder()
+            .eventType(EventType.NEW_COMMENT)
+            .actionUser(new ActionUser(UUID.randomUUID(), "alice"))
+            .data(
+                new NewCommentEvent(
+                    UUID.randomUUID(),
+                    "A post title",
+                    "The excerpt of the post",
+                    UUID.randomUUID(),
+                    "The content of the comment"))
+            .build();
+
+    json = JsonUtils.toMinimizedJSONBytes(event);
+
+    beanWriter = beanMapper.writerFor(EventMessageWrapper.class);
+    // The bean path can only produce a generic map for the payload
+    beanReader = beanMapper.readerFor(EventMessageWrapper.class);
+    moduleWriter = JsonUtils.delegate().writerFor(EventMessageWrapper.class);
+    moduleReader = JsonUtils.delegate().readerFor(EventMessageWrapper.class);
+  }
+
+  @Benchmark
+  public byte[] serializeBean() throws Exception {
+    return beanWriter.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public byte[] serializeModule() throws Exception {
+    return moduleWriter.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public Object deserializeBean() throws Exception {
+    return beanReader.readValue(json);
+  }
+
+  @Benchmark
+  public Object deserializeModule() throws Exception {
+    return moduleReader.readValue(json);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(EventMessageModuleBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
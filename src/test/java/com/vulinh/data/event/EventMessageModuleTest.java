@@ -0,0 +1,195 @@
+package com.vulinh.data.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.data.event.payload.NewPostEvent;
+import com.vulinh.data.event.payload.WithPostData;
+import com.vulinh.utils.JsonUtils;
+import com.vulinh.utils.JsonUtils.Format;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class EventMessageModuleTest {
+
+  // The configuration of JsonUtils, which does not register the module
+  static final ObjectMapper BEAN_MAPPER =
+      JsonMapper.builder()
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+          .configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
+          .addModule(new JavaTimeModule())
+          .serializationInclusion(Include.NON_NULL)
+          .build();
+
+  static final ObjectMapper MODULE_MAPPER = mapperOf(Format.JSON);
+
+  static ObjectMapper mapperOf(Format format) {
+    return JsonUtils.delegate(format).copy().registerModule(new EventMessageModule());
+  }
+
+  @Test
+  void testSerializationShouldMatchBeanPath() throws Exception {
+    var events = NdjsonEventMessageCodecTest.sampleEvents();
+
+    for (var event : events) {
+      assertEquals(BEAN_MAPPER.writeValueAsString(event), MODULE_MAPPER.writeValueAsString(event));
+    }
+
+    var withNulls = new EventMessageWrapper<>(null, null, null, null, null);
+
+    assertEquals(
+        BEAN_MAPPER.writeValueAsString(withNulls), MODULE_MAPPER.writeValueAsString(withNulls));
+    assertEquals(
+        BEAN_MAPPER.writeValueAsString(new ActionUser(null, "alice")),
+        MODULE_MAPPER.writeValueAsString(new ActionUser(null, "alice")));
+  }
+
+  @Test
+  void testDeserializationShouldResolvePayloadAndKeepIdentity() throws Exception {
+    for (var event : NdjsonEventMessageCodecTest.sampleEvents()) {
+      var json = MODULE_MAPPER.writeValueAsString(event);
+
+      assertEquals(event, MODULE_MAPPER.readValue(json, EventMessageWrapper.class));
+      assertEquals(
+          event, MODULE_MAPPER.readValue(json, new TypeReference<EventMessageWrapper<?>>() {}));
+    }
+  }
+
+  @Test
+  void testDeserializationShouldReadBeanPathOutputInAnyOrder() throws Exception {
+    var postId = UUID.randomUUID();
+    var commentId = UUID.randomUUID();
+    var json =
+        """
+        {"data":{"content":"Hi","commentId":"%s","postId":"%s","extra":{"a":[1]}},\
+        "actionUser":null,"eventType":"NEW_COMMENT","eventId":"%s"}"""
+            .formatted(commentId, postId, postId);
+
+    var event = MODULE_MAPPER.readValue(json, EventMessageWrapper.class);
+
+    assertEquals(new NewCommentEvent(postId, null, null, commentId, "Hi"), event.data());
+    assertEquals(postId, event.eventId());
+    assertNull(event.actionUser());
+    assertNotNull(event.timestamp());
+  }
+
+  @Test
+  void testDeserializationShouldReadListsOfEvents() throws Exception {
+    var events = NdjsonEventMessageCodecTest.sampleEvents();
+
+    List<EventMessageWrapper<?>> result =
+        MODULE_MAPPER.readValue(MODULE_MAPPER.writeValueAsString(events), new TypeReference<>() {});
+
+    assertEquals(events, result);
+  }
+
+  @Test
+  void testDeserializationShouldBindDeclaredDataType() throws Exception {
+    var postId = UUID.randomUUID();
+    var json =
+        MODULE_MAPPER.writeValueAsString(
+            EventMessageWrapper.builder()
+                .eventType(EventType.NEW_POST)
+                .data(new NewPostEvent(postId, "Title", "Excerpt"))
+                .build());
+
+    EventMessageWrapper<Map<String, Object>> asMap =
+        MODULE_MAPPER.readValue(json, new TypeReference<>() {});
+    EventMessageWrapper<PostSummary> asOtherType =
+        MODULE_MAPPER.readValue(json, new TypeReference<>() {});
+    EventMessageWrapper<WithPostData> asSupertype =
+        MODULE_MAPPER.readValue(json, new TypeReference<>() {});
+
+    assertEquals("Title", asMap.data().get("title"));
+    assertEquals(new PostSummary(postId, "Title"), asOtherType.data());
+    assertEquals(new NewPostEvent(postId, "Title", "Excerpt"), asSupertype.data());
+  }
+
+  record PostSummary(UUID postId, String title) {}
+
+  @Test
+  void testModuleShouldNotBeRegisteredOnJsonUtils() throws Exception {
+    var event = NdjsonEventMessageCodecTest.sampleEvents().get(0);
+
+    // The bean path does not resolve the payload from the event type
+    assertInstanceOf(
+        Map.class,
+        JsonUtils.toObject(MODULE_MAPPER.writeValueAsString(event), EventMessageWrapper.class)
+            .data());
+  }
+
+  @Test
+  void testDeserializationShouldHonorFailOnUnknownProperties() {
+    var strictMapper =
+        JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new EventMessageModule())
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    var postId = UUID.randomUUID();
+
+    assertEquals(
+        new NewPostEvent(postId, "Title", null),
+        assertDoesNotThrow(
+            () ->
+                strictMapper.readValue(
+                    """
+                    {"postId":"%s","title":"Title","id":"%s"}"""
+                        .formatted(postId, postId),
+                    NewPostEvent.class)));
+    assertThrows(
+        UnrecognizedPropertyException.class,
+        () -> strictMapper.readValue("{\"unknown\":1}", NewPostEvent.class));
+  }
+
+  @Test
+  void testDeserializationShouldThrowOnInvalidValues() {
+    assertThrows(
+        JsonProcessingException.class,
+        () -> MODULE_MAPPER.readValue("{\"postId\":\"not-a-uuid\"}", NewPostEvent.class));
+    assertThrows(
+        JsonProcessingException.class,
+        () ->
+            MODULE_MAPPER.readValue("{\"eventType\":\"UNKNOWN\"}", EventMessageWrapper.class));
+    assertThrows(
+        JsonProcessingException.class, () -> MODULE_MAPPER.readValue("[]", ActionUser.class));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Format.class)
+  void testEventsShouldRoundTripInEveryFormat(Format format) throws Exception {
+    for (var event : NdjsonEventMessageCodecTest.sampleEvents()) {
+      var bytes = mapperOf(format).writeValueAsBytes(event);
+
+      assertEquals(event, mapperOf(format).readValue(bytes, EventMessageWrapper.class));
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = Format.class, names = {"SMILE", "CBOR"})
+  void testBinaryFormatsShouldBeSmallerThanJSON(Format format) throws Exception {
+    for (var event : NdjsonEventMessageCodecTest.sampleEvents()) {
+      var jsonSize = MODULE_MAPPER.writeValueAsBytes(event).length;
+      var binarySize = mapperOf(format).writeValueAsBytes(event).length;
+
+      assertTrue(
+          binarySize < jsonSize * 0.8,
+          "%s size %d should be well below JSON size %d".formatted(format, binarySize, jsonSize));
+    }
+  }
+}
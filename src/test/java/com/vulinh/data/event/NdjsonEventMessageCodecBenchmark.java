@@ -0,0 +1,103 @@
+package com.vulinh.data.event;
+
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.data.event.payload.NewPostEvent;
+import com.vulinh.utils.JsonUtils;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the batch encoding and the streaming decoding of {@link NdjsonEventMessageCodec} with
+ * serializing every event on its own through {@link JsonUtils}. Run the {@link #main(String[])}
+ * method after compiling the test sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class NdjsonEventMessageCodecBenchmark {
+
+  @Param({"1000"})
+  public int batchSize;
+
+  List<EventMessageWrapper<?>> events;
+  List<String> lines;
+  NdjsonEventMessageCodec codec;
+  ByteBuffer encoded;
+
+  @Setup
+  public void setUp() {
+    var actionUser = new ActionUser(UUID.randomUUID(), "alice");
+
+    events = new ArrayList<>(batchSize);
+
+    for (var index = 0; index < batchSize; index++) {
+      var postId = UUID.randomUUID();
+
+      events.add(
+          index % 2 == 0
+              ? EventMessageWrapper.<NewPostEvent>builder()
+                  .eventType(EventType.NEW_POST)
+                  .actionUser(actionUser)
+                  .data(new NewPostEvent(postId, "Title " + index, "Excerpt of post " + index))
+                  .build()
+              : EventMessageWrapper.<NewCommentEvent>builder()
+                  .eventType(EventType.NEW_COMMENT)
+                  .actionUser(actionUser)
+                  .data(
+                      new NewCommentEvent(
+                          postId, "Title " + index, null, UUID.randomUUID(), "Comment " + index))
+                  .build());
+    }
+
+    lines = events.stream().map(JsonUtils::toMinimizedJSON).toList();
+    codec = new NdjsonEventMessageCodec();
+    encoded = new NdjsonEventMessageCodec().encode(events);
+  }
+
+  @Benchmark
+  public void encodePerEvent(Blackhole blackhole) {
+    for (var event : events) {
+      blackhole.consume(JsonUtils.toMinimizedJSON(event).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Benchmark
+  public ByteBuffer encodeBatch() {
+    return codec.encode(events);
+  }
+
+  @Benchmark
+  public void decodePerEvent(Blackhole blackhole) {
+    // The existing path, which leaves the payloads as generic maps
+    for (var line : lines) {
+      blackhole.consume(JsonUtils.toObject(line, EventMessageWrapper.class));
+    }
+  }
+
+  @Benchmark
+  public void decodeStreaming(Blackhole blackhole) {
+    try (var decoded = NdjsonEventMessageCodec.decode(encoded)) {
+      decoded.forEach(blackhole::consume);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(NdjsonEventMessageCodecBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,148 @@
+package com.vulinh.data.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.data.event.payload.NewPostEvent;
+import com.vulinh.data.event.payload.NewPostFollowingEvent;
+import com.vulinh.data.event.payload.NewSubscriberEvent;
+import com.vulinh.utils.JsonUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class NdjsonEventMessageCodecTest {
+
+  static final ActionUser ACTION_USER = new ActionUser(UUID.randomUUID(), "alice");
+
+  static List<EventMessageWrapper<?>> sampleEvents() {
+    var postId = UUID.randomUUID();
+
+    return List.of(
+        event(EventType.NEW_POST, new NewPostEvent(postId, "Title", "Excerpt")),
+        event(
+            EventType.NEW_COMMENT,
+            new NewCommentEvent(postId, "Title", null, UUID.randomUUID(), "Nice post")),
+        event(EventType.NEW_SUBSCRIBER, new NewSubscriberEvent(UUID.randomUUID(), "bob")),
+        event(EventType.NEW_POST_FOLLOWING, new NewPostFollowingEvent(postId, "Title", "")));
+  }
+
+  static <T> EventMessageWrapper<T> event(EventType eventType, T data) {
+    return EventMessageWrapper.<T>builder()
+        .eventType(eventType)
+        .actionUser(ACTION_USER)
+        .data(data)
+        .build();
+  }
+
+  @Test
+  void testEncodeShouldWriteOneMinimizedJSONPerLine() {
+    var events = sampleEvents();
+
+    var encoded = new NdjsonEventMessageCodec().encode(events);
+
+    var bytes = new byte[encoded.remaining()];
+    encoded.get(bytes);
+
+    var lines = new String(bytes, StandardCharsets.UTF_8).split("\n", -1);
+
+    assertEquals(events.size() + 1, lines.length);
+    assertEquals("", lines[events.size()], "Every line should end with a line separator");
+
+    for (var index = 0; index < events.size(); index++) {
+      assertEquals(JsonUtils.toMinimizedJSON(events.get(index)), lines[index]);
+    }
+  }
+
+  @Test
+  void testEncodeShouldReuseBuffer() {
+    var codec = new NdjsonEventMessageCodec(16);
+    var events = sampleEvents();
+
+    var first = codec.encode(events).remaining();
+    var second = codec.encode(events.subList(0, 1)).remaining();
+
+    assertTrue(second < first);
+    assertEquals(0, codec.encode(List.of()).remaining());
+  }
+
+  @Test
+  void testDecodeShouldResolvePayloadFromEventType() {
+    var events = sampleEvents();
+
+    try (var decoded = NdjsonEventMessageCodec.decode(new NdjsonEventMessageCodec().encode(events))) {
+      assertEquals(events, decoded.toList());
+    }
+  }
+
+  @Test
+  void testStreamingEncodeShouldRoundTrip() {
+    var events = sampleEvents();
+    var outputStream = new ByteArrayOutputStream();
+
+    assertEquals(4, NdjsonEventMessageCodec.encode(events.stream(), outputStream));
+
+    try (var decoded =
+        NdjsonEventMessageCodec.decode(new ByteArrayInputStream(outputStream.toByteArray()))) {
+      assertEquals(events, decoded.toList());
+    }
+  }
+
+  @Test
+  void testDecodeShouldBufferDataPrecedingEventType() {
+    var postId = UUID.randomUUID();
+    var line =
+        """
+        {"data":{"postId":"%s","title":"Title","id":"%s"},"unknown":[1,{"a":2}],"eventType":"NEW_POST"}
+
+        """
+            .formatted(postId, postId);
+
+    try (var decoded = NdjsonEventMessageCodec.decode(new StringReader(line))) {
+      var events = decoded.toList();
+
+      assertEquals(1, events.size());
+      assertEquals(EventType.NEW_POST, events.get(0).eventType());
+      assertEquals(new NewPostEvent(postId, "Title", null), events.get(0).data());
+      assertNotNull(events.get(0).eventId());
+    }
+  }
+
+  @Test
+  void testDecodeWithoutEventTypeShouldKeepGenericData() {
+    try (var decoded = NdjsonEventMessageCodec.decode(new StringReader("{\"data\":{\"a\":1}}"))) {
+      assertEquals(Map.of("a", 1), decoded.findFirst().orElseThrow().data());
+    }
+  }
+
+  @Test
+  void testDecodeShouldThrowOnMalformedLine() {
+    var lines = JsonUtils.toMinimizedJSON(sampleEvents().get(0)) + "\n[1, 2]\n";
+
+    try (var decoded = NdjsonEventMessageCodec.decode(new StringReader(lines))) {
+      var iterator = decoded.iterator();
+
+      assertNotNull(iterator.next());
+
+      var exception = assertThrows(IllegalArgumentException.class, iterator::next);
+
+      assertEquals("JSON deserialization error", exception.getMessage());
+    }
+  }
+
+  @Test
+  void testDecodeShouldReadEmptyInput() {
+    try (var decoded = NdjsonEventMessageCodec.decode(new StringReader("\n\n"))) {
+      assertEquals(0, decoded.count());
+    }
+
+    assertEquals(
+        0, NdjsonEventMessageCodec.encode(Stream.empty(), new ByteArrayOutputStream()));
+  }
+}
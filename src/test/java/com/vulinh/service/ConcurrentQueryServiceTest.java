@@ -0,0 +1,187 @@
+package com.vulinh.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.querydsl.core.types.Predicate;
+import com.vulinh.data.base.AbstractEntity;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.querydsl.ListQuerydslPredicateExecutor;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+class ConcurrentQueryServiceTest {
+
+  static final ThreadLocal<String> CALLER_CONTEXT = new ThreadLocal<>();
+
+  static final class Post extends AbstractEntity<Long> {
+
+    final Long id;
+
+    Post(Long id) {
+      this.id = id;
+    }
+
+    @Override
+    public Long getId() {
+      return id;
+    }
+  }
+
+  static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) {
+      return new SimpleTransactionStatus();
+    }
+
+    @Override
+    public void commit(TransactionStatus status) {
+      // Nothing to commit
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) {
+      // Nothing to roll back
+    }
+  }
+
+  static final class ThreadRecordingService
+      implements ConcurrentQueryService<Post, String, String> {
+
+    final Semaphore countPermits;
+    final boolean hasNext;
+    final CountDownLatch countLatch = new CountDownLatch(1);
+
+    volatile Thread convertingThread;
+    volatile String convertingContext;
+    volatile Thread countingThread;
+    volatile String countingRequestId;
+
+    ThreadRecordingService(int countPermits, boolean hasNext) {
+      this.countPermits = new Semaphore(countPermits);
+      this.hasNext = hasNext;
+
+      if (hasNext) {
+        countLatch.countDown();
+      }
+    }
+
+    @Override
+    public String toDto(Post entity) {
+      convertingThread = Thread.currentThread();
+      convertingContext = CALLER_CONTEXT.get();
+
+      return "post-" + entity.getId();
+    }
+
+    @Override
+    public Predicate buildSearchPredicate(String searchCriteria) {
+      return null;
+    }
+
+    @Override
+    public long countTotal(Predicate predicate) {
+      countingThread = Thread.currentThread();
+      countingRequestId = MDC.get("requestId");
+
+      try {
+        countLatch.await();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+
+      return 42;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ListQuerydslPredicateExecutor<Post> getRepository() {
+      var content = List.of(new Post(1L), new Post(2L));
+      FetchableFluentQuery<Post> query =
+          proxy(
+              FetchableFluentQuery.class,
+              (proxy, method, args) -> new SliceImpl<>(content, PageRequest.of(0, 2), hasNext));
+
+      return proxy(
+          ListQuerydslPredicateExecutor.class,
+          (proxy, method, args) -> ((Function<Object, Object>) args[1]).apply(query));
+    }
+
+    @Override
+    public PlatformTransactionManager getTransactionManager() {
+      return new NoOpTransactionManager();
+    }
+
+    @Override
+    public Semaphore getConcurrentCountPermits() {
+      return countPermits;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> T proxy(Class<?> type, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+  }
+
+  @AfterEach
+  void clearContext() {
+    CALLER_CONTEXT.remove();
+    MDC.clear();
+  }
+
+  @Test
+  void testSearchConcurrentlyShouldConvertOnCallingThread() {
+    var service = new ThreadRecordingService(1, true);
+
+    CALLER_CONTEXT.set("caller");
+    MDC.put("requestId", "request-1");
+
+    var page = service.searchConcurrently("", PageRequest.of(0, 2));
+
+    assertEquals(List.of("post-1", "post-2"), page.getContent());
+    assertEquals(42, page.getTotalElements());
+    assertSame(Thread.currentThread(), service.convertingThread);
+    assertEquals("caller", service.convertingContext);
+    assertNotSame(Thread.currentThread(), service.countingThread);
+    assertEquals("request-1", service.countingRequestId);
+    assertEquals(1, service.countPermits.availablePermits());
+  }
+
+  @Test
+  void testSearchConcurrentlyShouldCountAfterContentWithoutFreePermit() {
+    var service = new ThreadRecordingService(0, true);
+
+    var page = service.searchConcurrently("", PageRequest.of(0, 2));
+
+    assertEquals(42, page.getTotalElements());
+    assertSame(Thread.currentThread(), service.countingThread);
+  }
+
+  @Test
+  void testSearchConcurrentlyShouldReleasePermitOfUselessCount() throws InterruptedException {
+    var service = new ThreadRecordingService(1, false);
+
+    // The count is still running, or skipped, when the last page is returned
+    var page = service.searchConcurrently("", PageRequest.of(0, 2));
+
+    assertEquals(2, page.getTotalElements());
+
+    service.countLatch.countDown();
+
+    assertTrue(service.countPermits.tryAcquire(5, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,105 @@
+package com.vulinh.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.vulinh.utils.DslOrderBuilder;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+  static final PathBuilder<Post> POST = new PathBuilder<>(Post.class, "post");
+
+  static final List<OrderSpecifier<?>> ORDERS =
+      List.of(
+          DslOrderBuilder.fromField(POST.getDateTime("createdDate", Instant.class)).withDesc(),
+          DslOrderBuilder.fromField(POST.get("author", Author.class).getString("name")).withAsc(),
+          DslOrderBuilder.fromField(POST.getComparable("id", UUID.class)).withAsc());
+
+  public static class Author {
+
+    String name;
+
+    public String getName() {
+      return name;
+    }
+  }
+
+  public static class Post {
+
+    UUID id;
+    Instant createdDate;
+    Author author;
+
+    public UUID getId() {
+      return id;
+    }
+
+    public Instant getCreatedDate() {
+      return createdDate;
+    }
+
+    public Author getAuthor() {
+      return author;
+    }
+  }
+
+  @Test
+  void testDecodeShouldRestoreEncodedValuesWithTheirTypes() {
+    var post = new Post();
+
+    post.id = UUID.randomUUID();
+    post.createdDate = Instant.parse("2025-01-02T03:04:05.678Z");
+    post.author = new Author();
+    post.author.name = "Linh";
+
+    var cursor = KeysetCursor.encode(ORDERS, post);
+
+    assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+    assertEquals(
+        List.of(post.createdDate, "Linh", post.id), KeysetCursor.decode(ORDERS, cursor));
+  }
+
+  @Test
+  void testEncodeShouldTreatMissingAssociationAsNull() {
+    var post = new Post();
+
+    post.id = UUID.randomUUID();
+
+    assertEquals(
+        Arrays.asList(null, null, post.id),
+        KeysetCursor.decode(ORDERS, KeysetCursor.encode(ORDERS, post)));
+  }
+
+  @Test
+  void testDecodeShouldRejectInvalidCursor() {
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(ORDERS, "@@"));
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(ORDERS, "e30"));
+
+    // The cursor of another ordering
+    var cursor = KeysetCursor.encode(ORDERS.subList(2, 3), new Post());
+
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(ORDERS, cursor));
+  }
+
+  @Test
+  void testPropertyPathOfShouldRejectNonPropertyTargets() {
+    assertEquals("author.name", KeysetCursor.propertyPathOf(ORDERS.get(1)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            KeysetCursor.propertyPathOf(
+                DslOrderBuilder.fromField(POST.getString("title").lower()).withAsc()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            KeysetCursor.propertyPathOf(
+                DslOrderBuilder.fromField(Expressions.stringPath("title")).withAsc()));
+  }
+}
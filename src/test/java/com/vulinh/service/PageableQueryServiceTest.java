@@ -0,0 +1,85 @@
+package com.vulinh.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.querydsl.core.types.Predicate;
+import com.vulinh.data.base.AbstractEntity;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.querydsl.ListQuerydslPredicateExecutor;
+
+class PageableQueryServiceTest {
+
+  final PrefetchRecordingService service = new PrefetchRecordingService();
+
+  static final class Post extends AbstractEntity<Long> {
+
+    final Long id;
+
+    Post(Long id) {
+      this.id = id;
+    }
+
+    @Override
+    public Long getId() {
+      return id;
+    }
+  }
+
+  static final class PrefetchRecordingService
+      implements PageableQueryService<Post, String, String> {
+
+    final List<List<Post>> prefetches = new ArrayList<>();
+
+    @Override
+    public String toDto(Post entity) {
+      // The associations must be prefetched before any conversion
+      assertEquals(1, prefetches.size());
+
+      return "post-" + entity.getId();
+    }
+
+    @Override
+    public void prefetchAssociations(List<Post> entities) {
+      prefetches.add(entities);
+    }
+
+    @Override
+    public Predicate buildSearchPredicate(String searchCriteria) {
+      return null;
+    }
+
+    @Override
+    public ListQuerydslPredicateExecutor<Post> getRepository() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  @Test
+  void testToDtosShouldPrefetchWholePageOnceBeforeConverting() {
+    var first = new Post(3L);
+    var second = new Post(1L);
+
+    assertEquals(List.of("post-3", "post-1"), service.toDtos(List.of(first, second)));
+    assertEquals(List.of(List.of(first, second)), service.prefetches);
+  }
+
+  @Test
+  void testToDtosShouldConvertDuplicatedEntities() {
+    var post = new Post(3L);
+
+    assertEquals(List.of("post-3", "post-3"), service.toDtos(List.of(post, post)));
+  }
+
+  @Test
+  void testToDtosShouldNotPrefetchEmptyPage() {
+    assertTrue(service.toDtos(List.of()).isEmpty());
+    assertTrue(service.prefetches.isEmpty());
+  }
+
+  @Test
+  void testGetEntityTypeShouldResolveTypeArgument() {
+    assertEquals(Post.class, service.getEntityType());
+  }
+}
@@ -0,0 +1,124 @@
+package com.vulinh.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.vulinh.data.base.AbstractEntity;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.querydsl.ListQuerydslPredicateExecutor;
+
+class SearchPagesTest {
+
+  static final Predicate PREDICATE = Expressions.stringPath("title").eq("a");
+
+  final CountingService service = new CountingService();
+
+  static final class CountingService
+      implements PageableQueryService<AbstractEntity<Long>, String, String> {
+
+    TotalCountCache totalCountCache;
+    int countCount;
+
+    @Override
+    public String toDto(AbstractEntity<Long> entity) {
+      return String.valueOf(entity.getId());
+    }
+
+    @Override
+    public Predicate buildSearchPredicate(String searchCriteria) {
+      return PREDICATE;
+    }
+
+    @Override
+    public ListQuerydslPredicateExecutor<AbstractEntity<Long>> getRepository() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TotalCountCache getTotalCountCache() {
+      return totalCountCache;
+    }
+
+    @Override
+    public long countTotal(Predicate predicate) {
+      countCount++;
+
+      return 100;
+    }
+  }
+
+  @Test
+  void testOfShouldNotCountLastPage() {
+    var page = SearchPages.of(service, List.of("a", "b"), false, PageRequest.of(3, 5), PREDICATE);
+
+    assertEquals(17, page.getTotalElements());
+    assertEquals(0, service.countCount);
+  }
+
+  @Test
+  void testOfShouldNotCountFullLastPage() {
+    var page = SearchPages.of(service, List.of("a", "b"), false, PageRequest.of(1, 2), PREDICATE);
+
+    assertEquals(4, page.getTotalElements());
+    assertFalse(page.hasNext());
+    assertEquals(0, service.countCount);
+  }
+
+  @Test
+  void testOfShouldCountPageWithNextPage() {
+    var page = SearchPages.of(service, List.of("a", "b"), true, PageRequest.of(1, 2), PREDICATE);
+
+    assertEquals(100, page.getTotalElements());
+    assertEquals(1, service.countCount);
+  }
+
+  @Test
+  void testOfShouldCountThroughTotalCountCache() {
+    service.totalCountCache = new TotalCountCache();
+
+    for (var pageNumber = 0; pageNumber < 3; pageNumber++) {
+      SearchPages.of(service, List.of("a"), true, PageRequest.of(pageNumber, 1), PREDICATE);
+    }
+
+    assertEquals(1, service.countCount);
+  }
+
+  @Test
+  void testOfShouldNotCountUnpagedContent() {
+    var page = SearchPages.of(service, List.of("a", "b"), false, Pageable.unpaged(), null);
+
+    assertEquals(2, page.getTotalElements());
+    assertEquals(0, service.countCount);
+  }
+
+  @Test
+  void testJoinShouldRethrowFailureAndCancelOtherQuery() {
+    var failure = new IllegalArgumentException("boom");
+    var otherFuture = new CompletableFuture<Long>();
+
+    var exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SearchPages.join(CompletableFuture.failedFuture(failure), otherFuture));
+
+    assertSame(failure, exception);
+    assertTrue(otherFuture.isCancelled());
+  }
+
+  @Test
+  void testJoinShouldWrapCheckedFailure() {
+    var exception =
+        assertThrows(
+            IllegalStateException.class,
+            () -> SearchPages.join(CompletableFuture.failedFuture(new IOException()), null));
+
+    assertInstanceOf(IOException.class, exception.getCause());
+    assertEquals(42, SearchPages.join(CompletableFuture.completedFuture(42), null));
+  }
+}
@@ -0,0 +1,169 @@
+package com.vulinh.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.StringPath;
+import com.vulinh.utils.PredicateBuilder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+class SearchResultCacheTest {
+
+  static final StringPath TITLE = Expressions.stringPath("title");
+
+  final AtomicLong nanoTime = new AtomicLong();
+  final AtomicInteger loadCount = new AtomicInteger();
+
+  final SearchResultCache cache = new SearchResultCache(Duration.ofSeconds(10), 2, nanoTime::get);
+
+  String load() {
+    return "result-" + loadCount.incrementAndGet();
+  }
+
+  String get(Class<?> entityType, String title, int pageNumber) {
+    return cache.get(
+        entityType, "search", TITLE.eq(title), PageRequest.of(pageNumber, 10), this::load);
+  }
+
+  @Test
+  void testGetShouldLoadOncePerKey() {
+    assertEquals("result-1", get(String.class, "a", 0));
+    assertEquals("result-1", get(String.class, "a", 0));
+
+    // Wrapped in a builder, still the same search
+    assertEquals(
+        "result-1",
+        cache.get(
+            String.class,
+            "search",
+            PredicateBuilder.and(TITLE.eq("a")),
+            PageRequest.of(0, 10),
+            this::load));
+
+    assertEquals("result-2", get(String.class, "a", 1));
+    assertEquals("result-3", get(Integer.class, "a", 0));
+  }
+
+  @Test
+  void testGetShouldLoadAgainOnceExpired() {
+    get(String.class, "a", 0);
+    nanoTime.addAndGet(Duration.ofSeconds(10).toNanos() - 1);
+
+    assertEquals("result-1", get(String.class, "a", 0));
+
+    nanoTime.incrementAndGet();
+
+    assertEquals("result-2", get(String.class, "a", 0));
+  }
+
+  @Test
+  void testGetShouldEvictLeastRecentlyUsedResult() {
+    get(String.class, "a", 0);
+    get(String.class, "b", 0);
+    get(String.class, "a", 0);
+    get(String.class, "c", 0);
+
+    assertEquals(2, cache.size());
+    assertEquals("result-1", get(String.class, "a", 0));
+    assertEquals("result-4", get(String.class, "b", 0));
+  }
+
+  @Test
+  void testGetShouldNotCacheFailure() {
+    var failure = new IllegalStateException("boom");
+
+    assertSame(
+        failure,
+        assertThrows(
+            IllegalStateException.class,
+            () ->
+                cache.get(
+                    String.class,
+                    "search",
+                    null,
+                    PageRequest.of(0, 1),
+                    () -> {
+                      throw failure;
+                    })));
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void testGetShouldLoadConcurrentMissesOnce() throws Exception {
+    var isLoading = new CountDownLatch(1);
+    var canFinish = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var loader =
+          executor.submit(
+              () ->
+                  cache.get(
+                      String.class,
+                      "search",
+                      null,
+                      PageRequest.of(0, 1),
+                      () -> {
+                        isLoading.countDown();
+                        await(canFinish);
+
+                        return load();
+                      }));
+
+      await(isLoading);
+
+      var waiters = new ArrayList<Future<String>>();
+
+      for (var index = 0; index < 4; index++) {
+        waiters.add(
+            executor.submit(
+                () -> cache.get(String.class, "search", null, PageRequest.of(0, 1), this::load)));
+      }
+
+      canFinish.countDown();
+
+      assertEquals("result-1", loader.get(5, TimeUnit.SECONDS));
+
+      for (var waiter : waiters) {
+        assertEquals("result-1", waiter.get(5, TimeUnit.SECONDS));
+      }
+    }
+
+    assertEquals(1, loadCount.get());
+  }
+
+  @Test
+  void testInvalidateShouldForgetResultsOfEntityType() {
+    get(String.class, "a", 0);
+    get(Integer.class, "a", 0);
+
+    cache.invalidate(String.class);
+
+    assertEquals(1, cache.size());
+    assertEquals("result-3", get(String.class, "a", 0));
+    assertEquals("result-2", get(Integer.class, "a", 0));
+
+    cache.invalidateAll();
+
+    assertEquals(0, cache.size());
+  }
+
+  static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+
+      throw new IllegalStateException(exception);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.vulinh.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.StringPath;
+import com.vulinh.utils.PredicateBuilder;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TotalCountCacheTest {
+
+  static final StringPath TITLE = Expressions.stringPath("title");
+
+  static final class Post {}
+
+  static final class Comment {}
+
+  final AtomicLong nanoTime = new AtomicLong();
+  final AtomicLong countCount = new AtomicLong();
+
+  final TotalCountCache cache = new TotalCountCache(Duration.ofSeconds(10), 2, nanoTime::get);
+
+  long count() {
+    return 40 + countCount.incrementAndGet();
+  }
+
+  @Test
+  void testGetShouldCountOncePerNormalizedPredicate() {
+    assertEquals(41, cache.get(Post.class, TITLE.eq("a"), this::count));
+
+    // Wrapped in a builder by PredicateBuilder.and, still the same search
+    assertEquals(41, cache.get(Post.class, PredicateBuilder.and(TITLE.eq("a")), this::count));
+    assertEquals(42, cache.get(Post.class, TITLE.eq("b"), this::count));
+
+    // No predicate matches everything
+    assertEquals(43, cache.get(Post.class, null, this::count));
+    assertEquals(43, cache.get(Post.class, PredicateBuilder.and(null), this::count));
+  }
+
+  @Test
+  void testGetShouldCountAgainOnceExpired() {
+    assertEquals(41, cache.get(Post.class, TITLE.eq("a"), this::count));
+
+    nanoTime.addAndGet(Duration.ofSeconds(10).toNanos() - 1);
+
+    assertEquals(41, cache.get(Post.class, TITLE.eq("a"), this::count));
+
+    nanoTime.incrementAndGet();
+
+    assertEquals(42, cache.get(Post.class, TITLE.eq("a"), this::count));
+  }
+
+  @Test
+  void testGetShouldEvictLeastRecentlyUsedTotal() {
+    cache.get(Post.class, TITLE.eq("a"), this::count);
+    cache.get(Post.class, TITLE.eq("b"), this::count);
+    cache.get(Post.class, TITLE.eq("a"), this::count);
+    cache.get(Post.class, TITLE.eq("c"), this::count);
+
+    assertEquals(2, cache.size());
+    assertEquals(41, cache.get(Post.class, TITLE.eq("a"), this::count));
+    assertEquals(44, cache.get(Post.class, TITLE.eq("b"), this::count));
+  }
+
+  @Test
+  void testInvalidateShouldForgetTotals() {
+    cache.get(Post.class, TITLE.eq("a"), this::count);
+    cache.get(Post.class, TITLE.eq("b"), this::count);
+    cache.invalidate(Post.class, PredicateBuilder.or(TITLE.eq("a")));
+
+    assertEquals(1, cache.size());
+    assertEquals(43, cache.get(Post.class, TITLE.eq("a"), this::count));
+
+    cache.invalidateAll();
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void testGetShouldKeepTotalsOfEntityTypesApart() {
+    assertEquals(41, cache.get(Post.class, null, this::count));
+    assertEquals(42, cache.get(Comment.class, null, this::count));
+    assertEquals(41, cache.get(Post.class, null, this::count));
+
+    cache.invalidate(Comment.class);
+
+    assertEquals(1, cache.size());
+    assertEquals(43, cache.get(Comment.class, null, this::count));
+  }
+
+  @Test
+  void testGetShouldNotCacheTotalInvalidatedWhileCounting() {
+    // An entity is written while the total is being counted
+    assertEquals(
+        41,
+        cache.get(
+            Post.class,
+            TITLE.eq("a"),
+            () -> {
+              cache.invalidate(Post.class);
+              return count();
+            }));
+
+    assertEquals(42, cache.get(Post.class, TITLE.eq("a"), this::count));
+    assertEquals(42, cache.get(Post.class, TITLE.eq("a"), this::count));
+  }
+
+  @Test
+  void testGetShouldNotCacheFailedCount() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                Post.class,
+                TITLE.eq("a"),
+                () -> {
+                  throw new IllegalStateException();
+                }));
+
+    assertEquals(0, cache.size());
+    assertEquals(41, cache.get(Post.class, TITLE.eq("a"), this::count));
+  }
+
+  @Test
+  void testConstructorShouldRejectInvalidBounds() {
+    assertThrows(IllegalArgumentException.class, () -> new TotalCountCache(Duration.ZERO, 1));
+    assertThrows(
+        IllegalArgumentException.class, () -> new TotalCountCache(Duration.ofSeconds(1), 0));
+  }
+}
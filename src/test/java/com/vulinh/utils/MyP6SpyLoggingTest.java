@@ -0,0 +1,232 @@
+package com.vulinh.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.p6spy.engine.logging.Category;
+import com.vulinh.utils.MyP6SpyLogging.LogCategory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+class MyP6SpyLoggingTest {
+
+  static final String PREPARED = "insert into post (id, title) values (?, ?)";
+
+  final RecordingOutput output = new RecordingOutput();
+  final List<String> lines = output.statements;
+
+  static final class RecordingOutput implements SqlLogOutput {
+
+    final List<String> statements = new CopyOnWriteArrayList<>();
+    final List<String> slowStatements = new CopyOnWriteArrayList<>();
+    final List<String> reports = new CopyOnWriteArrayList<>();
+
+    boolean isStatementEnabled = true;
+
+    @Override
+    public boolean isStatementEnabled() {
+      return isStatementEnabled;
+    }
+
+    @Override
+    public void statement(String line) {
+      statements.add(line);
+    }
+
+    @Override
+    public void slowStatement(String line) {
+      slowStatements.add(line);
+    }
+
+    @Override
+    public void report(String report) {
+      reports.add(report);
+    }
+  }
+
+  @Test
+  void testLogCategoryOfShouldResolveP6SpyConstantsByIdentity() {
+    for (var logCategory : LogCategory.values()) {
+      assertSame(logCategory, LogCategory.of(logCategory.category));
+    }
+  }
+
+  @Test
+  void testLogCategoryOfShouldFallBackToCaseInsensitiveName() {
+    assertSame(LogCategory.COMMIT, LogCategory.of(new Category("commit")));
+    assertNull(LogCategory.of(new Category("custom")));
+  }
+
+  @Test
+  void testLogSQLShouldWriteStatementsAndCategoryMessagesInOrder() {
+    var logging = new MyP6SpyLogging(16, new SqlLogWriter(output));
+
+    logging.logSQL(1, "", 3, Category.STATEMENT, "select 1", "select 1", "");
+    logging.logSQL(1, "", 0, Category.COMMIT, "", "", "");
+    logging.logSQL(2, "", 0, Category.ROLLBACK, "", null, "");
+    logging.logSQL(2, "", 0, Category.RESULT, "", "", "");
+    logging.buffer.close();
+
+    assertEquals(
+        List.of(
+            "select 1",
+            "#1 [ COMMIT ] - Transaction committed",
+            "#2 [ ROLLBACK ] - Transaction rolled back",
+            "#2 [ RESULT ] - ..."),
+        lines);
+  }
+
+  @Test
+  void testLogSQLShouldSummarizeBatchInOneLine() {
+    var logging = new MyP6SpyLogging(16, new SqlLogWriter(output));
+    var buffer = logging.buffer;
+
+    // Pretend the writer thread is already running, so that it cannot go idle mid-batch
+    buffer.consumer = Thread.currentThread();
+
+    for (var index = 0; index < 5; index++) {
+      logging.logSQL(
+          1, "", 1, Category.BATCH, PREPARED, "insert ... values (%d, 'x')".formatted(index), "");
+    }
+
+    logging.logSQL(1, "", 0, Category.COMMIT, "", "", "");
+
+    buffer.isRunning = false;
+    buffer.consume();
+    buffer.consumer = null;
+
+    assertEquals(
+        List.of(
+            "#1 [ BATCH ] - 5 batched execution(s) in 5 ms: " + PREPARED,
+            "#1 [ COMMIT ] - Transaction committed"),
+        lines);
+  }
+
+  @Test
+  void testWriterShouldKeepBatchesOfConnectionsApart() {
+    var writer = new SqlLogWriter(output);
+
+    writer.write(event(1, LogCategory.BATCH, PREPARED, "a"));
+    writer.write(event(2, LogCategory.BATCH, PREPARED, "b"));
+    writer.write(event(1, LogCategory.BATCH, PREPARED, "c"));
+    writer.write(event(1, LogCategory.BATCH, "delete from post where id = ?", "d"));
+    writer.flush();
+
+    // Changing the statement of connection 1 ends its batch, the other ones end on flush
+    assertEquals(3, lines.size());
+    assertEquals("#1 [ BATCH ] - 2 batched execution(s) in 2 ms: " + PREPARED, lines.get(0));
+    assertEquals(Set.of("b", "d"), Set.copyOf(lines.subList(1, 3)));
+  }
+
+  @Test
+  void testPublishShouldDropEventsWhenBufferIsFull() {
+    try (var buffer = new SqlLogRingBuffer(2, new SqlLogWriter(output))) {
+      // Pretend the writer thread is already running, so that nothing is consumed
+      buffer.consumer = Thread.currentThread();
+
+      assertTrue(buffer.publish(1, 0, LogCategory.STATEMENT, "", "select 1"));
+      assertTrue(buffer.publish(1, 0, LogCategory.STATEMENT, "", "select 2"));
+      assertFalse(buffer.publish(1, 0, LogCategory.STATEMENT, "", "select 3"));
+      assertEquals(1, buffer.getDroppedCount());
+
+      buffer.consumer = null;
+    }
+  }
+
+  @Test
+  void testDefaultConstructorShouldShareBuffer() {
+    assertSame(new MyP6SpyLogging().buffer, new MyP6SpyLogging().buffer);
+  }
+
+  @Test
+  void testConstructorShouldRoundCapacityUpToPowerOfTwo() {
+    var writer = new SqlLogWriter(output);
+
+    assertEquals(8, new SqlLogRingBuffer(5, writer).capacity);
+    assertThrows(IllegalArgumentException.class, () -> new SqlLogRingBuffer(0, writer));
+  }
+
+  @Test
+  void testCloseShouldReportStatisticsPerFingerprint() {
+    var logging = new MyP6SpyLogging(16, new SqlLogWriter(output));
+
+    output.isStatementEnabled = false;
+
+    for (var index = 0; index < 3; index++) {
+      logging.logSQL(
+          1,
+          "",
+          index,
+          Category.STATEMENT,
+          "select * from post where id in (?, ?)",
+          "select * from post where id in (%d, 2)".formatted(index),
+          "");
+    }
+
+    logging.logSQL(
+        1, "", 7, Category.STATEMENT, "", "select * from post where id in (1, 2, 3)", "");
+    logging.logSQL(1, "", 1, Category.RESULTSET, "", "select * from post", "");
+    logging.buffer.close();
+
+    assertTrue(lines.isEmpty());
+    assertEquals(1, output.reports.size());
+
+    var report = output.reports.get(0);
+
+    assertTrue(report.contains("4 execution(s) of 1 statement(s)"), report);
+    assertTrue(
+        report.contains(
+            "count=4 total=10ms mean=2.5ms min=0ms max=7ms p50<=1ms p95<=7ms p99<=7ms"
+                + " | select * from post where id in (...)"),
+        report);
+  }
+
+  @Test
+  void testReportIfDueShouldReportOncePerInterval() {
+    var writer = new SqlLogWriter(output, Duration.ofSeconds(10), 5);
+
+    writer.write(event(1, LogCategory.STATEMENT, "select 1", "select 1"));
+    writer.reportIfDue(writer.lastReportNanos + Duration.ofSeconds(9).toNanos());
+
+    assertTrue(output.reports.isEmpty());
+
+    writer.reportIfDue(writer.lastReportNanos + Duration.ofSeconds(10).toNanos());
+    writer.reportIfDue(writer.lastReportNanos + Duration.ofSeconds(10).toNanos());
+
+    // Nothing happened during the second interval, so there is nothing to report
+    assertEquals(1, output.reports.size());
+    assertTrue(output.reports.get(0).startsWith("SQL statistics of the last 10 s"));
+  }
+
+  @Test
+  void testWriterShouldCountBatchAsSingleExecution() {
+    var writer = new SqlLogWriter(output);
+
+    for (var index = 0; index < 4; index++) {
+      writer.write(
+          event(1, LogCategory.BATCH, PREPARED, "insert ... values (%d)".formatted(index)));
+    }
+
+    writer.flush();
+
+    var entry = writer.statistics.entries.get(SqlFingerprint.of(PREPARED));
+
+    assertEquals(1, entry.count);
+    assertEquals(4, entry.totalMillis);
+  }
+
+  static SqlLogRingBuffer.SqlEvent event(
+      int connectionId, LogCategory category, String prepared, String sql) {
+    var event = new SqlLogRingBuffer.SqlEvent();
+
+    event.connectionId = connectionId;
+    event.elapsedMillis = 1;
+    event.category = category;
+    event.prepared = prepared;
+    event.sql = sql;
+
+    return event;
+  }
+}
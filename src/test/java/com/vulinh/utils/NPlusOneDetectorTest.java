@@ -0,0 +1,168 @@
+package com.vulinh.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.p6spy.engine.logging.Category;
+import com.vulinh.utils.NPlusOneDetector.Violation;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class NPlusOneDetectorTest {
+
+  static final String SELECT_COMMENTS = "select * from comment where post_id = ?";
+
+  final MyP6SpyLogging logging =
+      new MyP6SpyLogging(16, new SqlLogWriter(new MyP6SpyLoggingTest.RecordingOutput()));
+
+  @AfterEach
+  void tearDown() {
+    logging.buffer.close();
+  }
+
+  @Test
+  void testCloseShouldFlagSelectExecutedMoreThanThreshold() {
+    var scope = NPlusOneDetector.open("GET /posts", 3);
+
+    try (scope) {
+      executeStatement("select * from post", "select * from post");
+
+      for (var index = 0; index < 4; index++) {
+        executeStatement(SELECT_COMMENTS, "select * from comment where post_id = " + index);
+      }
+    }
+
+    // Every statement takes 2 ms
+    assertEquals(
+        List.of(new Violation("GET /posts", SELECT_COMMENTS, 4, 8)), scope.getViolations());
+    assertFalse(NPlusOneDetector.isActive());
+  }
+
+  @Test
+  void testCloseShouldGroupStatementsWithoutPlaceholdersByFingerprint() {
+    var scope = NPlusOneDetector.open("report", 2);
+
+    try (scope) {
+      for (var index = 0; index < 3; index++) {
+        executeStatement("", "SELECT * FROM tag WHERE id IN (%d, %d)".formatted(index, index + 1));
+      }
+    }
+
+    assertEquals(1, scope.getViolations().size());
+    assertEquals("select * from tag where id in (...)", scope.getViolations().get(0).fingerprint());
+    assertEquals(3, scope.getViolations().get(0).count());
+  }
+
+  @Test
+  void testCloseShouldIgnoreStatementsOtherThanSelect() {
+    var scope = NPlusOneDetector.open("import", 1);
+
+    try (scope) {
+      for (var index = 0; index < 5; index++) {
+        executeStatement("insert into tag (id) values (?)", "insert into tag (id) values (1)");
+      }
+
+      // Batches and result sets are not individual round trips of a query
+      logging.logSQL(1, "", 1, Category.BATCH, SELECT_COMMENTS, SELECT_COMMENTS, "");
+      logging.logSQL(1, "", 1, Category.RESULTSET, SELECT_COMMENTS, SELECT_COMMENTS, "");
+      logging.logSQL(1, "", 1, Category.RESULTSET, SELECT_COMMENTS, SELECT_COMMENTS, "");
+    }
+
+    assertTrue(scope.getViolations().isEmpty());
+  }
+
+  @Test
+  void testNestedScopeShouldJoinOutermostScope() {
+    var outerScope = NPlusOneDetector.open("outer", 2);
+
+    try (outerScope) {
+      try (var innerScope = NPlusOneDetector.open("inner", 100)) {
+        assertEquals("outer", innerScope.getName());
+
+        executeStatement(SELECT_COMMENTS, SELECT_COMMENTS);
+        executeStatement(SELECT_COMMENTS, SELECT_COMMENTS);
+      }
+
+      assertTrue(NPlusOneDetector.isActive());
+
+      executeStatement(SELECT_COMMENTS, SELECT_COMMENTS);
+    }
+
+    assertEquals(3, outerScope.getViolations().get(0).count());
+    assertEquals("outer", outerScope.getViolations().get(0).scope());
+  }
+
+  @Test
+  void testRecordOutsideScopeShouldDoNothing() {
+    executeStatement(SELECT_COMMENTS, SELECT_COMMENTS);
+
+    assertFalse(NPlusOneDetector.isActive());
+
+    try (var scope = NPlusOneDetector.open("empty")) {
+      assertTrue(NPlusOneDetector.isActive());
+      assertTrue(scope.getViolations().isEmpty());
+    }
+  }
+
+  @Test
+  void testIsSelectShouldRecognizeCommonTableExpressionsAndParentheses() {
+    assertTrue(NPlusOneDetector.Scope.isSelect("select * from post"));
+    assertTrue(
+        NPlusOneDetector.Scope.isSelect("( select id from post) union (select id from tag)"));
+    assertTrue(
+        NPlusOneDetector.Scope.isSelect(
+            "with recent(id) as (select id from post), tags as materialized (select * from tag)"
+                + " select * from recent"));
+    assertFalse(
+        NPlusOneDetector.Scope.isSelect(
+            "with stale as (select id from post) delete from post where id in (...)"));
+    assertFalse(NPlusOneDetector.Scope.isSelect("selection_log"));
+    assertFalse(NPlusOneDetector.Scope.isSelect("update post set title = ?"));
+  }
+
+  @Test
+  void testCloseShouldFlagCommonTableExpressionExecutedMoreThanThreshold() {
+    var selectComments = "WITH c AS (SELECT * FROM comment) SELECT * FROM c WHERE post_id = ?";
+    var scope = NPlusOneDetector.open("GET /posts", 1);
+
+    try (scope) {
+      executeStatement(selectComments, selectComments);
+      executeStatement(selectComments, selectComments);
+    }
+
+    assertEquals(1, scope.getViolations().size());
+  }
+
+  @Test
+  void testRecordShouldBoundCountedStatements() {
+    var scope = NPlusOneDetector.open("batch", 2);
+
+    try (scope) {
+      // Statements with inlined values, distinct but for a single fingerprint
+      for (var index = 0; index < NPlusOneDetector.MAX_STATEMENT_COUNT + 10; index++) {
+        executeStatement("", "select * from comment where post_id = " + index);
+      }
+
+      assertEquals(NPlusOneDetector.MAX_STATEMENT_COUNT + 1, scope.counters.size());
+
+      for (var index = 0; index < 2 * NPlusOneDetector.MAX_STATEMENT_COUNT; index++) {
+        executeStatement("", "select * from table_" + index);
+      }
+
+      assertEquals(2 * NPlusOneDetector.MAX_STATEMENT_COUNT, scope.counters.size());
+    }
+
+    assertEquals(
+        NPlusOneDetector.MAX_STATEMENT_COUNT + 10, scope.getViolations().get(0).count());
+  }
+
+  @Test
+  void testOpenShouldRejectNonPositiveThreshold() {
+    assertThrows(IllegalArgumentException.class, () -> NPlusOneDetector.open("scope", 0));
+    assertFalse(NPlusOneDetector.isActive());
+  }
+
+  void executeStatement(String prepared, String sql) {
+    logging.logSQL(1, "", 2, Category.STATEMENT, prepared, sql, "");
+  }
+}
@@ -0,0 +1,175 @@
+package com.vulinh.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PredicateBuilderTest {
+
+  static final StringPath TITLE = Expressions.stringPath("title");
+  static final NumberPath<Long> ID = Expressions.numberPath(Long.class, "id");
+
+  @Test
+  void testSeekAfterShouldCompareFollowingOrderDirections() {
+    var predicate =
+        PredicateBuilder.seekAfter(
+            List.of(
+                new OrderSpecifier<>(Order.DESC, TITLE),
+                new OrderSpecifier<>(Order.ASC, ID)),
+            List.of("b", 3L));
+
+    assertEquals("title < b || title = b && id > 3", predicate.toString());
+  }
+
+  @Test
+  void testSeekAfterShouldPlaceNullsFollowingNullHandling() {
+    var nullsLast = DslOrderBuilder.fromField(TITLE).withAsc();
+    var nullsFirst = DslOrderBuilder.fromField(TITLE).withAscNullFirst();
+    var id = DslOrderBuilder.fromField(ID).withAsc();
+
+    assertEquals(
+        "title > b || title is null || title = b && (id > 3 || id is null)",
+        PredicateBuilder.seekAfter(List.of(nullsLast, id), List.of("b", 3L)).toString());
+
+    // Nothing comes after the trailing nulls but the rows of the same title
+    assertEquals(
+        "title is null && (id > 3 || id is null)",
+        PredicateBuilder.seekAfter(List.of(nullsLast, id), Arrays.asList(null, 3L)).toString());
+    assertEquals(
+        "title is not null || title is null && (id > 3 || id is null)",
+        PredicateBuilder.seekAfter(List.of(nullsFirst, id), Arrays.asList(null, 3L)).toString());
+  }
+
+  @Test
+  void testSeekAfterShouldSkipNullsWithoutNullHandling() {
+    var title = new OrderSpecifier<>(Order.ASC, TITLE);
+    var id = new OrderSpecifier<>(Order.ASC, ID);
+
+    // Neither comparison matches a null title, on whatever side the database places it
+    assertEquals(
+        "title > b || title = b && id > 3",
+        PredicateBuilder.seekAfter(List.of(title, id), List.of("b", 3L)).toString());
+  }
+
+  @Test
+  void testSeekAfterShouldRejectMismatchedValues() {
+    var orders = List.of(new OrderSpecifier<>(Order.ASC, ID));
+
+    assertThrows(
+        IllegalArgumentException.class, () -> PredicateBuilder.seekAfter(orders, List.of()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PredicateBuilder.seekAfter(orders, Arrays.asList((Object) null)));
+  }
+
+  @Test
+  void testNormalizeShouldFlattenAndSortJunctions() {
+    var first = PredicateBuilder.and(ID.gt(1L), PredicateBuilder.and(TITLE.eq("a"), ID.lt(9L)));
+    var second = PredicateBuilder.and(PredicateBuilder.and(ID.lt(9L), ID.gt(1L)), TITLE.eq("a"));
+
+    assertNotEquals(first, second);
+    assertEquals(PredicateBuilder.normalize(first), PredicateBuilder.normalize(second));
+    assertEquals(
+        "title = a && id > 1 && id < 9", PredicateBuilder.normalize(first).toString());
+    assertTrue(PredicateBuilder.isEquivalent(first, second));
+    assertEquals(PredicateBuilder.stableHash(first), PredicateBuilder.stableHash(second));
+  }
+
+  @Test
+  void testNormalizeShouldRemoveIdentitiesAndDuplicates() {
+    var predicate =
+        PredicateBuilder.and(
+            null,
+            PredicateBuilder.always(),
+            TITLE.eq("a"),
+            PredicateBuilder.or(PredicateBuilder.never(), TITLE.eq("a")));
+
+    assertEquals(TITLE.eq("a"), PredicateBuilder.normalize(predicate));
+    assertEquals(PredicateBuilder.always(), PredicateBuilder.normalize(null));
+    assertEquals(PredicateBuilder.always(), PredicateBuilder.normalize(new BooleanBuilder()));
+    assertEquals(TITLE.eq("a"), PredicateBuilder.normalize(TITLE.eq("a").not().not()));
+  }
+
+  @Test
+  void testNormalizeShouldShortCircuitAbsorbingElements() {
+    assertEquals(
+        PredicateBuilder.never(),
+        PredicateBuilder.normalize(
+            PredicateBuilder.and(TITLE.eq("a"), PredicateBuilder.or(ID.gt(1L)), ID.gt(1L).not())));
+    assertEquals(
+        PredicateBuilder.never(),
+        PredicateBuilder.normalize(PredicateBuilder.and(TITLE.eq("a"), PredicateBuilder.never())));
+    assertEquals(
+        PredicateBuilder.always(),
+        PredicateBuilder.normalize(PredicateBuilder.or(TITLE.eq("a"), PredicateBuilder.always())));
+    assertEquals(
+        PredicateBuilder.always(),
+        PredicateBuilder.normalize(PredicateBuilder.never().not()));
+  }
+
+  @Test
+  void testNormalizeShouldKeepTautologiesOfNullableColumns() {
+    // Rows with a null title match neither title = a nor its negation
+    var tautology = PredicateBuilder.or(TITLE.eq("a"), TITLE.eq("a").not());
+    var negatedContradiction = PredicateBuilder.and(TITLE.eq("a"), TITLE.eq("a").not()).not();
+
+    assertEquals("title = a || !(title = a)", PredicateBuilder.normalize(tautology).toString());
+    assertEquals(
+        "!(title = a && !(title = a))",
+        PredicateBuilder.normalize(negatedContradiction).toString());
+    assertNotEquals(PredicateBuilder.always(), PredicateBuilder.normalize(negatedContradiction));
+    assertFalse(PredicateBuilder.isEquivalent(tautology, null));
+
+    // Twice negated, the contradiction is filtered out again
+    assertEquals(
+        PredicateBuilder.never(),
+        PredicateBuilder.normalize(ExpressionUtils.predicate(Ops.NOT, negatedContradiction)));
+  }
+
+  @Test
+  void testNormalizeShouldKeepNestedJunctionsOfOtherOperator() {
+    var predicate =
+        PredicateBuilder.or(
+            PredicateBuilder.and(TITLE.eq("b"), ID.gt(1L)), TITLE.isNull(), TITLE.isNull());
+
+    assertEquals(
+        "title = b && id > 1 || title is null", PredicateBuilder.normalize(predicate).toString());
+    assertNotEquals(
+        PredicateBuilder.stableHash(TITLE.eq("a")), PredicateBuilder.stableHash(TITLE.eq("b")));
+  }
+
+  @Test
+  void testNormalizeShouldOrderOperandsIndependentlyOfValues() {
+    var first =
+        PredicateBuilder.or(
+            PredicateBuilder.and(ID.eq(1L), TITLE.eq("a")),
+            PredicateBuilder.and(ID.eq(3L), TITLE.isNull()));
+    var second =
+        PredicateBuilder.or(
+            PredicateBuilder.and(ID.eq(3L), TITLE.eq("a")),
+            PredicateBuilder.and(ID.eq(1L), TITLE.isNull()));
+
+    // Same structure, hence the same JPQL, whatever the bound values
+    assertEquals(
+        "id = 1 && title = a || id = 3 && title is null",
+        PredicateBuilder.normalize(first).toString());
+    assertEquals(
+        "id = 3 && title = a || id = 1 && title is null",
+        PredicateBuilder.normalize(second).toString());
+
+    // Values only break the ties
+    assertEquals(
+        "title = a || title = b",
+        PredicateBuilder.normalize(PredicateBuilder.or(TITLE.eq("b"), TITLE.eq("a"))).toString());
+  }
+}
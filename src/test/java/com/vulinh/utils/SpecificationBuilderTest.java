@@ -0,0 +1,86 @@
+package com.vulinh.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vulinh.utils.SpecificationBuilder.Junction;
+import com.vulinh.utils.SpecificationBuilder.SpecificationOperation;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+class SpecificationBuilderTest {
+
+  static final Specification<Object> FIRST = (root, criteriaQuery, criteriaBuilder) -> null;
+  static final Specification<Object> SECOND = (root, criteriaQuery, criteriaBuilder) -> null;
+  static final Specification<Object> THIRD = (root, criteriaQuery, criteriaBuilder) -> null;
+
+  @Test
+  void testAndShouldDropIdentityElements() {
+    assertSame(FIRST, SpecificationBuilder.and(SpecificationBuilder.always(), null, FIRST));
+    assertEquals(
+        new Junction<>(SpecificationOperation.OR, List.of(FIRST)),
+        SpecificationBuilder.or(SpecificationBuilder.never(), FIRST, null));
+    assertSame(
+        SpecificationBuilder.always(),
+        SpecificationBuilder.and(null, SpecificationBuilder.always()));
+    assertSame(SpecificationBuilder.never(), SpecificationBuilder.or(null, null));
+    assertSame(SpecificationBuilder.always(), SpecificationBuilder.and());
+  }
+
+  @Test
+  void testAndShouldShortCircuitAbsorbingElements() {
+    assertSame(
+        SpecificationBuilder.never(),
+        SpecificationBuilder.and(FIRST, SpecificationBuilder.never(), SECOND));
+    assertSame(
+        SpecificationBuilder.always(),
+        SpecificationBuilder.or(FIRST, SpecificationBuilder.always(), SECOND));
+  }
+
+  @Test
+  void testAndShouldFlattenNestedJunctionsOfSameOperation() {
+    var specification =
+        SpecificationBuilder.and(
+            SpecificationBuilder.and(FIRST, SECOND), SpecificationBuilder.and(SECOND, THIRD));
+
+    assertEquals(
+        new Junction<>(SpecificationOperation.AND, List.of(FIRST, SECOND, THIRD)), specification);
+  }
+
+  @Test
+  void testOrShouldKeepNestedJunctionsOfOtherOperation() {
+    var conjunction = SpecificationBuilder.and(FIRST, SECOND);
+    var specification = SpecificationBuilder.or(conjunction, THIRD);
+
+    assertEquals(
+        new Junction<>(SpecificationOperation.OR, List.of(conjunction, THIRD)), specification);
+  }
+
+  @Test
+  void testJunctionShouldMatchNothingWhenNoOperandOfDisjunctionRenders() {
+    var disjunction = proxy(Predicate.class, (proxy, method, args) -> null);
+    var criteriaBuilder =
+        proxy(
+            CriteriaBuilder.class,
+            (proxy, method, args) -> "disjunction".equals(method.getName()) ? disjunction : null);
+
+    assertSame(
+        disjunction,
+        SpecificationBuilder.or(FIRST, SECOND).toPredicate(null, null, criteriaBuilder));
+    assertSame(
+        disjunction, SpecificationBuilder.or(FIRST).toPredicate(null, null, criteriaBuilder));
+    assertSame(
+        disjunction,
+        SpecificationBuilder.or(FIRST, FIRST).toPredicate(null, null, criteriaBuilder));
+    assertNull(SpecificationBuilder.and(FIRST, SECOND).toPredicate(null, null, criteriaBuilder));
+  }
+
+  static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(
+        Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+  }
+}
@@ -0,0 +1,34 @@
+package com.vulinh.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SqlFingerprintTest {
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = '|',
+      quoteCharacter = '`',
+      value = {
+        "select * from post where id = 42 | select * from post where id = ?",
+        "SELECT  *\\n FROM Post\tWHERE title = 'it''s' | select * from post where title = ?",
+        "select -1.5e-3, 2E10, 3.14 | select -?, ?, ?",
+        "select p1_0.id from post p1_0 where p1_0.id=? | "
+            + "select p1_0.id from post p1_0 where p1_0.id=?",
+        "select * from post where id in (1, 2, 3) | select * from post where id in (...)",
+        "select * from post where id IN(?,?) | select * from post where id in(...)",
+        "select * from post where id in ( ? ) | select * from post where id in (...)",
+        "select * from post where id in (select post_id from tag) | "
+            + "select * from post where id in (select post_id from tag)",
+        "insert into post (id, title) values (?, ?) | insert into post (id, title) values (?, ?)",
+        "select * from post where min(1, 2) > 0 | select * from post where min(?, ?) > ?",
+        "select /* hint */ 1 -- trailing | select ?",
+        "select \"Title\" from \"Post\" | select \"Title\" from \"Post\"",
+        "select $1 from post | select $1 from post"
+      })
+  void testOfShouldNormalizeStatement(String sql, String expectedFingerprint) {
+    assertEquals(expectedFingerprint, SqlFingerprint.of(sql.replace("\\n", "\n")));
+  }
+}
@@ -0,0 +1,196 @@
+package com.vulinh.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vulinh.utils.MyP6SpyLogging.LogCategory;
+import com.vulinh.utils.MyP6SpyLoggingTest.RecordingOutput;
+import com.vulinh.utils.SqlMonitor.SlowQueryRing;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+class SqlMonitorTest {
+
+  static final String PREPARED = "select * from post where id = ?";
+
+  final RecordingOutput output = new RecordingOutput();
+  final SqlLogWriter writer = new SqlLogWriter(output);
+
+  @AfterEach
+  void tearDown() {
+    SqlMonitor.setSlowQueryThreshold(Duration.ZERO);
+    SqlMonitor.reset();
+  }
+
+  @Test
+  void testWriterShouldRecordOnlyStatementsAboveThreshold() {
+    SqlMonitor.setSlowQueryThreshold(Duration.ofMillis(100));
+
+    writer.write(event(1, LogCategory.STATEMENT, 99, "select * from post where id = 1"));
+    writer.write(event(2, LogCategory.STATEMENT, 100, "select * from post where id = 2"));
+    writer.write(event(3, LogCategory.STATEMENT, 250, "select * from post where id = 3"));
+
+    var slowQueries = SqlMonitor.getSlowQueries();
+
+    assertEquals(2, slowQueries.size());
+
+    // Most recent first, with the bound values and the connection
+    assertEquals(3, slowQueries.get(0).connectionId());
+    assertEquals(250, slowQueries.get(0).elapsedMillis());
+    assertEquals(PREPARED, slowQueries.get(0).prepared());
+    assertEquals("select * from post where id = 3", slowQueries.get(0).sql());
+    assertEquals(2, slowQueries.get(1).connectionId());
+
+    assertEquals(
+        List.of(
+            "#2 [ SLOW ] - 100 ms: select * from post where id = 2",
+            "#3 [ SLOW ] - 250 ms: select * from post where id = 3"),
+        output.slowStatements);
+    assertEquals(List.of("select * from post where id = 1"), output.statements);
+  }
+
+  @Test
+  void testWriterShouldNotRecordSlowQueriesWhenDisabled() {
+    writer.write(event(1, LogCategory.STATEMENT, 10_000, "select * from post where id = 1"));
+
+    assertEquals(Duration.ZERO, SqlMonitor.getSlowQueryThreshold());
+    assertTrue(SqlMonitor.getSlowQueries().isEmpty());
+    assertTrue(output.slowStatements.isEmpty());
+  }
+
+  @Test
+  void testWriterShouldRecordSlowBatchAsSingleStatement() {
+    SqlMonitor.setSlowQueryThreshold(Duration.ofMillis(30));
+
+    for (var index = 0; index < 3; index++) {
+      writer.write(
+          event(1, LogCategory.BATCH, 10, "insert into tag (id) values (%d)".formatted(index)));
+    }
+
+    writer.flush();
+
+    var slowQueries = SqlMonitor.getSlowQueries();
+
+    assertEquals(1, slowQueries.size());
+    assertEquals(30, slowQueries.get(0).elapsedMillis());
+    assertEquals("insert into tag (id) values (2)", slowQueries.get(0).sql());
+    assertEquals(1, SqlMonitor.getConnectionStatistics().get(0).statementCount());
+  }
+
+  @Test
+  void testWriterShouldCountStatementsAndTransactionsPerConnection() {
+    writer.write(event(2, LogCategory.STATEMENT, 5, "select * from post where id = 1"));
+    writer.write(event(2, LogCategory.STATEMENT, 7, "select * from post where id = 2"));
+    writer.write(event(2, LogCategory.COMMIT, 0, ""));
+    writer.write(event(1, LogCategory.STATEMENT, 1, "select * from post where id = 3"));
+    writer.write(event(1, LogCategory.ROLLBACK, 0, ""));
+    writer.write(event(1, LogCategory.RESULTSET, 1, "select * from post where id = 3"));
+
+    var statistics = SqlMonitor.getConnectionStatistics();
+
+    assertEquals(2, statistics.size());
+
+    var first = statistics.get(0);
+
+    assertEquals(1, first.connectionId());
+    assertEquals(1, first.statementCount());
+    assertEquals(0, first.commitCount());
+    assertEquals(1, first.rollbackCount());
+    assertEquals(1, first.elapsedMillis());
+
+    var second = statistics.get(1);
+
+    assertEquals(2, second.connectionId());
+    assertEquals(2, second.statementCount());
+    assertEquals(1, second.commitCount());
+    assertEquals(0, second.rollbackCount());
+    assertEquals(12, second.elapsedMillis());
+  }
+
+  @Test
+  void testCountersOfShouldEvictLeastRecentlyActiveConnection() {
+    var maxCount = SqlMonitor.MAX_TRACKED_CONNECTION_COUNT;
+
+    for (var connectionId = 0; connectionId < maxCount; connectionId++) {
+      SqlMonitor.countersOf(connectionId);
+    }
+
+    SqlMonitor.recordTransactionEnd(0, true);
+    SqlMonitor.recordStatement(-1, 1, PREPARED, PREPARED, false);
+
+    assertEquals(maxCount, SqlMonitor.CONNECTIONS.size());
+    assertTrue(SqlMonitor.CONNECTIONS.containsKey(0));
+    assertTrue(SqlMonitor.CONNECTIONS.containsKey(-1));
+    assertFalse(SqlMonitor.CONNECTIONS.containsKey(1));
+  }
+
+  @Test
+  void testConfigureShouldApplyEnvironmentProperties() {
+    new SqlMonitor.EnvironmentConfigurer(
+        environment(
+            Map.of(
+                SqlMonitor.SLOW_QUERY_THRESHOLD_PROPERTY, "250ms",
+                SqlMonitor.SLOW_QUERY_CAPACITY_PROPERTY, "3")));
+
+    assertEquals(Duration.ofMillis(250), SqlMonitor.getSlowQueryThreshold());
+    assertEquals(3, SqlMonitor.slowQueries.slowQueries.length);
+
+    SqlMonitor.configure(environment(Map.of()));
+
+    assertEquals(Duration.ZERO, SqlMonitor.getSlowQueryThreshold());
+    assertEquals(
+        SqlMonitor.DEFAULT_SLOW_QUERY_CAPACITY, SqlMonitor.slowQueries.slowQueries.length);
+  }
+
+  @Test
+  void testSlowQueryRingShouldKeepLastSlowQueries() {
+    var ring = new SlowQueryRing(2);
+
+    for (var index = 0; index < 3; index++) {
+      ring.add(new SqlMonitor.SlowQuery(null, index, index, PREPARED, PREPARED));
+    }
+
+    var snapshot = ring.snapshot();
+
+    assertEquals(2, snapshot.size());
+    assertEquals(2, snapshot.get(0).connectionId());
+    assertEquals(1, snapshot.get(1).connectionId());
+
+    ring.clear();
+
+    assertTrue(ring.snapshot().isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> new SlowQueryRing(0));
+  }
+
+  @Test
+  void testSetSlowQueryThresholdShouldRejectNegativeDuration() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SqlMonitor.setSlowQueryThreshold(Duration.ofMillis(-1)));
+  }
+
+  static StandardEnvironment environment(Map<String, Object> properties) {
+    var environment = new StandardEnvironment();
+
+    environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+
+    return environment;
+  }
+
+  static SqlLogRingBuffer.SqlEvent event(
+      int connectionId, LogCategory category, long elapsedMillis, String sql) {
+    var event = new SqlLogRingBuffer.SqlEvent();
+
+    event.connectionId = connectionId;
+    event.elapsedMillis = elapsedMillis;
+    event.category = category;
+    event.prepared = sql.isEmpty() ? "" : PREPARED;
+    event.sql = sql;
+
+    return event;
+  }
+}
@@ -0,0 +1,82 @@
+package com.vulinh.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SqlStatementStatisticsTest {
+
+  @Test
+  void testRecordShouldAggregatePerFingerprint() {
+    var statistics = new SqlStatementStatistics();
+
+    statistics.record("select * from post where id = 1", 3);
+    statistics.record("select * from post where id = 2", 5);
+    statistics.record("delete from post", 100);
+
+    var entry = statistics.entries.get("select * from post where id = ?");
+
+    assertEquals(2, statistics.entries.size());
+    assertEquals(3, statistics.executionCount);
+    assertEquals(2, entry.count);
+    assertEquals(8, entry.totalMillis);
+    assertEquals(3, entry.minMillis);
+    assertEquals(5, entry.maxMillis);
+    assertEquals(4.0, entry.meanMillis());
+  }
+
+  @Test
+  void testPercentileMillisShouldReturnBucketUpperBoundCappedByMax() {
+    var entry = new SqlStatementStatistics.Entry("select ?");
+
+    for (var index = 0; index < 99; index++) {
+      entry.record(3);
+    }
+
+    entry.record(700);
+
+    assertEquals(5, entry.percentileMillis(50));
+    assertEquals(5, entry.percentileMillis(99));
+    assertEquals(700, entry.percentileMillis(100));
+  }
+
+  @Test
+  void testRecordShouldGroupStatementsBeyondLimit() {
+    var statistics = new SqlStatementStatistics();
+
+    for (var index = 0; index < SqlStatementStatistics.MAX_FINGERPRINT_COUNT + 5; index++) {
+      statistics.record("select * from table_" + index, 1);
+    }
+
+    assertEquals(SqlStatementStatistics.MAX_FINGERPRINT_COUNT + 1, statistics.entries.size());
+    assertEquals(5, statistics.entries.get(SqlStatementStatistics.OTHER_STATEMENTS).count);
+  }
+
+  @Test
+  void testReportShouldRankTopStatementsAndReset() {
+    var statistics = new SqlStatementStatistics();
+
+    for (var index = 0; index < 10; index++) {
+      statistics.record("select * from comment where post_id = " + index, 1);
+    }
+
+    statistics.record("select * from post", 50);
+    statistics.record("delete from tag", 2);
+
+    var lines = statistics.report(1, 60_000).split("\n");
+
+    assertArrayEquals(
+        new String[] {
+          "SQL statistics of the last 60 s: 12 execution(s) of 3 statement(s)",
+          "Top 1 by total time:",
+          "  count=1 total=50ms mean=50.0ms min=50ms max=50ms p50<=50ms p95<=50ms p99<=50ms"
+              + " | select * from post",
+          "Top 1 by count:",
+          "  count=10 total=10ms mean=1.0ms min=1ms max=1ms p50<=1ms p95<=1ms p99<=1ms"
+              + " | select * from comment where post_id = ?"
+        },
+        lines);
+    assertTrue(statistics.isEmpty());
+    assertTrue(statistics.entries.isEmpty());
+  }
+}
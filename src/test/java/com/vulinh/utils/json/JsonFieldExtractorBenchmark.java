@@ -0,0 +1,75 @@
+package com.vulinh.utils.json;
+
+import com.vulinh.data.event.ActionUser;
+import com.vulinh.data.event.EventMessageWrapper;
+import com.vulinh.data.event.EventType;
+import com.vulinh.data.event.payload.NewCommentEvent;
+import com.vulinh.utils.JsonFieldExtractor;
+import com.vulinh.utils.JsonUtils;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading the routing fields of an event with a {@link JsonFieldExtractor}, with a full
+ * bind and with a tree model. Run the {@link #main(String[])} method after compiling the test
+ * sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class JsonFieldExtractorBenchmark {
+
+  static final JsonFieldExtractor EXTRACTOR = JsonFieldExtractor.of("/eventId", "/eventType");
+
+  byte[] json;
+
+  @Setup
+  public void setUp() {
+    var event =
+        EventMessageWrapper.<NewCommentEvent>builder()
+            .eventType(EventType.NEW_COMMENT)
+            .actionUser(new ActionUser(UUID.randomUUID(), "alice"))
+            .data(
+                new NewCommentEvent(
+                    UUID.randomUUID(),
+                    "A post title",
+                    "The excerpt of the post",
+                    UUID.randomUUID(),
+                    "The content of the comment ".repeat(20)))
+            .build();
+
+    json = JsonUtils.toMinimizedJSONBytes(event);
+  }
+
+  @Benchmark
+  public Object extract() {
+    return EXTRACTOR.extract(json);
+  }
+
+  @Benchmark
+  public Object bind() {
+    var event = JsonUtils.toObject(json, EventMessageWrapper.class);
+
+    return event.eventType();
+  }
+
+  @Benchmark
+  public Object tree() throws Exception {
+    return JsonUtils.delegate().readTree(json).at("/eventType").asText();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(JsonFieldExtractorBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,168 @@
+package com.vulinh.utils.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vulinh.utils.JsonFieldExtractor;
+import com.vulinh.utils.JsonUtils;
+import com.vulinh.utils.JsonUtils.Format;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class JsonFieldExtractorTest {
+
+  static final String EVENT =
+      """
+      {
+        "eventId": "0b9ee0a4-4c34-4bd0-9f71-c5c2b4c2d8a1",
+        "timestamp": "2025-01-01T00:00:00Z",
+        "eventType": "NEW_POST",
+        "actionUser": {"id": "5e8f3d7c-0f0b-4f4e-8b7a-2a1f4c7e9d10", "username": "alice"},
+        "data": {
+          "postId": "3c1b9f2e-6a57-4d8e-9b2c-7f0d1e4a5b6c",
+          "title": "Title",
+          "tags": ["a", "b", "c"]
+        },
+        "extra": null
+      }""";
+
+  @Test
+  void testExtractShouldReturnRequestedTopLevelFields() {
+    var fields = JsonFieldExtractor.of("/eventType", "/eventId").extract(EVENT);
+
+    assertEquals(
+        Map.of("/eventType", "NEW_POST", "/eventId", "0b9ee0a4-4c34-4bd0-9f71-c5c2b4c2d8a1"),
+        fields);
+  }
+
+  @Test
+  void testExtractShouldReturnNestedFieldsAndArrayElements() {
+    var fields =
+        JsonFieldExtractor.of("/actionUser/username", "/data/tags/1", "/data/tags/5")
+            .extract(EVENT);
+
+    assertEquals(Map.of("/actionUser/username", "alice", "/data/tags/1", "b"), fields);
+  }
+
+  @Test
+  void testExtractShouldBindContainerValues() {
+    var fields = JsonFieldExtractor.of("/actionUser", "/data/tags").extract(EVENT);
+
+    assertEquals(
+        Map.of("id", "5e8f3d7c-0f0b-4f4e-8b7a-2a1f4c7e9d10", "username", "alice"),
+        fields.get("/actionUser"));
+    assertEquals(List.of("a", "b", "c"), fields.get("/data/tags"));
+  }
+
+  @Test
+  void testExtractShouldResolveDescendantsOfRequestedContainer() {
+    var fields = JsonFieldExtractor.of("/data/title", "/data", "/data/tags/0").extract(EVENT);
+
+    assertInstanceOf(Map.class, fields.get("/data"));
+    assertEquals("Title", fields.get("/data/title"));
+    assertEquals("a", fields.get("/data/tags/0"));
+  }
+
+  @Test
+  void testExtractShouldDistinguishNullFromMissingFields() {
+    var fields = JsonFieldExtractor.of("/extra", "/missing", "/eventType/nested").extract(EVENT);
+
+    assertTrue(fields.containsKey("/extra"));
+    assertNull(fields.get("/extra"));
+    assertFalse(fields.containsKey("/missing"));
+    assertFalse(fields.containsKey("/eventType/nested"));
+  }
+
+  @Test
+  void testExtractShouldDecodeEscapedPointers() {
+    var fields =
+        JsonFieldExtractor.of("/a~1b", "/m~0n", "/0")
+            .extract(
+                """
+                {"a/b": 1, "m~n": 2, "0": 3}""");
+
+    assertEquals(Map.of("/a~1b", 1, "/m~0n", 2, "/0", 3), fields);
+  }
+
+  @Test
+  void testExtractShouldReturnWholeDocumentForRootPointer() {
+    assertEquals(Map.of("", List.of(1, 2)), JsonFieldExtractor.of("").extract("[1, 2]"));
+  }
+
+  @Test
+  void testExtractShouldStopOnceEveryPointerIsFound() {
+    // The document is truncated after the requested fields
+    var truncated =
+        """
+        {"eventType": "NEW_POST", "eventId": "id", "data": {"title": """;
+
+    var fields = JsonFieldExtractor.of("/eventType", "/eventId").extract(truncated);
+
+    assertEquals(Map.of("/eventType", "NEW_POST", "/eventId", "id"), fields);
+  }
+
+  @Test
+  void testExtractShouldFailOnMalformedDocumentBeforeEveryPointerIsFound() {
+    var extractor = JsonFieldExtractor.of("/eventType", "/missing");
+
+    assertThrows(IllegalArgumentException.class, () -> extractor.extract(EVENT.substring(0, 90)));
+  }
+
+  @Test
+  void testOfShouldRejectInvalidPointers() {
+    assertThrows(IllegalArgumentException.class, () -> JsonFieldExtractor.of("eventType"));
+  }
+
+  @Test
+  void testExtractWithoutPointersShouldReturnEmptyMap() {
+    assertTrue(JsonFieldExtractor.of().extract("not even JSON").isEmpty());
+  }
+
+  @Test
+  void testExtractFromStreamShouldNotReadFurtherNorCloseStream() {
+    var bytes = EVENT.getBytes(StandardCharsets.UTF_8);
+    var closed = new boolean[1];
+
+    InputStream inputStream =
+        new ByteArrayInputStream(bytes) {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+
+    var fields = JsonUtils.extractFields(inputStream, "/eventId");
+
+    assertEquals(Map.of("/eventId", "0b9ee0a4-4c34-4bd0-9f71-c5c2b4c2d8a1"), fields);
+    assertFalse(closed[0]);
+  }
+
+  @Test
+  void testExtractFieldsShouldMatchExtractorForStringAndBytes() {
+    var extractor = JsonFieldExtractor.of("/eventType", "/data/postId");
+
+    assertEquals(
+        extractor.extract(EVENT), JsonUtils.extractFields(EVENT, "/eventType", "/data/postId"));
+    assertEquals(
+        extractor.extract(EVENT),
+        JsonUtils.extractFields(
+            EVENT.getBytes(StandardCharsets.UTF_8), "/eventType", "/data/postId"));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Format.class)
+  void testExtractShouldSupportEveryFormat(Format format) {
+    var document = Map.of("eventType", "NEW_POST", "data", Map.of("title", "Title", "size", 3));
+
+    var fields =
+        JsonFieldExtractor.of("/eventType", "/data/size")
+            .extract(JsonUtils.toBytes(document, format), format);
+
+    assertEquals(Map.of("/eventType", "NEW_POST", "/data/size", 3), fields);
+  }
+}
@@ -5,11 +5,32 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.vulinh.utils.JsonUtils;
+import com.vulinh.utils.JsonUtils.Format;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 class JsonUtilsTest {
 
@@ -192,4 +213,382 @@ class JsonUtilsTest {
     assertEquals("value1", result.get("key1"));
     assertEquals("value2", result.get("key2"));
   }
+
+  @Test
+  void testToMinimizedJSONBytesShouldMatchString() {
+    var sample = new SampleObject("Alice", 30);
+
+    var bytes = JsonUtils.toMinimizedJSONBytes(sample);
+
+    assertEquals(JsonUtils.toMinimizedJSON(sample), new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testToPrettyJSONBytesShouldMatchString() {
+    var sample = new SampleObject("Alice", 30);
+
+    var bytes = JsonUtils.toPrettyJSONBytes(sample);
+
+    assertEquals(JsonUtils.toPrettyJSON(sample), new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testToMinimizedJSONShouldSerializeNull() {
+    assertEquals("null", JsonUtils.toMinimizedJSON(null));
+    assertArrayEquals("null".getBytes(StandardCharsets.UTF_8), JsonUtils.toMinimizedJSONBytes(null));
+  }
+
+  @Test
+  void testWriteMinimizedJSONShouldNotCloseStream() {
+    var closed = new boolean[1];
+    var outputStream =
+        new ByteArrayOutputStream() {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+
+    JsonUtils.writeMinimizedJSON(new SampleObject("Alice", 30), outputStream);
+    JsonUtils.writePrettyJSON(new SampleObject("Bob", 25), outputStream);
+
+    assertFalse(closed[0], "The stream belongs to the caller and should not be closed");
+    assertTrue(
+        outputStream
+            .toString(StandardCharsets.UTF_8)
+            .startsWith(
+                """
+                {"name":"Alice","age":30}{"""));
+  }
+
+  @Test
+  void testWriteMinimizedJSONShouldWrapIOException() {
+    var failingStream =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("Disk full");
+          }
+        };
+
+    assertThrows(
+        UncheckedIOException.class,
+        () -> JsonUtils.writeMinimizedJSON(new SampleObject("Alice", 30), failingStream));
+  }
+
+  @Test
+  void testWriteMinimizedJSONShouldAppendToBuffer() {
+    var buffer = ByteBuffer.allocateDirect(64);
+
+    JsonUtils.writeMinimizedJSON(new SampleObject("Alice", 30), buffer);
+    JsonUtils.writeMinimizedJSON(new SampleObject("Bob", 25), buffer);
+
+    buffer.flip();
+
+    var bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+
+    assertEquals(
+        """
+        {"name":"Alice","age":30}{"name":"Bob","age":25}""",
+        new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testWriteMinimizedJSONShouldLeaveBufferPositionOnOverflow() {
+    var buffer = ByteBuffer.allocate(8);
+    buffer.put((byte) 1);
+
+    assertThrows(
+        BufferOverflowException.class,
+        () -> JsonUtils.writeMinimizedJSON(new SampleObject("Alice", 30), buffer));
+    assertEquals(1, buffer.position());
+  }
+
+  @Test
+  void testToObjectWithBytesShouldDeserialize() {
+    var bytes =
+        """
+        {"name":"Bob","age":25}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(new SampleObject("Bob", 25), JsonUtils.toObject(bytes, SampleObject.class));
+  }
+
+  @Test
+  void testToObjectWithBytesAndTypeReferenceShouldDeserialize() {
+    var bytes =
+        """
+        [{"name":"Alice","age":30},{"name":"Bob","age":25}]"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    List<SampleObject> result = JsonUtils.toObject(bytes, new TypeReference<>() {});
+
+    assertEquals(List.of(new SampleObject("Alice", 30), new SampleObject("Bob", 25)), result);
+  }
+
+  @Test
+  void testToObjectWithBytesShouldThrowOnInvalidJSON() {
+    var bytes = "not valid json".getBytes(StandardCharsets.UTF_8);
+
+    var exception =
+        assertThrows(
+            IllegalArgumentException.class, () -> JsonUtils.toObject(bytes, SampleObject.class));
+
+    assertEquals("JSON deserialization error", exception.getMessage());
+  }
+
+  @Test
+  void testToObjectWithHeapBufferShouldReadRemainingBytes() {
+    var json =
+        """
+        xx{"name":"Bob","age":25}"""
+            .getBytes(StandardCharsets.UTF_8);
+    var buffer = ByteBuffer.wrap(json).position(2);
+
+    assertEquals(new SampleObject("Bob", 25), JsonUtils.toObject(buffer, SampleObject.class));
+    assertEquals(2, buffer.position());
+  }
+
+  @Test
+  void testToObjectWithDirectBufferShouldDeserialize() {
+    var json =
+        """
+        {"key1":"value1"}"""
+            .getBytes(StandardCharsets.UTF_8);
+    var buffer = ByteBuffer.allocateDirect(json.length).put(json).flip();
+
+    Map<String, String> result = JsonUtils.toObject(buffer, new TypeReference<>() {});
+
+    assertEquals(Map.of("key1", "value1"), result);
+    assertEquals(0, buffer.position());
+  }
+
+  @Test
+  void testToObjectWithInputStreamShouldNotCloseStream() {
+    var closed = new boolean[1];
+    var inputStream =
+        new ByteArrayInputStream(
+            """
+            {"name":"Bob","age":25}"""
+                .getBytes(StandardCharsets.UTF_8)) {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+
+    assertEquals(new SampleObject("Bob", 25), JsonUtils.toObject(inputStream, SampleObject.class));
+    assertFalse(closed[0], "The stream belongs to the caller and should not be closed");
+  }
+
+  @Test
+  void testToObjectWithInputStreamShouldWrapIOException() {
+    var failingStream =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("Connection reset");
+          }
+        };
+
+    assertThrows(
+        UncheckedIOException.class,
+        () -> JsonUtils.toObject(failingStream, new TypeReference<List<SampleObject>>() {}));
+  }
+
+  @Test
+  void testStreamArrayShouldReadElementsLazily() {
+    var reader =
+        new StringReader(
+            """
+            [{"name":"Alice","age":30},{"name":"Bob","age":25},{"name":"Carol","age":"x"}]""");
+
+    try (var elements = JsonUtils.streamArray(reader, SampleObject.class)) {
+      // The malformed third element is never read
+      assertEquals(
+          List.of(new SampleObject("Alice", 30), new SampleObject("Bob", 25)),
+          elements.limit(2).toList());
+    }
+  }
+
+  @Test
+  void testStreamArrayWithTypeReferenceShouldDeserializeElements() {
+    var inputStream =
+        new ByteArrayInputStream(
+            """
+            [{"key1":"value1"},null,{}]"""
+                .getBytes(StandardCharsets.UTF_8));
+
+    try (var elements =
+        JsonUtils.streamArray(inputStream, new TypeReference<Map<String, String>>() {})) {
+      var result = elements.toList();
+
+      assertEquals(3, result.size());
+      assertEquals(Map.of("key1", "value1"), result.get(0));
+      assertNull(result.get(1));
+      assertEquals(Map.of(), result.get(2));
+    }
+  }
+
+  @Test
+  void testStreamArrayShouldReadEmptyArray() {
+    try (var elements = JsonUtils.streamArray(new StringReader("[]"), SampleObject.class)) {
+      assertEquals(0, elements.count());
+    }
+  }
+
+  @Test
+  void testStreamArrayShouldThrowOnNonArray() {
+    var reader =
+        new StringReader(
+            """
+            {"name":"Alice","age":30}""");
+
+    var exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> JsonUtils.streamArray(reader, SampleObject.class));
+
+    assertEquals("JSON deserialization error", exception.getMessage());
+  }
+
+  @Test
+  void testStreamArrayShouldThrowOnMalformedElementWhileConsuming() {
+    var reader =
+        new StringReader(
+            """
+            [{"name":"Alice","age":30},{"name":"Bob","age":"x"}]""");
+
+    try (var elements = JsonUtils.streamArray(reader, SampleObject.class)) {
+      var exception = assertThrows(IllegalArgumentException.class, elements::toList);
+
+      assertEquals("JSON deserialization error", exception.getMessage());
+    }
+  }
+
+  @Test
+  void testWriteMinimizedJSONArrayShouldWriteAllElements() {
+    var writer = new StringWriter();
+
+    var count =
+        JsonUtils.writeMinimizedJSONArray(
+            Stream.of(new SampleObject("Alice", 30), new SampleObject("Bob", 25)), writer);
+
+    assertEquals(2, count);
+    assertEquals(
+        """
+        [{"name":"Alice","age":30},{"name":"Bob","age":25}]""",
+        writer.toString());
+  }
+
+  @Test
+  void testWriteMinimizedJSONArrayShouldWriteEmptyArray() {
+    var outputStream = new ByteArrayOutputStream();
+
+    assertEquals(0, JsonUtils.writeMinimizedJSONArray(Stream.empty(), outputStream));
+    assertEquals("[]", outputStream.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testArrayShouldRoundTripThroughFile(@TempDir Path directory) throws IOException {
+    var path = directory.resolve("export.json");
+    var original =
+        IntStream.range(0, 10_000).mapToObj(index -> new SampleObject("name" + index, index));
+
+    assertEquals(10_000, JsonUtils.writeMinimizedJSONArray(original, path));
+    assertTrue(Files.size(path) > 0);
+
+    try (var elements = JsonUtils.streamArray(path, SampleObject.class)) {
+      assertEquals(49_995_000L, elements.mapToLong(SampleObject::age).sum());
+    }
+
+    try (var elements = JsonUtils.streamArray(path, new TypeReference<SampleObject>() {})) {
+      assertEquals(new SampleObject("name0", 0), elements.findFirst().orElseThrow());
+    }
+  }
+
+  @Test
+  void testDelegateWithFormatShouldReturnFormatMappers() {
+    assertSame(JsonUtils.delegate(), JsonUtils.delegate(Format.JSON));
+    assertInstanceOf(SmileFactory.class, JsonUtils.delegate(Format.SMILE).getFactory());
+    assertInstanceOf(CBORFactory.class, JsonUtils.delegate(Format.CBOR).getFactory());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Format.class)
+  void testFormatsShouldShareConfiguration(Format format) {
+    var mapper = JsonUtils.delegate(format);
+
+    assertFalse(mapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+
+    var original = new ObjectWithDate("Alice", LocalDate.of(2000, 1, 15));
+    var bytes = JsonUtils.toBytes(original, format);
+
+    assertEquals(original, JsonUtils.toObject(bytes, ObjectWithDate.class, format));
+    assertEquals(
+        new ObjectWithNullField("Alice", null),
+        JsonUtils.toObject(
+            new ByteArrayInputStream(
+                JsonUtils.toBytes(new ObjectWithNullField("Alice", null), format)),
+            ObjectWithNullField.class,
+            format));
+
+    // Null fields are skipped and unknown fields are ignored in every format
+    Map<String, Object> map =
+        JsonUtils.toObject(
+            JsonUtils.toBytes(new ObjectWithNullField("Alice", null), format),
+            new TypeReference<>() {},
+            format);
+
+    assertEquals(Map.of("name", "Alice"), map);
+    assertEquals(
+        new ObjectWithExtra("Bob", 25),
+        JsonUtils.toObject(
+            JsonUtils.toBytes(Map.of("name", "Bob", "age", 25, "unknown", true), format),
+            ObjectWithExtra.class,
+            format));
+  }
+
+  @Test
+  void testJSONFormatShouldMatchMinimizedJSON() {
+    var sample = new SampleObject("Alice", 30);
+
+    assertArrayEquals(
+        JsonUtils.toMinimizedJSONBytes(sample), JsonUtils.toBytes(sample, Format.JSON));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Format.class)
+  void testWriteWithFormatShouldNotCloseStream(Format format) {
+    var closed = new boolean[1];
+    var outputStream =
+        new ByteArrayOutputStream() {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+
+    JsonUtils.write(List.of(new SampleObject("Alice", 30)), outputStream, format);
+
+    assertFalse(closed[0], "The stream belongs to the caller and should not be closed");
+
+    List<SampleObject> result =
+        JsonUtils.toObject(
+            new ByteArrayInputStream(outputStream.toByteArray()), new TypeReference<>() {}, format);
+
+    assertEquals(List.of(new SampleObject("Alice", 30)), result);
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = Format.class, names = {"SMILE", "CBOR"})
+  void testBinaryFormatsShouldThrowOnInvalidContent(Format format) {
+    var exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> JsonUtils.toObject(new byte[] {(byte) 0xFF, 0x00}, SampleObject.class, format));
+
+    assertEquals("JSON deserialization error", exception.getMessage());
+  }
 }